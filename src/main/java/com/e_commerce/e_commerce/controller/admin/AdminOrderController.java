@@ -1,9 +1,14 @@
 package com.e_commerce.e_commerce.controller.admin;
 
 
+import com.e_commerce.e_commerce.dto.response.CursorPageResponse;
 import com.e_commerce.e_commerce.dto.response.OrderResponse;
+import com.e_commerce.e_commerce.dto.response.OrderStatsResponse;
+import com.e_commerce.e_commerce.dto.response.OrderSummaryResponse;
 import com.e_commerce.e_commerce.enums.OrderStatus;
 import com.e_commerce.e_commerce.service.OrderService;
+import com.e_commerce.e_commerce.service.stats.OrderStatsService;
+import com.e_commerce.e_commerce.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -13,6 +18,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/admin/orders")
 @RequiredArgsConstructor
@@ -20,10 +27,15 @@ import org.springframework.web.bind.annotation.*;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminOrderController {
 
+    // Order columns that always have a value, so a scroll can page by them
+    private static final Set<String> SCROLL_KEYS = Set.of("orderId", "orderNumber", "customerEmail", "status",
+            "totalAmount", "createdDate");
+
     private final OrderService orderService;
+    private final OrderStatsService orderStatsService;
 
     @GetMapping
-    public ResponseEntity<Page<OrderResponse>> getAllOrders(
+    public ResponseEntity<Page<OrderSummaryResponse>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdDate") String sortBy,
@@ -33,10 +45,31 @@ public class AdminOrderController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<OrderResponse> orders = orderService.getAllOrders(pageable);
+        Page<OrderSummaryResponse> orders = orderService.getAllOrders(pageable);
+        return ResponseEntity.ok(orders);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> scrollOrders(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        CursorCodec.checkSort(sort, SCROLL_KEYS);
+
+        CursorPageResponse<OrderResponse> orders = orderService.scrollAllOrders(sort, after, size);
         return ResponseEntity.ok(orders);
     }
 
+    // Dashboard counters, served from memory
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsResponse> getOrderStats() {
+        return ResponseEntity.ok(orderStatsService.getStats());
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long orderId) {
         OrderResponse order = orderService.getOrderById(orderId);
@@ -44,14 +77,14 @@ public class AdminOrderController {
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<Page<OrderResponse>> getOrdersByStatus(
+    public ResponseEntity<Page<OrderSummaryResponse>> getOrdersByStatus(
             @PathVariable String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
         OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-        Page<OrderResponse> orders = orderService.getOrdersByStatus(orderStatus, pageable);
+        Page<OrderSummaryResponse> orders = orderService.getOrdersByStatus(orderStatus, pageable);
         return ResponseEntity.ok(orders);
     }
 
@@ -0,0 +1,81 @@
+package com.e_commerce.e_commerce.controller.admin;
+
+import com.e_commerce.e_commerce.dto.response.CategorySalesResponse;
+import com.e_commerce.e_commerce.dto.response.DailySalesResponse;
+import com.e_commerce.e_commerce.dto.response.ProductSalesResponse;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.service.report.SalesReportService;
+import com.e_commerce.e_commerce.service.report.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+// Sales reports over the daily rollups; dates are order dates, ranges inclusive, last 30 days by default
+@RestController
+@RequestMapping("/api/admin/reports/sales")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminReportController {
+
+    private static final int DEFAULT_DAYS = 30;
+
+    private final SalesReportService salesReportService;
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/daily")
+    public ResponseEntity<Page<DailySalesResponse>> getDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "31") int size) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        return ResponseEntity.ok(salesReportService.getDailySales(start, end, page, size));
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<Page<ProductSalesResponse>> getProductSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "revenue") String sortBy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        return ResponseEntity.ok(salesReportService.getProductSales(start, end, sortBy, page, size));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<Page<CategorySalesResponse>> getCategorySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "revenue") String sortBy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        return ResponseEntity.ok(salesReportService.getCategorySales(start, end, sortBy, page, size));
+    }
+
+    // Recomputes the rollups of a date range from the order tables, e.g. after a crash or a data fix
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        salesRollupService.rebuild(from, to);
+        return ResponseEntity.noContent().build();
+    }
+}
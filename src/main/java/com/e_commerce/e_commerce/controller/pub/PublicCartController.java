@@ -0,0 +1,61 @@
+package com.e_commerce.e_commerce.controller.pub;
+
+import com.e_commerce.e_commerce.dto.request.CartItemRequest;
+import com.e_commerce.e_commerce.dto.response.CartQuoteResponse;
+import com.e_commerce.e_commerce.dto.response.CartResponse;
+import com.e_commerce.e_commerce.service.cart.CartService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/public/cart")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PublicCartController {
+
+    private final CartService cartService;
+
+    // Returns the cart id (a guest token) to use in every other call
+    @PostMapping
+    public ResponseEntity<CartResponse> createCart() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(cartService.createGuestCart());
+    }
+
+    @GetMapping("/{cartId}")
+    public ResponseEntity<CartResponse> getCart(@PathVariable String cartId) {
+        return ResponseEntity.ok(cartService.getCart(CartService.guestCart(cartId)));
+    }
+
+    @PostMapping("/{cartId}/items")
+    public ResponseEntity<CartResponse> addItem(@PathVariable String cartId,
+                                                @Valid @RequestBody CartItemRequest request) {
+        return ResponseEntity.ok(cartService.addItem(CartService.guestCart(cartId), request));
+    }
+
+    @PutMapping("/{cartId}/items")
+    public ResponseEntity<CartResponse> setItem(@PathVariable String cartId,
+                                                @Valid @RequestBody CartItemRequest request) {
+        return ResponseEntity.ok(cartService.setItem(CartService.guestCart(cartId), request));
+    }
+
+    @DeleteMapping("/{cartId}/items/{productId}")
+    public ResponseEntity<CartResponse> removeItem(@PathVariable String cartId, @PathVariable Long productId) {
+        return ResponseEntity.ok(cartService.removeItem(CartService.guestCart(cartId), productId));
+    }
+
+    @DeleteMapping("/{cartId}")
+    public ResponseEntity<Void> clearCart(@PathVariable String cartId) {
+        cartService.clear(CartService.guestCart(cartId));
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{cartId}/quote")
+    public ResponseEntity<CartQuoteResponse> quote(@PathVariable String cartId,
+                                                   @RequestParam(required = false) String country,
+                                                   @RequestParam(required = false) String state) {
+        return ResponseEntity.ok(cartService.quote(CartService.guestCart(cartId), country, state));
+    }
+}
@@ -2,12 +2,18 @@ package com.e_commerce.e_commerce.controller.pub;
 
 import com.e_commerce.e_commerce.dto.response.CategoryResponse;
 import com.e_commerce.e_commerce.service.CategoryService;
+import com.e_commerce.e_commerce.service.category.CategoryTreePayload;
 import org.springframework.web.bind.annotation.RequestMapping;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/public/categories")
@@ -23,6 +29,59 @@ public class PublicCategoryController {
         return ResponseEntity.ok(categories);
     }
 
+    // The full tree for navigation, pre-rendered; a matching If-None-Match gets 304 Not Modified
+    @GetMapping("/tree")
+    public ResponseEntity<byte[]> getCategoryTree(
+            WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        CategoryTreePayload payload = categoryService.getCategoryTreePayload();
+        if (request.checkNotModified(payload.getEtag())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(payload.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzipped());
+        }
+        return response.body(payload.getJson());
+    }
+
+    // gzip, x-gzip or * with a non-zero q-value; an explicit gzip entry overrides *
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        double q = gzip != null ? gzip : any != null ? any : 0;
+        return q > 0;
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponse> getCategory(@PathVariable Long id) {
         CategoryResponse category = categoryService.getCategoryById(id);
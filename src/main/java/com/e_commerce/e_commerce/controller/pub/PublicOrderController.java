@@ -2,14 +2,19 @@ package com.e_commerce.e_commerce.controller.pub;
 
 import com.e_commerce.e_commerce.dto.request.GuestOrderRequest;
 import com.e_commerce.e_commerce.dto.response.GuestOrderTrackingResponse;
+import com.e_commerce.e_commerce.dto.response.OrderIntakeResponse;
 import com.e_commerce.e_commerce.dto.response.OrderResponse;
 import com.e_commerce.e_commerce.service.OrderService;
+import com.e_commerce.e_commerce.service.idempotency.IdempotencyService;
+import com.e_commerce.e_commerce.service.intake.OrderIntakeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/api/public/orders")
 @RequiredArgsConstructor
@@ -17,13 +22,37 @@ import org.springframework.web.bind.annotation.*;
 public class PublicOrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderIntakeService orderIntakeService;
 
     @PostMapping
-    public ResponseEntity<OrderResponse> createGuestOrder(@Valid @RequestBody GuestOrderRequest request) {
-        OrderResponse response = orderService.createGuestOrder(request);
+    public ResponseEntity<OrderResponse> createGuestOrder(
+            @Valid @RequestBody GuestOrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        OrderResponse response = idempotencyService.execute(
+                "orders:guest:" + IdempotencyService.guestId(request.getEmail()), idempotencyKey, request,
+                OrderResponse.class, () -> orderService.createGuestOrder(request));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // Queues the order and answers right away; poll the intake status for the outcome
+    @PostMapping("/async")
+    public ResponseEntity<OrderIntakeResponse> submitGuestOrder(
+            @Valid @RequestBody GuestOrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        OrderIntakeResponse response = idempotencyService.execute(
+                "orders:guest:async:" + IdempotencyService.guestId(request.getEmail()), idempotencyKey, request,
+                OrderIntakeResponse.class, () -> orderIntakeService.submitGuestOrder(request));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/public/orders/intake/" + response.getOrderNumber()))
+                .body(response);
+    }
+
+    @GetMapping("/intake/{orderNumber}")
+    public ResponseEntity<OrderIntakeResponse> getIntakeStatus(@PathVariable String orderNumber) {
+        return ResponseEntity.ok(orderIntakeService.getStatus(orderNumber, null));
+    }
+
     @GetMapping("/track")
     public ResponseEntity<GuestOrderTrackingResponse> trackOrder(
             @RequestParam String orderNumber,
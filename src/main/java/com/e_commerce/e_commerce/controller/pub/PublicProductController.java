@@ -1,7 +1,10 @@
 package com.e_commerce.e_commerce.controller.pub;
 
+import com.e_commerce.e_commerce.dto.response.CursorPageResponse;
 import com.e_commerce.e_commerce.dto.response.UserProductResponse;
 import com.e_commerce.e_commerce.service.ProductService;
+import com.e_commerce.e_commerce.service.popularity.PopularityWindow;
+import com.e_commerce.e_commerce.util.CursorCodec;
 import org.springframework.web.bind.annotation.RestController;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -12,6 +15,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
         import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/public/products")
@@ -19,6 +24,9 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class PublicProductController {
 
+    // Product columns that always have a value, so a scroll can page by them
+    private static final Set<String> SCROLL_KEYS = Set.of("productId", "name", "price", "sku", "createdDate");
+
     private final ProductService productService;
 
     @GetMapping
@@ -26,7 +34,13 @@ public class PublicProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdDate") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "all") String window) {
+
+        // Popularity is always best-selling first, over the given window (all, 7d, 24h)
+        if (sortBy.equalsIgnoreCase("popularity")) {
+            return ResponseEntity.ok(productService.getPopularProducts(PopularityWindow.of(window), page, size));
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -36,18 +50,50 @@ public class PublicProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/bestsellers")
+    public ResponseEntity<List<UserProductResponse>> getBestsellers(
+            @RequestParam(defaultValue = "all") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<UserProductResponse> products = productService.getBestsellers(PopularityWindow.of(window), limit);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<UserProductResponse>> scrollProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "createdDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        CursorCodec.checkSort(sort, SCROLL_KEYS);
+
+        CursorPageResponse<UserProductResponse> products = productService.scrollAvailableProducts(sort, after, size);
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserProductResponse> getProduct(@PathVariable Long id) {
         UserProductResponse product = productService.getUserProductById(id);
         return ResponseEntity.ok(product);
     }
 
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<UserProductResponse>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        return ResponseEntity.ok(productService.getRelatedProducts(id, limit));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Page<UserProductResponse>> searchProducts(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
-            @RequestParam(defaultValue = "createdDate") String sortBy,
+            @RequestParam(defaultValue = "relevance") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
@@ -64,13 +110,14 @@ public class PublicProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdDate") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeDescendants) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<UserProductResponse> products = productService.getProductsByCategory(categoryId, pageable);
+        Page<UserProductResponse> products = productService.getProductsByCategory(categoryId, includeDescendants, pageable);
         return ResponseEntity.ok(products);
     }
 
@@ -94,4 +141,25 @@ public class PublicProductController {
                 categoryId, search, brand, minPrice, maxPrice, pageable);
         return ResponseEntity.ok(products);
     }
+
+    @GetMapping("/filter/scroll")
+    public ResponseEntity<CursorPageResponse<UserProductResponse>> scrollFilteredProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "createdDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        CursorCodec.checkSort(sort, SCROLL_KEYS);
+
+        CursorPageResponse<UserProductResponse> products = productService.scrollFilteredProducts(
+                categoryId, search, brand, minPrice, maxPrice, sort, after, size);
+        return ResponseEntity.ok(products);
+    }
 }
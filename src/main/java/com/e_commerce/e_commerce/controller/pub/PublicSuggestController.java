@@ -0,0 +1,27 @@
+package com.e_commerce.e_commerce.controller.pub;
+
+import com.e_commerce.e_commerce.dto.response.SuggestionResponse;
+import com.e_commerce.e_commerce.service.search.SuggestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/public/suggest")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PublicSuggestController {
+
+    private final SuggestService suggestService;
+
+    @GetMapping
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<SuggestionResponse> suggestions = suggestService.suggest(q, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+}
@@ -0,0 +1,61 @@
+package com.e_commerce.e_commerce.controller.user;
+
+import com.e_commerce.e_commerce.dto.request.CartItemRequest;
+import com.e_commerce.e_commerce.dto.response.CartQuoteResponse;
+import com.e_commerce.e_commerce.dto.response.CartResponse;
+import com.e_commerce.e_commerce.security.UserPrincipal;
+import com.e_commerce.e_commerce.service.cart.CartService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/user/cart")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+public class UserCartController {
+
+    private final CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<CartResponse> getCart(Authentication auth) {
+        return ResponseEntity.ok(cartService.getCart(currentCart(auth)));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<CartResponse> addItem(@Valid @RequestBody CartItemRequest request, Authentication auth) {
+        return ResponseEntity.ok(cartService.addItem(currentCart(auth), request));
+    }
+
+    @PutMapping("/items")
+    public ResponseEntity<CartResponse> setItem(@Valid @RequestBody CartItemRequest request, Authentication auth) {
+        return ResponseEntity.ok(cartService.setItem(currentCart(auth), request));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartResponse> removeItem(@PathVariable Long productId, Authentication auth) {
+        return ResponseEntity.ok(cartService.removeItem(currentCart(auth), productId));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearCart(Authentication auth) {
+        cartService.clear(currentCart(auth));
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/quote")
+    public ResponseEntity<CartQuoteResponse> quote(@RequestParam(required = false) String country,
+                                                   @RequestParam(required = false) String state,
+                                                   Authentication auth) {
+        return ResponseEntity.ok(cartService.quote(currentCart(auth), country, state));
+    }
+
+    private String currentCart(Authentication auth) {
+        UserPrincipal principal = (UserPrincipal) auth.getPrincipal();
+        return CartService.userCart(principal.getId());
+    }
+}
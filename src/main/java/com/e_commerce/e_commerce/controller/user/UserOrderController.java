@@ -2,9 +2,13 @@ package com.e_commerce.e_commerce.controller.user;
 
 
 import com.e_commerce.e_commerce.dto.request.UserOrderRequest;
+import com.e_commerce.e_commerce.dto.response.CursorPageResponse;
+import com.e_commerce.e_commerce.dto.response.OrderIntakeResponse;
 import com.e_commerce.e_commerce.dto.response.OrderResponse;
 import com.e_commerce.e_commerce.security.UserPrincipal;
 import com.e_commerce.e_commerce.service.OrderService;
+import com.e_commerce.e_commerce.service.idempotency.IdempotencyService;
+import com.e_commerce.e_commerce.service.intake.OrderIntakeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -15,6 +19,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/api/user/orders")
 @RequiredArgsConstructor
@@ -23,17 +29,40 @@ import org.springframework.web.bind.annotation.*;
 public class UserOrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderIntakeService orderIntakeService;
 
 
     @PostMapping
     public ResponseEntity<OrderResponse> createUserOrder(
             @Valid @RequestBody UserOrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication auth) {
         Long userId = getCurrentUserId(auth);
-        OrderResponse response = orderService.createUserOrder(userId, request);
+        OrderResponse response = idempotencyService.execute("orders:user:" + userId, idempotencyKey, request,
+                OrderResponse.class, () -> orderService.createUserOrder(userId, request));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // Queues the order and answers right away; poll the intake status for the outcome
+    @PostMapping("/async")
+    public ResponseEntity<OrderIntakeResponse> submitUserOrder(
+            @Valid @RequestBody UserOrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication auth) {
+        Long userId = getCurrentUserId(auth);
+        OrderIntakeResponse response = idempotencyService.execute("orders:user:async:" + userId, idempotencyKey,
+                request, OrderIntakeResponse.class, () -> orderIntakeService.submitUserOrder(userId, request));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/user/orders/intake/" + response.getOrderNumber()))
+                .body(response);
+    }
+
+    @GetMapping("/intake/{orderNumber}")
+    public ResponseEntity<OrderIntakeResponse> getIntakeStatus(@PathVariable String orderNumber, Authentication auth) {
+        return ResponseEntity.ok(orderIntakeService.getStatus(orderNumber, getCurrentUserId(auth)));
+    }
+
     @GetMapping
     public ResponseEntity<Page<OrderResponse>> getUserOrders(Authentication auth, Pageable pageable) {
         Long userId = getCurrentUserId(auth);
@@ -41,6 +70,16 @@ public class UserOrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> scrollUserOrders(
+            Authentication auth,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        Long userId = getCurrentUserId(auth);
+        CursorPageResponse<OrderResponse> orders = orderService.scrollUserOrders(userId, after, size);
+        return ResponseEntity.ok(orders);
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderResponse> getUserOrder(@PathVariable Long orderId, Authentication auth) {
         Long userId = getCurrentUserId(auth);
@@ -0,0 +1,41 @@
+package com.e_commerce.e_commerce.controller.user;
+
+import com.e_commerce.e_commerce.dto.request.ReservationRequest;
+import com.e_commerce.e_commerce.dto.response.ReservationResponse;
+import com.e_commerce.e_commerce.security.UserPrincipal;
+import com.e_commerce.e_commerce.service.inventory.StockReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/user/reservations")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+public class UserReservationController {
+
+    private final StockReservationService stockReservationService;
+
+    @PostMapping
+    public ResponseEntity<ReservationResponse> reserve(@Valid @RequestBody ReservationRequest request,
+                                                       Authentication auth) {
+        ReservationResponse response = stockReservationService.reserve(getCurrentUserId(auth), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @DeleteMapping("/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable String reservationId, Authentication auth) {
+        stockReservationService.release(getCurrentUserId(auth), reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private Long getCurrentUserId(Authentication auth) {
+        UserPrincipal principal = (UserPrincipal) auth.getPrincipal();
+        return principal.getId();
+    }
+}
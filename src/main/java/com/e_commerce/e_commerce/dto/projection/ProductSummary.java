@@ -0,0 +1,26 @@
+package com.e_commerce.e_commerce.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Read-only row for catalog listings, filled by JPQL constructor expressions.
+ * Never enters the persistence context, so there is no entity hydration or
+ * dirty-checking snapshot behind it.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductSummary {
+    private final Long productId;
+    private final String name;
+    private final String description;
+    private final BigDecimal price;
+    private final String sku;
+    private final String brand;
+    private final String mainImageUrl;
+    private final List<String> additionalImages;
+    private final Integer quantity;
+}
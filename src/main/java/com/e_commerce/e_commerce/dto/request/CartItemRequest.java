@@ -0,0 +1,16 @@
+package com.e_commerce.e_commerce.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartItemRequest {
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    // Added on POST, set on PUT (where 0 removes the line)
+    @NotNull(message = "Quantity is required")
+    @Min(value = 0, message = "Quantity cannot be negative")
+    private Integer quantity;
+}
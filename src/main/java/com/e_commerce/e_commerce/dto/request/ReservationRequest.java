@@ -0,0 +1,20 @@
+package com.e_commerce.e_commerce.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ReservationRequest {
+
+    @NotEmpty(message = "Reservation items cannot be empty")
+    @Valid
+    private List<OrderItemRequest> items;
+
+    // Optional; defaults to app.inventory.hold.default-ttl and is capped at app.inventory.hold.max-ttl
+    @Positive(message = "TTL must be positive")
+    private Integer ttlSeconds;
+}
@@ -33,4 +33,7 @@ public class UserOrderRequest {
     private String paymentMethod;
 
     private String specialInstructions;
+
+    // Optional stock hold from POST /api/user/reservations
+    private String reservationId;
 }
@@ -0,0 +1,13 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemResponse {
+    private Long productId;
+    private Integer quantity;
+}
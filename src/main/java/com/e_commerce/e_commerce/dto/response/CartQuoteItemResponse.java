@@ -0,0 +1,21 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartQuoteItemResponse {
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private String productImageUrl;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal totalPrice;
+    private Boolean inStock;
+}
@@ -0,0 +1,21 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartQuoteResponse {
+    private String cartId;
+    private List<CartQuoteItemResponse> items;
+    private List<Long> unavailableProductIds; // no longer sold; left out of the totals
+    private BigDecimal subtotal;
+    private BigDecimal taxAmount;
+    private BigDecimal shippingCost;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,16 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartResponse {
+    private String cartId; // guest token; null for a signed-in user's cart
+    private List<CartItemResponse> items;
+    private Integer totalQuantity;
+}
@@ -18,4 +18,6 @@ public class CategoryResponse {
     private List<CategoryResponse> subCategories;
     private Long productCount;
     private LocalDateTime createdDate;
+    // Active and in-stock products in this category and in its whole subtree; not set on categories embedded in products
+    private ProductCountsResponse productCounts;
 }
@@ -0,0 +1,18 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesResponse {
+    private LocalDate date;
+    private Long orders;
+    private Long units;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,15 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import com.e_commerce.e_commerce.enums.IntakeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeResponse {
+    private String orderNumber;
+    private IntakeStatus status;
+    private String message; // why the order failed, when it did
+}
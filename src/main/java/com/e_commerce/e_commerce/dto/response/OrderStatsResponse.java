@@ -0,0 +1,23 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsResponse {
+    private Map<OrderStatus, Long> ordersByStatus;
+    private long totalOrders;
+    // Delivered orders, by the day they were placed; oldest first
+    private Map<LocalDate, BigDecimal> revenueByDay;
+    private BigDecimal revenue; // sum of revenueByDay
+    private LocalDateTime reconciledAt;
+}
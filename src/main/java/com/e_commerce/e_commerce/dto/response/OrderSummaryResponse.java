@@ -0,0 +1,29 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.enums.PaymentMethod;
+import com.e_commerce.e_commerce.enums.ShipmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One row of the admin order grid; the full order is at GET /api/admin/orders/{orderId}
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+    private Long orderId;
+    private String orderNumber;
+    private String customerEmail;
+    private String customerFirstName;
+    private String customerLastName;
+    private OrderStatus status;
+    private PaymentMethod paymentMethod;
+    private BigDecimal totalAmount;
+    private Integer itemCount;
+    private ShipmentStatus shipmentStatus;
+    private LocalDateTime createdDate;
+}
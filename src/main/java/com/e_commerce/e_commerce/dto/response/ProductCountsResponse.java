@@ -0,0 +1,15 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCountsResponse {
+    private Long active;
+    private Long inStock;
+    private Long subtreeActive;
+    private Long subtreeInStock;
+}
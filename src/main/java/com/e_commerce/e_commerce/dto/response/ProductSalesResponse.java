@@ -0,0 +1,18 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesResponse {
+    private Long productId;
+    private String productName;
+    private Long orders;
+    private Long units;
+    private BigDecimal revenue;
+}
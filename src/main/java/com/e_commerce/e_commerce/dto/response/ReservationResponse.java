@@ -0,0 +1,17 @@
+package com.e_commerce.e_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+    private String reservationId; // pass as reservationId when placing the order
+    private LocalDateTime expiresAt;
+    private List<ReservationItemResponse> items;
+}
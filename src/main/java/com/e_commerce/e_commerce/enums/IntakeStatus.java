@@ -0,0 +1,8 @@
+package com.e_commerce.e_commerce.enums;
+
+public enum IntakeStatus {
+    QUEUED,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,25 @@
+package com.e_commerce.e_commerce.event;
+
+import com.e_commerce.e_commerce.model.Category;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by CategoryService when a category is created, renamed, moved or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+    private final String name;
+    private final Long parentId;
+    private final boolean deleted;
+
+    public static CategoryChangedEvent saved(Category category) {
+        return new CategoryChangedEvent(category.getCategoryId(), category.getName(), category.getParentId(), false);
+    }
+
+    public static CategoryChangedEvent deleted(Category category) {
+        return new CategoryChangedEvent(category.getCategoryId(), category.getName(), category.getParentId(), true);
+    }
+}
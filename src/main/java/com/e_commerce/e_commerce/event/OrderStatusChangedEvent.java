@@ -0,0 +1,47 @@
+package com.e_commerce.e_commerce.event;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by OrderService when an order is placed (no previous status) or moves to another status.
+ * Carries the order lines so listeners need not load them again after the commit.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private final Long orderId;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+    private final BigDecimal totalAmount;
+    private final LocalDateTime createdDate;
+    private final List<Line> lines;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private final Long productId;
+        private final String productName;
+        private final int quantity;
+        private final BigDecimal totalPrice;
+    }
+
+    public static OrderStatusChangedEvent placed(Order order) {
+        return changed(order, null);
+    }
+
+    public static OrderStatusChangedEvent changed(Order order, OrderStatus previousStatus) {
+        List<Line> lines = order.getOrderItems().stream()
+                .map(item -> new Line(item.getProduct().getProductId(), item.getProductName(),
+                        item.getQuantity(), item.getTotalPrice()))
+                .toList();
+        return new OrderStatusChangedEvent(order.getOrderId(), previousStatus, order.getStatus(),
+                order.getTotalAmount(), order.getCreatedDate(), lines);
+    }
+}
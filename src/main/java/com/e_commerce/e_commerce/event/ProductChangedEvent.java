@@ -0,0 +1,52 @@
+package com.e_commerce.e_commerce.event;
+
+import com.e_commerce.e_commerce.model.Category;
+import com.e_commerce.e_commerce.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by ProductService whenever a product is created or modified.
+ * Carries a detached snapshot taken inside the writing transaction, so
+ * listeners running after commit never touch lazy associations.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+    private final String name;
+    private final String description;
+    private final String brand;
+    private final String sku;
+    private final BigDecimal price;
+    private final Integer quantity;
+    private final String status;
+    private final Set<Long> categoryIds;
+    private final LocalDateTime createdDate;
+    private final LocalDateTime updatedDate;
+
+    public static ProductChangedEvent of(Product product) {
+        Set<Long> categoryIds = product.getCategories().stream()
+                .map(Category::getCategoryId)
+                .collect(Collectors.toUnmodifiableSet());
+
+        return new ProductChangedEvent(
+                product.getProductId(),
+                product.getName(),
+                product.getDescription(),
+                product.getBrand(),
+                product.getSku(),
+                product.getPrice(),
+                product.getQuantity(),
+                product.getStatus(),
+                categoryIds,
+                product.getCreatedDate(),
+                product.getUpdatedDate()
+        );
+    }
+}
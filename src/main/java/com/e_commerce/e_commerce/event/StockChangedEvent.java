@@ -0,0 +1,21 @@
+package com.e_commerce.e_commerce.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by InventoryService when an order moves product stock.
+ * Only the new on-hand quantity is carried; catalog fields are unchanged.
+ * updatedDate is the row's timestamp as written by that same stock update, so
+ * listeners can tell a late event from the latest one.
+ */
+@Getter
+@AllArgsConstructor
+public class StockChangedEvent {
+    private final Long productId;
+    private final Integer previousQuantity;
+    private final Integer quantity;
+    private final LocalDateTime updatedDate;
+}
@@ -0,0 +1,30 @@
+package com.e_commerce.e_commerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last written state of a cart, kept when app.cart.snapshot.enabled is on so carts
+ * survive a restart. Lines are stored as "productId:quantity" pairs separated by commas.
+ */
+@Entity
+@Table(name = "CART_SNAPSHOTS")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSnapshot {
+
+    @Id
+    @Column(name = "CART_KEY", length = 100)
+    private String cartKey;
+
+    @Column(name = "ITEMS", nullable = false, length = 4000)
+    private String items;
+
+    @Column(name = "UPDATED_DATE", nullable = false)
+    private LocalDateTime updatedDate;
+}
@@ -0,0 +1,51 @@
+package com.e_commerce.e_commerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales rollup for one category on one day; see {@link DailySales}.
+ * A line counts toward every category its product is in at the time it is rolled up.
+ */
+@Entity
+@Table(name = "SALES_DAILY_CATEGORY")
+@IdClass(DailyCategorySales.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCategorySales {
+
+    @Id
+    @Column(name = "SALES_DATE")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "CATEGORY_ID")
+    private Long categoryId;
+
+    @Column(name = "CATEGORY_NAME")
+    private String categoryName;
+
+    @Column(name = "ORDER_COUNT", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "UNITS", nullable = false)
+    private Long units;
+
+    @Column(name = "REVENUE", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private Long categoryId;
+    }
+}
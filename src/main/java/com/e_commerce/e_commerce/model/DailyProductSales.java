@@ -0,0 +1,51 @@
+package com.e_commerce.e_commerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales rollup for one product on one day; see {@link DailySales}.
+ * No foreign key to PRODUCTS, so history outlives deleted products.
+ */
+@Entity
+@Table(name = "SALES_DAILY_PRODUCT")
+@IdClass(DailyProductSales.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyProductSales {
+
+    @Id
+    @Column(name = "SALES_DATE")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "PRODUCT_ID")
+    private Long productId;
+
+    @Column(name = "PRODUCT_NAME")
+    private String productName;
+
+    @Column(name = "ORDER_COUNT", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "UNITS", nullable = false)
+    private Long units;
+
+    @Column(name = "REVENUE", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private Long productId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.e_commerce.e_commerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales rollup for one day: orders placed that day and not cancelled, their units and
+ * line revenue (before tax and shipping). Maintained by SalesRollupService.
+ */
+@Entity
+@Table(name = "SALES_DAILY")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySales {
+
+    @Id
+    @Column(name = "SALES_DATE")
+    private LocalDate salesDate;
+
+    @Column(name = "ORDER_COUNT", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "UNITS", nullable = false)
+    private Long units;
+
+    @Column(name = "REVENUE", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,35 @@
+package com.e_commerce.e_commerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request made with an Idempotency-Key, shared between application
+ * instances when app.idempotency.store=database.
+ */
+@Entity
+@Table(name = "IDEMPOTENCY_KEYS")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "IDEMPOTENCY_KEY", length = 320)
+    private String idempotencyKey;
+
+    @Column(name = "REQUEST_HASH", nullable = false, length = 64)
+    private String requestHash;
+
+    // Null while the first request is still running
+    @Lob
+    @Column(name = "RESPONSE_BODY")
+    private String responseBody;
+
+    @Column(name = "EXPIRES_AT", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,49 @@
+package com.e_commerce.e_commerce.model;
+
+import com.e_commerce.e_commerce.enums.IntakeStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order accepted by the async intake and not placed yet, or one that failed. The row
+ * is written before the client is answered and deleted in the transaction that places the
+ * order, so a queued order outlives the instance that queued it.
+ */
+@Entity
+@Table(name = "ORDER_INTAKE")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeRecord {
+
+    @Id
+    @Column(name = "ORDER_NUMBER", length = 32)
+    private String orderNumber;
+
+    // Null for guest orders
+    @Column(name = "USER_ID")
+    private Long userId;
+
+    // The guest or user order request as JSON
+    @Lob
+    @Column(name = "REQUEST_BODY", nullable = false)
+    private String requestBody;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private IntakeStatus status;
+
+    @Column(name = "MESSAGE", length = 500)
+    private String message;
+
+    // Bumped by every instance that takes the order over, so only one of them can
+    @Column(name = "ATTEMPTS", nullable = false)
+    private int attempts;
+
+    @Column(name = "CLAIMED_AT", nullable = false)
+    private LocalDateTime claimedAt;
+}
@@ -2,20 +2,23 @@ package com.e_commerce.e_commerce.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.Objects;
 
 @Entity
 @Table(name = "ORDER_ITEMS")
-@Data
+@Getter
+@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItem {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
-    @SequenceGenerator(name = "order_item_seq", sequenceName = "ORDER_ITEM_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "ORDER_ITEM_SEQ", allocationSize = 50)
     @Column(name = "ORDER_ITEM_ID")
     private Long orderItemId;
 
@@ -45,4 +48,27 @@ public class OrderItem {
 
     @Column(name = "PRODUCT_IMAGE_URL")
     private String productImageUrl;
+
+    // ✅ Custom hashCode and equals to avoid circular reference
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderItem orderItem = (OrderItem) o;
+        return orderItemId != null && orderItemId.equals(orderItem.orderItemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderItemId);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderItem{" +
+                "orderItemId=" + orderItemId +
+                ", productSku='" + productSku + '\'' +
+                ", quantity=" + quantity +
+                '}';
+    }
 }
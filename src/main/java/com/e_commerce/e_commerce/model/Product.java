@@ -26,7 +26,7 @@ import java.util.Objects;
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
-    @SequenceGenerator(name = "product_seq", sequenceName = "PRODUCT_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "product_seq", sequenceName = "PRODUCT_SEQ", allocationSize = 50)
     @Column(name = "PRODUCT_ID")
     private Long productId;
 
@@ -62,7 +62,9 @@ public class Product {
     @JoinTable(
             name = "PRODUCT_CATEGORIES",
             joinColumns = @JoinColumn(name = "PRODUCT_ID"),
-            inverseJoinColumns = @JoinColumn(name = "CATEGORY_ID")
+            inverseJoinColumns = @JoinColumn(name = "CATEGORY_ID"),
+            // Category browsing goes from category to products; the primary key only covers the other way
+            indexes = @Index(name = "IDX_PRODUCT_CATEGORIES_CATEGORY", columnList = "CATEGORY_ID, PRODUCT_ID")
     )
     private Set<Category> categories = new HashSet<>();
 
@@ -4,22 +4,25 @@ package com.e_commerce.e_commerce.model;
 import com.e_commerce.e_commerce.enums.ShipmentStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
 @Table(name = "SHIPMENTS")
-@Data
+@Getter
+@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Shipment {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shipment_seq")
-    @SequenceGenerator(name = "shipment_seq", sequenceName = "SHIPMENT_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "shipment_seq", sequenceName = "SHIPMENT_SEQ", allocationSize = 50)
     @Column(name = "SHIPMENT_ID")
     private Long shipmentId;
 
@@ -53,4 +56,27 @@ public class Shipment {
     @Column(name = "UPDATED_DATE")
     @UpdateTimestamp
     private LocalDateTime updatedDate;
+
+    // ✅ Custom hashCode and equals to avoid circular reference
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Shipment shipment = (Shipment) o;
+        return shipmentId != null && shipmentId.equals(shipment.shipmentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(shipmentId);
+    }
+
+    @Override
+    public String toString() {
+        return "Shipment{" +
+                "shipmentId=" + shipmentId +
+                ", trackingNumber='" + trackingNumber + '\'' +
+                ", status=" + status +
+                '}';
+    }
 }
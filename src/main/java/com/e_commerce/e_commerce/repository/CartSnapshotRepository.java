@@ -0,0 +1,20 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.model.CartSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CartSnapshotRepository extends JpaRepository<CartSnapshot, String> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CartSnapshot s WHERE s.updatedDate < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
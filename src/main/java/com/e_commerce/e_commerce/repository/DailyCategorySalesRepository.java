@@ -0,0 +1,43 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.dto.response.CategorySalesResponse;
+import com.e_commerce.e_commerce.model.DailyCategorySales;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface DailyCategorySalesRepository extends JpaRepository<DailyCategorySales, DailyCategorySales.Key> {
+
+    // Sorted by the caller with JpaSort.unsafe on the aggregates
+    @Query(value = "SELECT new com.e_commerce.e_commerce.dto.response.CategorySalesResponse(" +
+            "s.categoryId, MAX(s.categoryName), SUM(s.orderCount), SUM(s.units), SUM(s.revenue)) " +
+            "FROM DailyCategorySales s WHERE s.salesDate BETWEEN :from AND :to GROUP BY s.categoryId",
+            countQuery = "SELECT COUNT(DISTINCT s.categoryId) FROM DailyCategorySales s " +
+                    "WHERE s.salesDate BETWEEN :from AND :to")
+    Page<CategorySalesResponse> findReport(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE DailyCategorySales s SET s.categoryName = :name, s.orderCount = s.orderCount + :orders, " +
+            "s.units = s.units + :units, s.revenue = s.revenue + :revenue " +
+            "WHERE s.salesDate = :day AND s.categoryId = :categoryId")
+    int addTo(@Param("day") LocalDate day, @Param("categoryId") Long categoryId, @Param("name") String name,
+              @Param("orders") long orders, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("INSERT INTO DailyCategorySales (salesDate, categoryId, categoryName, orderCount, units, revenue) " +
+            "VALUES (:day, :categoryId, :name, :orders, :units, :revenue)")
+    int insert(@Param("day") LocalDate day, @Param("categoryId") Long categoryId, @Param("name") String name,
+               @Param("orders") long orders, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM DailyCategorySales s WHERE s.salesDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,43 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.dto.response.ProductSalesResponse;
+import com.e_commerce.e_commerce.model.DailyProductSales;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, DailyProductSales.Key> {
+
+    // Sorted by the caller with JpaSort.unsafe on the aggregates
+    @Query(value = "SELECT new com.e_commerce.e_commerce.dto.response.ProductSalesResponse(" +
+            "s.productId, MAX(s.productName), SUM(s.orderCount), SUM(s.units), SUM(s.revenue)) " +
+            "FROM DailyProductSales s WHERE s.salesDate BETWEEN :from AND :to GROUP BY s.productId",
+            countQuery = "SELECT COUNT(DISTINCT s.productId) FROM DailyProductSales s " +
+                    "WHERE s.salesDate BETWEEN :from AND :to")
+    Page<ProductSalesResponse> findReport(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE DailyProductSales s SET s.productName = :name, s.orderCount = s.orderCount + :orders, " +
+            "s.units = s.units + :units, s.revenue = s.revenue + :revenue " +
+            "WHERE s.salesDate = :day AND s.productId = :productId")
+    int addTo(@Param("day") LocalDate day, @Param("productId") Long productId, @Param("name") String name,
+              @Param("orders") long orders, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("INSERT INTO DailyProductSales (salesDate, productId, productName, orderCount, units, revenue) " +
+            "VALUES (:day, :productId, :name, :orders, :units, :revenue)")
+    int insert(@Param("day") LocalDate day, @Param("productId") Long productId, @Param("name") String name,
+               @Param("orders") long orders, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM DailyProductSales s WHERE s.salesDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,40 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.dto.response.DailySalesResponse;
+import com.e_commerce.e_commerce.model.DailySales;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate> {
+
+    @Query(value = "SELECT new com.e_commerce.e_commerce.dto.response.DailySalesResponse(" +
+            "s.salesDate, s.orderCount, s.units, s.revenue) " +
+            "FROM DailySales s WHERE s.salesDate BETWEEN :from AND :to",
+            countQuery = "SELECT COUNT(s) FROM DailySales s WHERE s.salesDate BETWEEN :from AND :to")
+    Page<DailySalesResponse> findReport(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE DailySales s SET s.orderCount = s.orderCount + :orders, s.units = s.units + :units, " +
+            "s.revenue = s.revenue + :revenue WHERE s.salesDate = :day")
+    int addTo(@Param("day") LocalDate day, @Param("orders") long orders,
+              @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    // Always an INSERT: save() would look the row up first to decide between insert and merge
+    @Modifying
+    @Query("INSERT INTO DailySales (salesDate, orderCount, units, revenue) VALUES (:day, :orders, :units, :revenue)")
+    int insert(@Param("day") LocalDate day, @Param("orders") long orders,
+               @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM DailySales s WHERE s.salesDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,51 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.model.IdempotencyRecord;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Always an INSERT, so a key someone else holds fails on the primary key instead of being merged over
+    @Modifying
+    @Query("INSERT INTO IdempotencyRecord (idempotencyKey, requestHash, expiresAt) " +
+           "VALUES (:key, :requestHash, :expiresAt)")
+    int insertClaim(@Param("key") String key,
+                    @Param("requestHash") String requestHash,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Row-locked until commit; held by the request that owns the claim for as long as it runs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    Optional<IdempotencyRecord> findByIdForUpdate(@Param("key") String key);
+
+    // As findByIdForUpdate, but a row whose owner is still running is skipped instead of waited for
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    Optional<IdempotencyRecord> findUnlockedByIdForUpdate(@Param("key") String key);
+
+    // Only a bare claim: a row holding a committed response stays
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.responseBody IS NULL")
+    int deleteClaim(@Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,57 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.enums.IntakeStatus;
+import com.e_commerce.e_commerce.model.OrderIntakeRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderIntakeRecordRepository extends JpaRepository<OrderIntakeRecord, String> {
+
+    // A plain INSERT; save() would look the new order number up first
+    @Modifying
+    @Query("INSERT INTO OrderIntakeRecord (orderNumber, userId, requestBody, status, attempts, claimedAt) " +
+           "VALUES (:orderNumber, :userId, :requestBody, :status, 0, :claimedAt)")
+    int insertQueued(@Param("orderNumber") String orderNumber,
+                     @Param("userId") Long userId,
+                     @Param("requestBody") String requestBody,
+                     @Param("status") IntakeStatus status,
+                     @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Query("SELECT r FROM OrderIntakeRecord r WHERE r.status = :status AND r.claimedAt < :before " +
+           "ORDER BY r.orderNumber")
+    List<OrderIntakeRecord> findClaimedBefore(@Param("status") IntakeStatus status,
+                                              @Param("before") LocalDateTime before,
+                                              Pageable pageable);
+
+    // Takes the record over only if nobody else has since it was read
+    @Modifying
+    @Query("UPDATE OrderIntakeRecord r SET r.attempts = r.attempts + 1, r.claimedAt = :now " +
+           "WHERE r.orderNumber = :orderNumber AND r.attempts = :attempts")
+    int claim(@Param("orderNumber") String orderNumber,
+              @Param("attempts") int attempts,
+              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OrderIntakeRecord r SET r.status = com.e_commerce.e_commerce.enums.IntakeStatus.FAILED, " +
+           "r.message = :message, r.claimedAt = :now WHERE r.orderNumber = :orderNumber")
+    int markFailed(@Param("orderNumber") String orderNumber,
+                   @Param("message") String message,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OrderIntakeRecord r WHERE r.orderNumber IN :orderNumbers")
+    int deleteByOrderNumbers(@Param("orderNumbers") Collection<String> orderNumbers);
+
+    @Modifying
+    @Query("DELETE FROM OrderIntakeRecord r WHERE r.status = :status AND r.claimedAt < :before")
+    int deleteClaimedBefore(@Param("status") IntakeStatus status, @Param("before") LocalDateTime before);
+}
@@ -2,11 +2,13 @@ package com.e_commerce.e_commerce.repository;
 
 
 import com.e_commerce.e_commerce.model.OrderItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -21,4 +23,45 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     @Query("SELECT SUM(oi.quantity) FROM OrderItem oi WHERE oi.product.productId = :productId AND oi.order.status != 'CANCELLED'")
     Long getTotalQuantitySoldForProduct(@Param("productId") Long productId);
+
+    // (productId, units sold) for every product that has been ordered
+    @Query("SELECT oi.product.productId, SUM(oi.quantity) FROM OrderItem oi WHERE oi.order.status != 'CANCELLED' GROUP BY oi.product.productId")
+    List<Object[]> getQuantitySoldPerProduct();
+
+    // (productId, year, month, day, hour, units sold) per hour since the given time
+    @Query("SELECT oi.product.productId, YEAR(o.createdDate), MONTH(o.createdDate), DAY(o.createdDate), " +
+            "HOUR(o.createdDate), SUM(oi.quantity) FROM OrderItem oi JOIN oi.order o " +
+            "WHERE o.status != 'CANCELLED' AND o.createdDate >= :since " +
+            "GROUP BY oi.product.productId, YEAR(o.createdDate), MONTH(o.createdDate), DAY(o.createdDate), HOUR(o.createdDate)")
+    List<Object[]> getHourlyQuantitySold(@Param("since") LocalDateTime since);
+
+    // (orderId, productId) of placed orders after the given order id, in order id order
+    @Query("SELECT o.orderId, oi.product.productId FROM OrderItem oi JOIN oi.order o " +
+            "WHERE o.status != 'CANCELLED' AND o.orderId > :afterOrderId ORDER BY o.orderId")
+    List<Object[]> findSaleLinesAfter(@Param("afterOrderId") Long afterOrderId, Limit limit);
+
+    // Sales rollup rebuilds over placed orders in [from, to), never cancelled ones; rows start with
+    // [year, month, day] of the order date
+    String SALES_DAY = "YEAR(o.createdDate), MONTH(o.createdDate), DAY(o.createdDate)";
+    String SALES_RANGE = "FROM OrderItem oi JOIN oi.order o " +
+            "WHERE o.status != 'CANCELLED' AND o.createdDate >= :from AND o.createdDate < :to ";
+
+    // [..., orders, units, revenue]
+    @Query("SELECT " + SALES_DAY + ", COUNT(DISTINCT o.orderId), SUM(oi.quantity), SUM(oi.totalPrice) " +
+            SALES_RANGE + "GROUP BY " + SALES_DAY)
+    List<Object[]> getDailySales(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // [..., productId, productName, orders, units, revenue]
+    @Query("SELECT " + SALES_DAY + ", oi.product.productId, MAX(oi.productName), " +
+            "COUNT(DISTINCT o.orderId), SUM(oi.quantity), SUM(oi.totalPrice) " +
+            SALES_RANGE + "GROUP BY " + SALES_DAY + ", oi.product.productId")
+    List<Object[]> getDailyProductSales(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // [..., categoryId, categoryName, orders, units, revenue]
+    @Query("SELECT " + SALES_DAY + ", c.categoryId, MAX(c.name), " +
+            "COUNT(DISTINCT o.orderId), SUM(oi.quantity), SUM(oi.totalPrice) " +
+            "FROM OrderItem oi JOIN oi.order o JOIN oi.product p JOIN p.categories c " +
+            "WHERE o.status != 'CANCELLED' AND o.createdDate >= :from AND o.createdDate < :to " +
+            "GROUP BY " + SALES_DAY + ", c.categoryId")
+    List<Object[]> getDailyCategorySales(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
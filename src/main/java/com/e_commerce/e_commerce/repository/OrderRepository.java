@@ -1,30 +1,53 @@
 package com.e_commerce.e_commerce.repository;
 
 
+import com.e_commerce.e_commerce.dto.response.OrderSummaryResponse;
 import com.e_commerce.e_commerce.enums.OrderStatus;
 import com.e_commerce.e_commerce.model.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    String ORDER_SUMMARY = "new com.e_commerce.e_commerce.dto.response.OrderSummaryResponse(" +
+            "o.orderId, o.orderNumber, o.customerEmail, o.customerFirstName, o.customerLastName, o.status, " +
+            "o.paymentMethod, o.totalAmount, SIZE(o.orderItems), s.status, o.createdDate) ";
+
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    // Row-locked until commit, for status changes that must see the latest status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") Long orderId);
+
     // User orders
     List<Order> findByUserUserIdOrderByCreatedDateDesc(Long userId);
 
+    // List pages join the shipment in; items follow in one fetchOrderItems call
+    @EntityGraph(attributePaths = "shipment")
     Page<Order> findByUserUserIdOrderByCreatedDateDesc(Long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "shipment")
+    Window<Order> findByUserUserId(Long userId, ScrollPosition position, Sort sort, Limit limit);
+
     // Guest orders by email
     List<Order> findByCustomerEmailOrderByCreatedDateDesc(String email);
 
@@ -42,11 +65,40 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Admin queries
     Page<Order> findAllByOrderByCreatedDateDesc(Pageable pageable);
 
+    // Keyset scrolling: no COUNT query, and deep positions cost the same as the first
+    @EntityGraph(attributePaths = "shipment")
+    Window<Order> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query(value = "SELECT " + ORDER_SUMMARY + "FROM Order o LEFT JOIN o.shipment s",
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderSummaryResponse> findOrderSummaries(Pageable pageable);
+
+    @Query(value = "SELECT " + ORDER_SUMMARY + "FROM Order o LEFT JOIN o.shipment s WHERE o.status = :status",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.status = :status")
+    Page<OrderSummaryResponse> findOrderSummariesByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    // Initializes the items of already loaded orders in one statement
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o IN :orders")
+    List<Order> fetchOrderItems(@Param("orders") Collection<Order> orders);
+
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     long countByStatus(@Param("status") OrderStatus status);
 
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = 'DELIVERED' AND o.createdDate >= :startDate")
     BigDecimal getTotalRevenueFromDate(@Param("startDate") LocalDateTime startDate);
 
+    // Dashboard reconciliation: [status, count]
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countPerStatus();
+
+    // Dashboard reconciliation: [year, month, day, revenue] for delivered orders, by day placed
+    @Query("SELECT YEAR(o.createdDate), MONTH(o.createdDate), DAY(o.createdDate), SUM(o.totalAmount) " +
+            "FROM Order o WHERE o.status = 'DELIVERED' AND o.createdDate >= :startDate " +
+            "GROUP BY YEAR(o.createdDate), MONTH(o.createdDate), DAY(o.createdDate)")
+    List<Object[]> getDeliveredRevenuePerDay(@Param("startDate") LocalDateTime startDate);
+
+    @Query("SELECT MIN(o.createdDate) FROM Order o")
+    LocalDateTime findFirstOrderDate();
+
     boolean existsByOrderNumber(String orderNumber);
 }
@@ -0,0 +1,16 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.dto.projection.ProductSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+
+/**
+ * Filtered catalog listing whose query only carries the predicates that were actually supplied.
+ */
+public interface ProductFilterRepository {
+
+    Page<ProductSummary> findProductSummariesByFilter(Long categoryId, String searchTerm, String brand,
+                                                      BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+}
@@ -0,0 +1,105 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.dto.projection.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the filter query per shape (the set of filters present) instead of one
+ * catch-all query with {@code :param IS NULL OR ...} for every filter.
+ * The category filter is a correlated EXISTS, so rows never multiply and neither
+ * the page nor the count needs DISTINCT. There are only 2^5 shapes; each one's
+ * JPQL is built once and reused, which also keeps the text stable for Hibernate's
+ * query plan cache and the database's statement cache.
+ */
+public class ProductFilterRepositoryImpl implements ProductFilterRepository {
+
+    private static final int CATEGORY = 1;
+    private static final int SEARCH = 1 << 1;
+    private static final int BRAND = 1 << 2;
+    private static final int MIN_PRICE = 1 << 3;
+    private static final int MAX_PRICE = 1 << 4;
+
+    private final Map<Integer, String> whereClauses = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductSummary> findProductSummariesByFilter(Long categoryId, String searchTerm, String brand,
+                                                             BigDecimal minPrice, BigDecimal maxPrice,
+                                                             Pageable pageable) {
+        boolean hasSearch = searchTerm != null && !searchTerm.isBlank();
+        int shape = (categoryId != null ? CATEGORY : 0)
+                | (hasSearch ? SEARCH : 0)
+                | (brand != null ? BRAND : 0)
+                | (minPrice != null ? MIN_PRICE : 0)
+                | (maxPrice != null ? MAX_PRICE : 0);
+        String where = whereClauses.computeIfAbsent(shape, ProductFilterRepositoryImpl::buildWhere);
+
+        String select = QueryUtils.applySorting(
+                "SELECT " + ProductRepository.SUMMARY + "FROM Product p" + where, pageable.getSort(), "p");
+        TypedQuery<ProductSummary> query = entityManager.createQuery(select, ProductSummary.class);
+        bind(query, shape, categoryId, searchTerm, brand, minPrice, maxPrice);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<ProductSummary> content = query.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(p) FROM Product p" + where, Long.class);
+            bind(count, shape, categoryId, searchTerm, brand, minPrice, maxPrice);
+            return count.getSingleResult();
+        });
+    }
+
+    private static String buildWhere(int shape) {
+        StringBuilder where = new StringBuilder(" WHERE p.status = 'ACTIVE' AND p.quantity > 0");
+        if ((shape & CATEGORY) != 0) {
+            where.append(" AND EXISTS (SELECT 1 FROM p.categories c WHERE c.categoryId = :categoryId)");
+        }
+        if ((shape & SEARCH) != 0) {
+            where.append(" AND (LOWER(p.name) LIKE :pattern OR LOWER(p.description) LIKE :pattern)");
+        }
+        if ((shape & BRAND) != 0) {
+            where.append(" AND LOWER(p.brand) = :brand");
+        }
+        if ((shape & MIN_PRICE) != 0) {
+            where.append(" AND p.price >= :minPrice");
+        }
+        if ((shape & MAX_PRICE) != 0) {
+            where.append(" AND p.price <= :maxPrice");
+        }
+        return where.toString();
+    }
+
+    private static void bind(TypedQuery<?> query, int shape, Long categoryId, String searchTerm, String brand,
+                             BigDecimal minPrice, BigDecimal maxPrice) {
+        if ((shape & CATEGORY) != 0) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if ((shape & SEARCH) != 0) {
+            query.setParameter("pattern", "%" + searchTerm.toLowerCase() + "%");
+        }
+        if ((shape & BRAND) != 0) {
+            query.setParameter("brand", brand.toLowerCase());
+        }
+        if ((shape & MIN_PRICE) != 0) {
+            query.setParameter("minPrice", minPrice);
+        }
+        if ((shape & MAX_PRICE) != 0) {
+            query.setParameter("maxPrice", maxPrice);
+        }
+    }
+}
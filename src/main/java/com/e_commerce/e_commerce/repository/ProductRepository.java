@@ -1,19 +1,28 @@
 package com.e_commerce.e_commerce.repository;
 
+import com.e_commerce.e_commerce.dto.projection.ProductSummary;
 import com.e_commerce.e_commerce.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductFilterRepository, ProductStockRepository {
+
+    // Constructor expression shared by the listing projections below
+    String SUMMARY = "new com.e_commerce.e_commerce.dto.projection.ProductSummary(" +
+            "p.productId, p.name, p.description, p.price, p.sku, p.brand, p.mainImageUrl, p.additionalImages, p.quantity) ";
 
     // Basic queries
     Optional<Product> findBySku(String sku);
@@ -24,6 +33,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     boolean existsBySku(String sku);
 
+    boolean existsByProductIdAndStatus(Long productId, String status);
+
+    // Product detail with its categories in one statement
+    @EntityGraph(attributePaths = "categories")
+    Optional<Product> findWithCategoriesByProductId(Long productId);
+
     // Search queries
     List<Product> findByNameContainingIgnoreCase(String name);
 
@@ -42,6 +57,26 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByCategoriesNameIgnoreCase(String categoryName);
 
+    // Integrity check before deleting categories: one statement, nothing loaded
+    boolean existsByCategoriesCategoryIdIn(Collection<Long> categoryIds);
+
+    // (productId, name, brand) for every active product
+    @Query("SELECT p.productId, p.name, p.brand FROM Product p WHERE p.status = 'ACTIVE'")
+    List<Object[]> findActiveProductNames();
+
+    // (productId, categoryId, name, description, parentId, createdDate) for a page of products
+    @Query("SELECT p.productId, c.categoryId, c.name, c.description, c.parentId, c.createdDate " +
+            "FROM Product p JOIN p.categories c WHERE p.productId IN :productIds")
+    List<Object[]> findCategoriesForProducts(@Param("productIds") Collection<Long> productIds);
+
+    // (productId, categoryId) pairs for every category assignment
+    @Query("SELECT p.productId, c.categoryId FROM Product p JOIN p.categories c")
+    List<Object[]> findAllCategoryLinks();
+
+    // (productId, status, quantity, updatedDate) for every product
+    @Query("SELECT p.productId, p.status, p.quantity, p.updatedDate FROM Product p")
+    List<Object[]> findAllListingStates();
+
     // ✅ Fixed: Added Pageable parameter
     @Query("SELECT p FROM Product p JOIN p.categories c WHERE c.categoryId = :categoryId AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     Page<Product> searchProductsInCategory(@Param("categoryId") Long categoryId, @Param("searchTerm") String searchTerm, Pageable pageable);
@@ -67,20 +102,39 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.quantity > 0 AND p.status = 'ACTIVE'")
     Page<Product> findAvailableProducts(Pageable pageable);
 
-    // Advanced search with multiple filters
-    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN p.categories c WHERE " +
-            "(:categoryId IS NULL OR c.categoryId = :categoryId) AND " +
-            "(:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
-            "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand)) AND " +
-            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-            "p.status = 'ACTIVE' AND p.quantity > 0")
-    Page<Product> findProductsWithFilters(
-            @Param("categoryId") Long categoryId,
-            @Param("searchTerm") String searchTerm,
-            @Param("brand") String brand,
-            @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            Pageable pageable
-    );
+    // (productId, quantity, updatedDate) as currently stored, bypassing any stale managed entities
+    @Query("SELECT p.productId, p.quantity, p.updatedDate FROM Product p WHERE p.productId IN :productIds")
+    List<Object[]> findStockLevels(@Param("productIds") Collection<Long> productIds);
+
+    // Listing projections: select only the columns the list view renders
+    @Query(value = "SELECT " + SUMMARY + "FROM Product p WHERE p.quantity > 0 AND p.status = 'ACTIVE'",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.quantity > 0 AND p.status = 'ACTIVE'")
+    Page<ProductSummary> findAvailableProductSummaries(Pageable pageable);
+
+    @Query(value = "SELECT " + SUMMARY + "FROM Product p JOIN p.categories c WHERE c.categoryId = :categoryId",
+            countQuery = "SELECT COUNT(p) FROM Product p JOIN p.categories c WHERE c.categoryId = :categoryId")
+    Page<ProductSummary> findSummariesByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    // Products in any of the given categories (a whole subtree), each once however many of them it is in
+    @Query(value = "SELECT " + SUMMARY + "FROM Product p WHERE EXISTS " +
+            "(SELECT 1 FROM p.categories c WHERE c.categoryId IN :categoryIds)",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE EXISTS " +
+                    "(SELECT 1 FROM p.categories c WHERE c.categoryId IN :categoryIds)")
+    Page<ProductSummary> findSummariesByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds, Pageable pageable);
+
+    @Query(value = "SELECT " + SUMMARY + "FROM Product p WHERE (LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND p.status = 'ACTIVE'",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE (LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND p.status = 'ACTIVE'")
+    Page<ProductSummary> searchActiveProductSummaries(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    @Query(value = "SELECT " + SUMMARY + "FROM Product p JOIN p.categories c WHERE c.categoryId = :categoryId AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))",
+            countQuery = "SELECT COUNT(p) FROM Product p JOIN p.categories c WHERE c.categoryId = :categoryId AND (LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
+    Page<ProductSummary> searchProductSummariesInCategory(@Param("categoryId") Long categoryId, @Param("searchTerm") String searchTerm, Pageable pageable);
+
+    @Query("SELECT " + SUMMARY + "FROM Product p WHERE p.productId IN :productIds")
+    List<ProductSummary> findSummariesByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Everything a cart quote needs, for active products only
+    @Query("SELECT p.productId, p.name, p.sku, p.mainImageUrl, p.price, p.quantity " +
+            "FROM Product p WHERE p.productId IN :productIds AND p.status = 'ACTIVE'")
+    List<Object[]> findPricingRows(@Param("productIds") Collection<Long> productIds);
 }
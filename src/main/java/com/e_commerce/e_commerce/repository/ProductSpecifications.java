@@ -0,0 +1,63 @@
+package com.e_commerce.e_commerce.repository;
+
+import com.e_commerce.e_commerce.model.Product;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Composable product predicates for the listing queries that are built at runtime.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> isActive() {
+        return (root, query, cb) -> cb.equal(root.get("status"), "ACTIVE");
+    }
+
+    public static Specification<Product> inStock() {
+        return (root, query, cb) -> cb.greaterThan(root.get("quantity"), 0);
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        // EXISTS rather than a join, so a product never comes back once per matching category
+        return (root, query, cb) -> {
+            Subquery<Integer> linked = query.subquery(Integer.class);
+            Root<Product> product = linked.correlate(root);
+            linked.select(cb.literal(1))
+                    .where(cb.equal(product.join("categories").get("categoryId"), categoryId));
+            return cb.exists(linked);
+        };
+    }
+
+    public static Specification<Product> matchesSearch(String searchTerm) {
+        return (root, query, cb) -> {
+            String pattern = "%" + searchTerm.toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("description")), pattern)
+            );
+        };
+    }
+
+    public static Specification<Product> idIn(Collection<Long> productIds) {
+        return (root, query, cb) -> root.get("productId").in(productIds);
+    }
+
+    public static Specification<Product> hasBrand(String brand) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("brand")), brand.toLowerCase());
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+}
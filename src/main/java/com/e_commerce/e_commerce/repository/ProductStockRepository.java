@@ -0,0 +1,20 @@
+package com.e_commerce.e_commerce.repository;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Stock moves as single-statement conditional updates, sent for all products of a call
+ * in one JDBC batch, so concurrent checkouts cannot oversell.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Takes the given units (by product id) only where at least the reserved units are left
+     * behind. Returns the rows updated per product, in ascending product id order: 0 where
+     * the stock was short.
+     */
+    int[] decrementStock(SortedMap<Long, Integer> quantities, Map<Long, Integer> reserved);
+
+    void incrementStock(SortedMap<Long, Integer> quantities);
+}
@@ -0,0 +1,59 @@
+package com.e_commerce.e_commerce.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Runs the stock updates on the transaction's own connection, one batch per call; the
+ * driver reports the rows updated per statement, which keeps the all-or-nothing check of
+ * a checkout possible without a round trip per line.
+ */
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String DECREMENT = "UPDATE PRODUCTS SET QUANTITY = QUANTITY - ?, " +
+            "UPDATED_DATE = CURRENT_TIMESTAMP WHERE PRODUCT_ID = ? AND QUANTITY >= ? + ?";
+    private static final String INCREMENT = "UPDATE PRODUCTS SET QUANTITY = QUANTITY + ?, " +
+            "UPDATED_DATE = CURRENT_TIMESTAMP WHERE PRODUCT_ID = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int[] decrementStock(SortedMap<Long, Integer> quantities, Map<Long, Integer> reserved) {
+        return executeBatch(DECREMENT, quantities, reserved);
+    }
+
+    @Override
+    public void incrementStock(SortedMap<Long, Integer> quantities) {
+        executeBatch(INCREMENT, quantities, null);
+    }
+
+    private int[] executeBatch(String sql, SortedMap<Long, Integer> quantities, Map<Long, Integer> reserved) {
+        if (quantities.isEmpty()) {
+            return new int[0];
+        }
+        // Plain JDBC skips Hibernate's auto-flush, so pending entity writes go out first as they would
+        // before a JPQL update
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                    statement.setInt(1, entry.getValue());
+                    statement.setLong(2, entry.getKey());
+                    if (reserved != null) {
+                        statement.setInt(3, entry.getValue());
+                        statement.setInt(4, reserved.getOrDefault(entry.getKey(), 0));
+                    }
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+}
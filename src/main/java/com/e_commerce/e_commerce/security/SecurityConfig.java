@@ -46,18 +46,25 @@ public class SecurityConfig {
                         // ✅ ANONYMOUS BROWSING - Anyone can view products and categories
                         .requestMatchers(HttpMethod.GET, "/api/public/products/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/public/categories/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/public/suggest").permitAll()
 
                         // ✅ GUEST CHECKOUT - No authentication required for basic shopping
                         .requestMatchers(HttpMethod.POST, "/api/public/orders").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/public/orders/async").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/public/cart/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/public/cart/**").permitAll()
+                        .requestMatchers(HttpMethod.PUT, "/api/public/cart/**").permitAll()
+                        .requestMatchers(HttpMethod.DELETE, "/api/public/cart/**").permitAll()
 
                         .requestMatchers(HttpMethod.GET, "/api/public/orders/track").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/public/orders/intake/**").permitAll()
 
                         // ✅ USER ACCOUNT FEATURES - Require authentication
                         .requestMatchers("/api/user/profile/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/user/orders/**").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers("/api/user/cart/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/user/wishlist/**").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers("/api/user/reservations/**").hasAnyRole("USER", "ADMIN")
 
                         // ✅ ADMIN ONLY - Management features
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
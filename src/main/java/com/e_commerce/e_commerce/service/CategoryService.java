@@ -3,17 +3,28 @@ package com.e_commerce.e_commerce.service;
 
 import com.e_commerce.e_commerce.dto.request.CategoryRequest;
 import com.e_commerce.e_commerce.dto.response.CategoryResponse;
+import com.e_commerce.e_commerce.dto.response.ProductCountsResponse;
+import com.e_commerce.e_commerce.event.CategoryChangedEvent;
 import com.e_commerce.e_commerce.exception.BadRequestException;
 import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
 import com.e_commerce.e_commerce.model.Category;
 import com.e_commerce.e_commerce.repository.CategoryRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.service.category.CategoryProductCounters;
+import com.e_commerce.e_commerce.service.category.CategoryTree;
+import com.e_commerce.e_commerce.service.category.CategoryTreeIndex;
+import com.e_commerce.e_commerce.service.category.CategoryTreePayload;
+import com.e_commerce.e_commerce.service.category.CategoryTreePayloadCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,19 +34,24 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTreeIndex categoryTreeIndex;
+    private final CategoryProductCounters categoryProductCounters;
+    private final CategoryTreePayloadCache categoryTreePayloadCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Create operations
     public CategoryResponse createCategory(CategoryRequest request) {
         log.info("Creating new category: {}", request.getName());
 
-        if (categoryRepository.existsByName(request.getName())) {
+        CategoryTree tree = categoryTreeIndex.current();
+        if (tree.findByName(request.getName()).isPresent()) {
             throw new BadRequestException("Category already exists with name: " + request.getName());
         }
 
         // Validate parent category exists if parentId is provided
-        if (request.getParentId() != null) {
-            categoryRepository.findById(request.getParentId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Parent category not found with ID: " + request.getParentId()));
+        if (request.getParentId() != null && !tree.contains(request.getParentId())) {
+            throw new ResourceNotFoundException("Parent category not found with ID: " + request.getParentId());
         }
 
         Category category = new Category();
@@ -44,80 +60,86 @@ public class CategoryService {
         category.setParentId(request.getParentId());
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(savedCategory));
         log.info("Category created successfully with ID: {}", savedCategory.getCategoryId());
 
         return mapToResponse(savedCategory);
     }
 
-    // Read operations
-    @Transactional(readOnly = true)
+    // Read operations come from the in-memory category tree; no transaction is opened for them
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryResponse> getAllCategories() {
         log.info("Fetching all categories");
-        return categoryRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(categoryTreeIndex.current().all());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryResponse> getRootCategories() {
         log.info("Fetching root categories");
-        return categoryRepository.findByParentIdIsNull()
+        CategoryTree tree = categoryTreeIndex.current();
+        return tree.roots()
                 .stream()
-                .map(this::mapToResponseWithSubCategories)
+                .map(node -> mapToResponseWithSubCategories(tree, node))
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    // The whole tree for storefront navigation, serialized and gzipped once per change
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CategoryTreePayload getCategoryTreePayload() {
+        return categoryTreePayloadCache.get(() -> {
+            CategoryTree tree = categoryTreeIndex.current();
+            return tree.<CategoryResponse>mapFromLeaves(this::mapToResponse);
+        });
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
         log.info("Fetching category with ID: {}", id);
-        Category category = categoryRepository.findById(id)
+        CategoryTree tree = categoryTreeIndex.current();
+        CategoryTree.Node category = tree.find(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
-        return mapToResponseWithSubCategories(category);
+        return mapToResponseWithSubCategories(tree, category);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CategoryResponse getCategoryByName(String name) {
         log.info("Fetching category with name: {}", name);
-        Category category = categoryRepository.findByName(name)
+        CategoryTree tree = categoryTreeIndex.current();
+        CategoryTree.Node category = tree.findByName(name)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with name: " + name));
-        return mapToResponseWithSubCategories(category);
+        return mapToResponseWithSubCategories(tree, category);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryResponse> getSubCategories(Long parentId) {
         log.info("Fetching subcategories for parent ID: {}", parentId);
+        CategoryTree tree = categoryTreeIndex.current();
 
         // Validate parent category exists
-        categoryRepository.findById(parentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Parent category not found with ID: " + parentId));
+        if (!tree.contains(parentId)) {
+            throw new ResourceNotFoundException("Parent category not found with ID: " + parentId);
+        }
 
-        return categoryRepository.findByParentId(parentId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(tree.children(parentId));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryResponse> searchCategories(String searchTerm) {
         log.info("Searching categories with term: {}", searchTerm);
-        return categoryRepository.searchByName(searchTerm)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(categoryTreeIndex.current().search(searchTerm));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryResponse> getCategoryHierarchy(Long categoryId) {
         log.info("Fetching category hierarchy for ID: {}", categoryId);
+        CategoryTree tree = categoryTreeIndex.current();
 
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + categoryId));
-
-        List<CategoryResponse> hierarchy = new ArrayList<>();
-        buildHierarchy(category, hierarchy);
+        if (!tree.contains(categoryId)) {
+            throw new ResourceNotFoundException("Category not found with ID: " + categoryId);
+        }
 
-        return hierarchy;
+        // Depth first, each category followed by its subtree
+        return mapToResponses(tree.subtree(categoryId));
     }
 
     // Update operations
@@ -127,18 +149,21 @@ public class CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
 
+        CategoryTree tree = categoryTreeIndex.current();
+
         // Check if name is being changed and if new name already exists
-        if (!category.getName().equals(request.getName()) && categoryRepository.existsByName(request.getName())) {
+        if (!category.getName().equals(request.getName()) && tree.findByName(request.getName()).isPresent()) {
             throw new BadRequestException("Category already exists with name: " + request.getName());
         }
 
         // Validate parent category exists if parentId is provided and different from current
         if (request.getParentId() != null && !request.getParentId().equals(category.getParentId())) {
-            categoryRepository.findById(request.getParentId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Parent category not found with ID: " + request.getParentId()));
+            if (!tree.contains(request.getParentId())) {
+                throw new ResourceNotFoundException("Parent category not found with ID: " + request.getParentId());
+            }
 
             // Prevent circular reference - category cannot be its own parent or descendant
-            if (isCircularReference(id, request.getParentId())) {
+            if (tree.isInSubtree(id, request.getParentId())) {
                 throw new BadRequestException("Circular reference detected. Category cannot be moved under its own descendant.");
             }
         }
@@ -148,6 +173,7 @@ public class CategoryService {
         category.setParentId(request.getParentId());
 
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(updatedCategory));
         log.info("Category updated successfully with ID: {}", updatedCategory.getCategoryId());
 
         return mapToResponse(updatedCategory);
@@ -161,17 +187,17 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
 
         // Check if category has subcategories
-        List<Category> subCategories = categoryRepository.findByParentId(id);
-        if (!subCategories.isEmpty()) {
+        if (categoryTreeIndex.current().hasChildren(id)) {
             throw new BadRequestException("Cannot delete category with subcategories. Please delete or move subcategories first.");
         }
 
-        // Check if category has products
-        if (!category.getProducts().isEmpty()) {
+        // Check if category has products (in the database: the counters may lag behind)
+        if (productRepository.existsByCategoriesCategoryIdIn(List.of(id))) {
             throw new BadRequestException("Cannot delete category with associated products. Please remove products from this category first.");
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(category));
         log.info("Category deleted successfully with ID: {}", id);
     }
 
@@ -181,130 +207,83 @@ public class CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + id));
 
+        List<Long> hierarchy = categoryTreeIndex.current().subtreeIds(id);
+
         // Check if any category in the hierarchy has products
-        if (hasProductsInHierarchy(category)) {
+        if (productRepository.existsByCategoriesCategoryIdIn(hierarchy)) {
             throw new BadRequestException("Cannot delete category hierarchy with associated products. Please remove all products first.");
         }
 
-        // Delete all subcategories recursively
-        deleteSubcategoriesRecursively(category);
+        // Delete all subcategories, deepest first
+        List<Category> subcategories = categoryRepository.findAllById(hierarchy.subList(1, hierarchy.size()));
+        Map<Long, Category> byId = subcategories.stream()
+                .collect(Collectors.toMap(Category::getCategoryId, subcategory -> subcategory));
+        for (Long subcategoryId : hierarchy.subList(1, hierarchy.size()).reversed()) {
+            Category subcategory = byId.get(subcategoryId);
+            if (subcategory != null) {
+                categoryRepository.delete(subcategory);
+                eventPublisher.publishEvent(CategoryChangedEvent.deleted(subcategory));
+            }
+        }
 
         // Delete the category itself
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(category));
         log.info("Category and subcategories deleted successfully with ID: {}", id);
     }
 
     // Utility methods
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryResponse> getCategoryPath(Long categoryId) {
         log.info("Getting category path for ID: {}", categoryId);
+        CategoryTree tree = categoryTreeIndex.current();
 
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + categoryId));
-
-        List<CategoryResponse> path = new ArrayList<>();
-        buildCategoryPath(category, path);
-
-        // Reverse to get path from root to current category
-        java.util.Collections.reverse(path);
-
-        return path;
-    }
-
-    @Transactional(readOnly = true)
-    public long getCategoryProductCount(Long categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + categoryId));
-
-        return category.getProducts().size();
-    }
-
-    // Private helper methods
-    private void buildHierarchy(Category category, List<CategoryResponse> hierarchy) {
-        hierarchy.add(mapToResponse(category));
-
-        List<Category> subcategories = categoryRepository.findByParentId(category.getCategoryId());
-        for (Category subcategory : subcategories) {
-            buildHierarchy(subcategory, hierarchy);
+        if (!tree.contains(categoryId)) {
+            throw new ResourceNotFoundException("Category not found with ID: " + categoryId);
         }
-    }
 
-    private void buildCategoryPath(Category category, List<CategoryResponse> path) {
-        path.add(mapToResponse(category));
-
-        if (category.getParentId() != null) {
-            Category parent = categoryRepository.findById(category.getParentId())
-                    .orElse(null);
-            if (parent != null) {
-                buildCategoryPath(parent, path);
-            }
-        }
+        // From the root down to the category
+        return mapToResponses(tree.path(categoryId));
     }
 
-    private boolean isCircularReference(Long categoryId, Long parentId) {
-        if (categoryId.equals(parentId)) {
-            return true;
-        }
-
-        Category parent = categoryRepository.findById(parentId).orElse(null);
-        if (parent == null || parent.getParentId() == null) {
-            return false;
-        }
-
-        return isCircularReference(categoryId, parent.getParentId());
-    }
-
-    private boolean hasProductsInHierarchy(Category category) {
-        if (!category.getProducts().isEmpty()) {
-            return true;
-        }
-
-        List<Category> subcategories = categoryRepository.findByParentId(category.getCategoryId());
-        for (Category subcategory : subcategories) {
-            if (hasProductsInHierarchy(subcategory)) {
-                return true;
-            }
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long getCategoryProductCount(Long categoryId) {
+        if (!categoryTreeIndex.current().contains(categoryId)) {
+            throw new ResourceNotFoundException("Category not found with ID: " + categoryId);
         }
 
-        return false;
-    }
-
-    private void deleteSubcategoriesRecursively(Category category) {
-        List<Category> subcategories = categoryRepository.findByParentId(category.getCategoryId());
-
-        for (Category subcategory : subcategories) {
-            deleteSubcategoriesRecursively(subcategory);
-            categoryRepository.delete(subcategory);
-        }
+        return categoryProductCounters.get(categoryId).getProducts();
     }
 
     // Mapping methods
     private CategoryResponse mapToResponse(Category category) {
-        return new CategoryResponse(
-                category.getCategoryId(),
-                category.getName(),
-                category.getDescription(),
-                category.getParentId(),
-                new ArrayList<>(),
-                (long) category.getProducts().size(),
-                category.getCreatedDate()
-        );
+        return mapToResponse(new CategoryTree.Node(category.getCategoryId(), category.getName(),
+                category.getDescription(), category.getParentId(), category.getCreatedDate()), new ArrayList<>());
     }
 
-    private CategoryResponse mapToResponseWithSubCategories(Category category) {
-        List<CategoryResponse> subCategories = categoryRepository
-                .findByParentId(category.getCategoryId())
-                .stream()
-                .map(this::mapToResponse)
+    private List<CategoryResponse> mapToResponses(List<CategoryTree.Node> nodes) {
+        return nodes.stream()
+                .map(node -> mapToResponse(node, new ArrayList<>()))
                 .collect(Collectors.toList());
+    }
+
+    private CategoryResponse mapToResponseWithSubCategories(CategoryTree tree, CategoryTree.Node node) {
+        return mapToResponse(node, mapToResponses(tree.children(node.getCategoryId())));
+    }
 
+    // Product counts come from the in-memory counters
+    private CategoryResponse mapToResponse(CategoryTree.Node node, List<CategoryResponse> subCategories) {
+        CategoryProductCounters.Counts counts = categoryProductCounters.get(node.getCategoryId());
         return new CategoryResponse(
-                category.getCategoryId(),
-                category.getName(),
-                category.getDescription(),
-                category.getParentId(),
+                node.getCategoryId(),
+                node.getName(),
+                node.getDescription(),
+                node.getParentId(),
                 subCategories,
-                (long) category.getProducts().size(),
-                category.getCreatedDate()
+                counts.getProducts(),
+                node.getCreatedDate(),
+                new ProductCountsResponse(counts.getActiveProducts(), counts.getInStockProducts(),
+                        counts.getSubtreeActiveProducts(), counts.getSubtreeInStockProducts())
         );
     }
 }
@@ -0,0 +1,115 @@
+package com.e_commerce.e_commerce.service;
+
+import com.e_commerce.e_commerce.event.StockChangedEvent;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
+import com.e_commerce.e_commerce.model.Product;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Moves product stock with single-statement conditional updates instead of
+ * read-check-write on the entity, so concurrent checkouts of the same product
+ * can neither oversell nor lose each other's updates. The updates of one call go
+ * out as a single JDBC batch, touching rows in ascending product id order, so two
+ * multi-item orders cannot deadlock.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class InventoryService {
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Takes the given units (by product id) out of stock, all or nothing: a product
+     * without enough stock fails the call and the surrounding transaction rolls back
+     * whatever was already taken.
+     */
+    public void decrement(Map<Long, Integer> quantities) {
+        decrement(quantities, Map.of());
+    }
+
+    /**
+     * As {@link #decrement(Map)}, but every product has to keep at least its reserved
+     * units (by product id) on the shelf afterwards.
+     */
+    public void decrement(Map<Long, Integer> quantities, Map<Long, Integer> reserved) {
+        BadRequestException shortage = tryDecrement(quantities, reserved);
+        if (shortage != null) {
+            throw shortage;
+        }
+    }
+
+    /**
+     * As {@link #decrement(Map, Map)}, but a shortage is returned rather than thrown, with
+     * the units this call already took put back. Nothing is left to roll back, so a caller
+     * placing several orders in one transaction can drop the one that ran short; thrown
+     * through this transactional proxy, it would mark the whole transaction rollback-only.
+     */
+    public BadRequestException tryDecrement(Map<Long, Integer> quantities, Map<Long, Integer> reserved) {
+        SortedMap<Long, Integer> ordered = new TreeMap<>(quantities);
+        Map<Long, Integer> keep = new HashMap<>();
+        reserved.forEach((productId, units) -> keep.put(productId, Math.max(units, 0)));
+        int[] updated = productRepository.decrementStock(ordered, keep);
+
+        SortedMap<Long, Integer> taken = new TreeMap<>();
+        Long firstShort = null;
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : ordered.entrySet()) {
+            if (updated[i++] == 0) {
+                firstShort = firstShort != null ? firstShort : entry.getKey();
+            } else {
+                taken.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (firstShort != null) {
+            // Still holding these rows' locks, so putting the units back cannot race anyone
+            productRepository.incrementStock(taken);
+            return insufficientStock(firstShort, ordered.get(firstShort), keep.getOrDefault(firstShort, 0));
+        }
+        publishStockChanges(ordered, -1);
+        return null;
+    }
+
+    public void increment(Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> ordered = new TreeMap<>(quantities);
+        productRepository.incrementStock(ordered);
+        publishStockChanges(ordered, 1);
+    }
+
+    // Our updates hold the row locks until commit, so the read-back is exactly our result
+    private void publishStockChanges(Map<Long, Integer> applied, int direction) {
+        for (Object[] row : productRepository.findStockLevels(applied.keySet())) {
+            Long productId = (Long) row[0];
+            Integer quantity = (Integer) row[1];
+            int previousQuantity = quantity - direction * applied.get(productId);
+            eventPublisher.publishEvent(new StockChangedEvent(productId, previousQuantity, quantity,
+                    (LocalDateTime) row[2]));
+        }
+    }
+
+    private BadRequestException insufficientStock(Long productId, int requested, int reserved) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
+        List<Object[]> levels = productRepository.findStockLevels(List.of(productId));
+        Integer quantity = levels.isEmpty() ? null : (Integer) levels.get(0)[1];
+        int available = Math.max((quantity != null ? quantity : 0) - reserved, 0);
+        log.info("Insufficient stock for product {}: requested {}, available {}", productId, requested, available);
+        return new BadRequestException("Insufficient stock for product: " + product.getName() +
+                ". Available: " + available + ", Requested: " + requested);
+    }
+}
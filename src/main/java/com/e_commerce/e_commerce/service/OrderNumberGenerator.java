@@ -0,0 +1,92 @@
+package com.e_commerce.e_commerce.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2025-01-01, a 10-bit
+ * node id and a 12-bit per-millisecond counter, written as "ORD" plus 13 Crockford
+ * base32 characters (no I, L, O or U, so they read out cleanly over the phone).
+ * Numbers from one node are strictly increasing and, being fixed width, sort as
+ * text in creation order; distinct node ids make them unique across instances
+ * without a database check. A deployment running more than one instance sets
+ * app.order-number.multi-instance and must give each instance its own node id, or
+ * startup fails; a single instance runs as node 0 unless told otherwise.
+ */
+@Component
+@Slf4j
+public class OrderNumberGenerator {
+
+    private static final String PREFIX = "ORD";
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 13;
+
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int COUNTER_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    // Last issued (millis << COUNTER_BITS | counter); the counter carrying over borrows the next millisecond
+    private final AtomicLong state = new AtomicLong();
+
+    @Autowired
+    public OrderNumberGenerator(@Value("${app.order-number.node-id:-1}") long configuredNodeId,
+                                @Value("${app.order-number.multi-instance:false}") boolean multiInstance) {
+        this(nodeId(configuredNodeId, multiInstance), System::currentTimeMillis);
+        log.info("Order numbers issued with node id {}", nodeId);
+    }
+
+    OrderNumberGenerator(long nodeId, LongSupplier clock) {
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public String next() {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long now = (clock.getAsLong() - EPOCH) << COUNTER_BITS;
+            // A clock that steps backwards just keeps counting on from the last number
+            next = Math.max(now, current + 1);
+        } while (!state.compareAndSet(current, next));
+
+        long millis = next >>> COUNTER_BITS;
+        long id = (millis << (NODE_BITS + COUNTER_BITS)) | (nodeId << COUNTER_BITS) | (next & COUNTER_MASK);
+        return PREFIX + encode(id);
+    }
+
+    private static String encode(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // Two instances on one node id would hand out the same numbers, so there is no guessing one
+    private static long nodeId(long configuredNodeId, boolean multiInstance) {
+        if (configuredNodeId > MAX_NODE || configuredNodeId < -1) {
+            throw new IllegalArgumentException("app.order-number.node-id must be between 0 and " + MAX_NODE);
+        }
+        if (configuredNodeId >= 0) {
+            return configuredNodeId;
+        }
+        if (multiInstance) {
+            throw new IllegalStateException("app.order-number.node-id must be set, and differ per instance, "
+                    + "when app.order-number.multi-instance is true");
+        }
+        return 0;
+    }
+}
@@ -7,24 +7,35 @@ import com.e_commerce.e_commerce.dto.request.UserOrderRequest;
 import com.e_commerce.e_commerce.dto.response.*;
 import com.e_commerce.e_commerce.enums.OrderStatus;
 import com.e_commerce.e_commerce.enums.PaymentMethod;
+import com.e_commerce.e_commerce.event.OrderStatusChangedEvent;
 import com.e_commerce.e_commerce.exception.BadRequestException;
 import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
 import com.e_commerce.e_commerce.model.*;
 import com.e_commerce.e_commerce.repository.OrderRepository;
 import com.e_commerce.e_commerce.repository.ProductRepository;
 import com.e_commerce.e_commerce.repository.UserRepository;
+import com.e_commerce.e_commerce.service.intake.QueuedOrder;
+import com.e_commerce.e_commerce.service.inventory.StockReservationService;
+import com.e_commerce.e_commerce.service.pricing.Money;
+import com.e_commerce.e_commerce.service.pricing.PriceBreakdown;
+import com.e_commerce.e_commerce.service.pricing.PricingEngine;
+import com.e_commerce.e_commerce.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,17 +47,53 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-
+    private final InventoryService inventoryService;
+    private final StockReservationService stockReservationService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final PricingEngine pricingEngine;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Add this method to OrderService.java
     public OrderResponse createUserOrder(Long userId, UserOrderRequest request) {
+        return mapToOrderResponse(placeUserOrder(orderNumberGenerator.next(), userId, request));
+    }
+
+    // Guest order creation
+    public OrderResponse createGuestOrder(GuestOrderRequest request) {
+        return mapToOrderResponse(placeGuestOrder(orderNumberGenerator.next(), request));
+    }
+
+    /**
+     * Places a micro-batch of orders accepted by the intake queue in one transaction.
+     * An order that cannot be placed (unknown user or product, not enough stock) is
+     * returned with its error and the rest of the batch still commits: those checks throw
+     * from here, not through a transactional proxy, and a stock shortage puts back what
+     * the order had already taken, so the transaction is never marked rollback-only.
+     */
+    public Map<String, RuntimeException> placeQueuedOrders(List<QueuedOrder> orders) {
+        Map<String, RuntimeException> failures = new HashMap<>();
+        for (QueuedOrder queued : orders) {
+            try {
+                if (queued.isGuest()) {
+                    placeGuestOrder(queued.getOrderNumber(), queued.getGuestRequest());
+                } else {
+                    placeUserOrder(queued.getOrderNumber(), queued.getUserId(), queued.getUserRequest());
+                }
+            } catch (BadRequestException | ResourceNotFoundException e) {
+                failures.put(queued.getOrderNumber(), e);
+            }
+        }
+        return failures;
+    }
+
+    private Order placeUserOrder(String orderNumber, Long userId, UserOrderRequest request) {
         log.info("Creating user order for user ID: {}", userId);
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
 
         Order order = new Order();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumber);
         order.setUser(user); // ✅ Set the user relationship
         order.setCustomerEmail(user.getEmail());
         order.setCustomerFirstName(user.getFirstName());
@@ -66,21 +113,20 @@ public class OrderService {
         order.setSpecialInstructions(request.getSpecialInstructions());
 
         // Process order items
-        processOrderItems(order, request.getItems());
+        processOrderItems(order, request.getItems(), userId, request.getReservationId());
 
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.placed(savedOrder));
         log.info("User order created successfully: {}", savedOrder.getOrderNumber());
 
-        return mapToOrderResponse(savedOrder);
+        return savedOrder;
     }
 
-
-    // Guest order creation
-    public OrderResponse createGuestOrder(GuestOrderRequest request) {
+    private Order placeGuestOrder(String orderNumber, GuestOrderRequest request) {
         log.info("Creating guest order for email: {}", request.getEmail());
 
         Order order = new Order();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumber);
         order.setCustomerEmail(request.getEmail());
         order.setCustomerFirstName(request.getFirstName());
         order.setCustomerLastName(request.getLastName());
@@ -98,12 +144,13 @@ public class OrderService {
         order.setSpecialInstructions(request.getSpecialInstructions());
 
         // Process order items
-        processOrderItems(order, request.getItems());
+        processOrderItems(order, request.getItems(), null, null);
 
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.placed(savedOrder));
         log.info("Guest order created successfully: {}", savedOrder.getOrderNumber());
 
-        return mapToOrderResponse(savedOrder);
+        return savedOrder;
     }
 
     // ✅ Guest tracking with email verification
@@ -159,21 +206,36 @@ public class OrderService {
     // User's orders
     @Transactional(readOnly = true)
     public Page<OrderResponse> getUserOrders(Long userId, Pageable pageable) {
-        return orderRepository.findByUserUserIdOrderByCreatedDateDesc(userId, pageable)
-                .map(this::mapToOrderResponse);
+        Page<Order> orders = orderRepository.findByUserUserIdOrderByCreatedDateDesc(userId, pageable);
+        fetchOrderItems(orders.getContent());
+        return orders.map(this::mapToOrderResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> scrollUserOrders(Long userId, String after, int size) {
+        CursorCodec.checkSize(size);
+        Sort sort = Sort.by("createdDate").descending();
+        Window<Order> window = orderRepository.findByUserUserId(
+                userId, CursorCodec.decode(after, sort), sort, Limit.of(size));
+        return toCursorPage(window, size);
     }
 
     // Admin operations
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getAllOrders(Pageable pageable) {
-        return orderRepository.findAllByOrderByCreatedDateDesc(pageable)
-                .map(this::mapToOrderResponse);
+    public Page<OrderSummaryResponse> getAllOrders(Pageable pageable) {
+        return orderRepository.findOrderSummaries(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> scrollAllOrders(Sort sort, String after, int size) {
+        CursorCodec.checkSize(size);
+        Window<Order> window = orderRepository.findAllBy(CursorCodec.decode(after, sort), sort, Limit.of(size));
+        return toCursorPage(window, size);
     }
 
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable) {
-        return orderRepository.findByStatus(status, pageable)
-                .map(this::mapToOrderResponse);
+    public Page<OrderSummaryResponse> getOrdersByStatus(OrderStatus status, Pageable pageable) {
+        return orderRepository.findOrderSummariesByStatus(status, pageable);
     }
 
     public OrderResponse updateOrderStatus(Long orderId, OrderStatus newStatus) {
@@ -182,8 +244,12 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(newStatus);
         Order updatedOrder = orderRepository.save(order);
+        if (previousStatus != newStatus) {
+            eventPublisher.publishEvent(OrderStatusChangedEvent.changed(updatedOrder, previousStatus));
+        }
 
         log.info("Order status updated successfully: {} -> {}", orderId, newStatus);
 
@@ -193,50 +259,68 @@ public class OrderService {
     public void cancelOrder(Long orderId) {
         log.info("Cancelling order: {}", orderId);
 
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
 
         if (order.getStatus() == OrderStatus.SHIPPED || order.getStatus() == OrderStatus.DELIVERED) {
             throw new BadRequestException("Cannot cancel order that has been shipped or delivered");
         }
+        // Its stock is already back on the shelf
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            log.info("Order already cancelled: {}", orderId);
+            return;
+        }
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
 
         // Restore product quantities
+        Map<Long, Integer> restored = new HashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setQuantity(product.getQuantity() + item.getQuantity());
-            productRepository.save(product);
+            restored.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum);
         }
+        inventoryService.increment(restored);
 
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, previousStatus));
         log.info("Order cancelled successfully: {}", orderId);
     }
 
     // Private helper methods
-    private void processOrderItems(Order order, List<OrderItemRequest> items) {
-        BigDecimal subtotal = BigDecimal.ZERO;
-
+    private void processOrderItems(Order order, List<OrderItemRequest> items, Long userId, String reservationId) {
+        Map<Long, Integer> requested = new HashMap<>();
         for (OrderItemRequest itemRequest : items) {
             // ✅ Validate quantity is positive
             if (itemRequest.getQuantity() == null || itemRequest.getQuantity() <= 0) {
                 throw new BadRequestException("Quantity must be greater than 0 for product ID: " + itemRequest.getProductId());
             }
+            requested.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
 
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + itemRequest.getProductId()));
-            // Check stock availability
-            if (product.getQuantity() < itemRequest.getQuantity()) {
-                throw new BadRequestException("Insufficient stock for product: " + product.getName() +
-                        ". Available: " + product.getQuantity() + ", Requested: " + itemRequest.getQuantity());
+        Map<Long, Product> products = productRepository.findAllById(requested.keySet())
+                .stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        for (Long productId : requested.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product not found with ID: " + productId);
             }
+        }
+
+        // Take stock (from the hold first, if any); fails if any product runs short
+        stockReservationService.take(userId, reservationId, requested);
+
+        // Lines are summed in cents; BigDecimal only for what goes on the entities
+        long subtotalCents = 0;
+        for (OrderItemRequest itemRequest : items) {
+            Product product = products.get(itemRequest.getProductId());
 
             // Create order item
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(product);
             orderItem.setQuantity(itemRequest.getQuantity());
             orderItem.setUnitPrice(product.getPrice());
-            orderItem.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+            long lineCents = Math.multiplyExact(Money.toCents(product.getPrice()), itemRequest.getQuantity());
+            orderItem.setTotalPrice(Money.toDecimal(lineCents));
 
             // Product snapshot
             orderItem.setProductName(product.getName());
@@ -245,38 +329,30 @@ public class OrderService {
 
             order.addOrderItem(orderItem);
 
-            // Update product quantity
-            product.setQuantity(product.getQuantity() - itemRequest.getQuantity());
-            productRepository.save(product);
-
-            subtotal = subtotal.add(orderItem.getTotalPrice());
+            subtotalCents = Math.addExact(subtotalCents, lineCents);
         }
 
-        // ✅ Calculate totals with proper rounding
-        BigDecimal taxRate = BigDecimal.valueOf(0.10); // 10% tax
-        BigDecimal taxAmount = subtotal.multiply(taxRate).setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal shippingCost = subtotal.compareTo(BigDecimal.valueOf(50)) >= 0 ?
-                BigDecimal.ZERO : BigDecimal.valueOf(10.00);
-
-        order.setSubtotal(subtotal);
-        order.setTaxAmount(taxAmount);
-        order.setShippingCost(shippingCost);
-
-        // ✅ Total with proper rounding
-        BigDecimal totalAmount = subtotal.add(taxAmount).add(shippingCost);
-        order.setTotalAmount(totalAmount.setScale(2, RoundingMode.HALF_UP));
+        PriceBreakdown price = pricingEngine.price(subtotalCents, order.getShippingCountry(), order.getShippingState());
+        order.setSubtotal(Money.toDecimal(price.getSubtotalCents()));
+        order.setTaxAmount(Money.toDecimal(price.getTaxCents()));
+        order.setShippingCost(Money.toDecimal(price.getShippingCents()));
+        order.setTotalAmount(Money.toDecimal(price.getTotalCents()));
     }
 
 
-    private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String orderNumber;
-        do {
-            orderNumber = "ORD" + timestamp + String.format("%03d", (int)(Math.random() * 999));
-        } while (orderRepository.existsByOrderNumber(orderNumber));
+    // One statement for the items of a whole page instead of one per order
+    private void fetchOrderItems(List<Order> orders) {
+        if (!orders.isEmpty()) {
+            orderRepository.fetchOrderItems(orders);
+        }
+    }
 
-        return orderNumber;
+    private CursorPageResponse<OrderResponse> toCursorPage(Window<Order> window, int size) {
+        fetchOrderItems(window.getContent());
+        List<OrderResponse> content = window.stream()
+                .map(this::mapToOrderResponse)
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(content, size, CursorCodec.nextCursor(window), window.hasNext());
     }
 
     // ✅ Guest tracking mapping method
@@ -0,0 +1,90 @@
+package com.e_commerce.e_commerce.service;
+
+import com.e_commerce.e_commerce.dto.response.ProductResponse;
+import com.e_commerce.e_commerce.event.CategoryChangedEvent;
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import com.e_commerce.e_commerce.event.StockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of fully mapped product details keyed by product id.
+ * Entries are dropped after any committed catalog write to the product; stock
+ * movements patch the cached quantity in place so hot products stay cached
+ * through a sale. Stock events can be delivered out of commit order, so a patch
+ * only applies over an older entry; anything else drops the entry instead.
+ * Stats are published as the "productDetails" cache metrics.
+ */
+@Component
+public class ProductDetailCache {
+
+    private final Cache<Long, ProductResponse> cache;
+
+    public ProductDetailCache(MeterRegistry meterRegistry,
+                              @Value("${app.cache.product-details.max-size:10000}") long maxSize,
+                              @Value("${app.cache.product-details.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productDetails");
+    }
+
+    public ProductResponse get(Long productId, Function<Long, ProductResponse> loader) {
+        return cache.get(productId, loader);
+    }
+
+    public void invalidate(Long productId) {
+        cache.invalidate(productId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    // Cached details embed category names; category edits are rare enough to just start over
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        cache.asMap().computeIfPresent(event.getProductId(), (id, cached) -> {
+            if (!isNewer(event, cached)) {
+                return null;
+            }
+            return new ProductResponse(
+                    cached.getProductId(),
+                    cached.getName(),
+                    cached.getDescription(),
+                    cached.getPrice(),
+                    cached.getSku(),
+                    event.getQuantity(),
+                    cached.getStatus(),
+                    cached.getBrand(),
+                    cached.getMainImageUrl(),
+                    cached.getAdditionalImages(),
+                    cached.getCategories(),
+                    cached.getCreatedDate(),
+                    event.getUpdatedDate()
+            );
+        });
+    }
+
+    // Equal timestamps cannot be ordered, and a reload is always right
+    private static boolean isNewer(StockChangedEvent event, ProductResponse cached) {
+        return event.getUpdatedDate() != null && cached.getUpdatedDate() != null
+                && event.getUpdatedDate().isAfter(cached.getUpdatedDate());
+    }
+}
@@ -1,29 +1,53 @@
 package com.e_commerce.e_commerce.service;
 
 
+import com.e_commerce.e_commerce.dto.projection.ProductSummary;
 import com.e_commerce.e_commerce.dto.request.ProductRequest;
 import com.e_commerce.e_commerce.dto.response.CategoryResponse;
+import com.e_commerce.e_commerce.dto.response.CursorPageResponse;
 import com.e_commerce.e_commerce.dto.response.ProductResponse;
 import com.e_commerce.e_commerce.dto.response.UserProductResponse;
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
 import com.e_commerce.e_commerce.exception.BadRequestException;
 import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
 import com.e_commerce.e_commerce.model.Category;
 import com.e_commerce.e_commerce.model.Product;
 import com.e_commerce.e_commerce.repository.CategoryRepository;
 import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.repository.ProductSpecifications;
+import com.e_commerce.e_commerce.service.category.CategoryTreeIndex;
+import com.e_commerce.e_commerce.service.popularity.PopularityWindow;
+import com.e_commerce.e_commerce.service.popularity.SalesLeaderboard;
+import com.e_commerce.e_commerce.service.recommendation.BoughtTogetherIndex;
+import com.e_commerce.e_commerce.service.search.IndexedProduct;
+import com.e_commerce.e_commerce.service.search.ProductSearchIndex;
+import com.e_commerce.e_commerce.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,6 +59,12 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ImageStorageService imageStorageService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductDetailCache productDetailCache;
+    private final SalesLeaderboard salesLeaderboard;
+    private final BoughtTogetherIndex boughtTogetherIndex;
+    private final CategoryTreeIndex categoryTreeIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Admin operations
     public ProductResponse createProduct(ProductRequest request) {
@@ -60,6 +90,7 @@ public class ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct));
         log.info("Product created successfully with ID: {}", savedProduct.getProductId());
 
         return mapToProductResponse(savedProduct);
@@ -92,6 +123,7 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(updatedProduct));
         log.info("Product updated successfully with ID: {}", updatedProduct.getProductId());
 
         return mapToProductResponse(updatedProduct);
@@ -105,6 +137,7 @@ public class ProductService {
 
         product.setStatus("INACTIVE");
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product));
 
         log.info("Product marked as inactive with ID: {}", id);
     }
@@ -134,6 +167,7 @@ public class ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct));
         log.info("Images uploaded successfully for product ID: {}", productId);
 
         return mapToProductResponse(savedProduct);
@@ -151,6 +185,7 @@ public class ProductService {
                 imageStorageService.deleteImage(product.getMainImageUrl());
                 product.setMainImageUrl(null);
                 productRepository.save(product);
+                eventPublisher.publishEvent(ProductChangedEvent.of(product));
                 log.info("Main image deleted successfully for product ID: {}", productId);
             } catch (IOException e) {
                 log.error("Failed to delete main image for product ID: {}", productId, e);
@@ -173,6 +208,7 @@ public class ProductService {
                 images.remove(imageIndex.intValue());
                 product.setAdditionalImages(images);
                 productRepository.save(product);
+                eventPublisher.publishEvent(ProductChangedEvent.of(product));
                 log.info("Image deleted successfully at index {} for product ID: {}", imageIndex, productId);
             } catch (IOException e) {
                 log.error("Failed to delete image for product ID: {}", productId, e);
@@ -186,65 +222,244 @@ public class ProductService {
     // Read operations
     @Transactional(readOnly = true)
     public Page<ProductResponse> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable)
-                .map(this::mapToProductResponse);
+        return toProductPage(productRepository.findAll(pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<ProductResponse> getActiveProducts(Pageable pageable) {
-        return productRepository.findByStatus("ACTIVE", pageable)
-                .map(this::mapToProductResponse);
+        return toProductPage(productRepository.findByStatus("ACTIVE", pageable));
     }
 
-    @Transactional(readOnly = true)
+    // Detail reads go through the cache; no transaction is opened on a hit
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
-        return mapToProductResponse(product);
+        return productDetailCache.get(id, this::loadProductResponse);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserProductResponse getUserProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+        ProductResponse product = productDetailCache.get(id, this::loadProductResponse);
 
         if (!"ACTIVE".equals(product.getStatus())) {
             throw new ResourceNotFoundException("Product not available");
         }
 
-        return mapToUserProductResponse(product);
+        return toUserProductResponse(product);
     }
 
     // Search operations
     @Transactional(readOnly = true)
     public Page<UserProductResponse> searchProducts(String searchTerm, Pageable pageable) {
-        return productRepository.searchActiveProducts(searchTerm, pageable)
-                .map(this::mapToUserProductResponse);
+        return productSearchIndex.search(searchTerm, IndexedProduct::isActive, pageable)
+                .map(this::loadUserProducts)
+                .orElseGet(() -> toUserProductSummaryPage(productRepository
+                        .searchActiveProductSummaries(searchTerm, ProductSearchIndex.withoutRelevance(pageable))));
     }
 
     @Transactional(readOnly = true)
-    public Page<UserProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoriesCategoryId(categoryId, pageable)
-                .map(this::mapToUserProductResponse);
+    public Page<UserProductResponse> getProductsByCategory(Long categoryId, boolean includeDescendants, Pageable pageable) {
+        // The subtree comes from the category tree, so it is still a single query however deep or wide it is
+        List<Long> subtree = includeDescendants ? categoryTreeIndex.current().subtreeIds(categoryId) : List.of();
+        if (subtree.size() > 1) {
+            return toUserProductSummaryPage(productRepository.findSummariesByCategoryIdIn(subtree, pageable));
+        }
+        return toUserProductSummaryPage(productRepository.findSummariesByCategoryId(categoryId, pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<UserProductResponse> searchProductsInCategory(Long categoryId, String searchTerm, Pageable pageable) {
-        return productRepository.searchProductsInCategory(categoryId, searchTerm, pageable)
-                .map(this::mapToUserProductResponse);
+        return toUserProductSummaryPage(productRepository.searchProductSummariesInCategory(categoryId, searchTerm, pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<UserProductResponse> filterProducts(Long categoryId, String searchTerm, String brand,
                                                     BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository.findProductsWithFilters(categoryId, searchTerm, brand, minPrice, maxPrice, pageable)
-                .map(this::mapToUserProductResponse);
+        if (searchTerm != null && !searchTerm.isBlank()) {
+            Page<Long> ids = productSearchIndex.search(searchTerm, product -> product.isActive()
+                            && product.isInStock()
+                            && (categoryId == null || product.getCategoryIds().contains(categoryId))
+                            && (brand == null || brand.equalsIgnoreCase(product.getBrand()))
+                            && (minPrice == null || product.getPrice().compareTo(minPrice) >= 0)
+                            && (maxPrice == null || product.getPrice().compareTo(maxPrice) <= 0),
+                    pageable).orElse(null);
+            if (ids != null) {
+                return loadUserProducts(ids);
+            }
+        }
+
+        return toUserProductSummaryPage(productRepository.findProductSummariesByFilter(categoryId, searchTerm,
+                brand, minPrice, maxPrice, ProductSearchIndex.withoutRelevance(pageable)));
     }
 
     @Transactional(readOnly = true)
     public Page<UserProductResponse> getAvailableProducts(Pageable pageable) {
-        return productRepository.findAvailableProducts(pageable)
-                .map(this::mapToUserProductResponse);
+        return toUserProductSummaryPage(productRepository.findAvailableProductSummaries(pageable));
+    }
+
+    // Most units sold in the window first; products without sales follow, newest first
+    @Transactional(readOnly = true)
+    public Page<UserProductResponse> getPopularProducts(PopularityWindow window, int page, int size) {
+        return productSearchIndex.rank(product -> product.isActive() && product.isInStock(),
+                        product -> salesLeaderboard.unitsSold(window, product.getProductId()),
+                        PageRequest.of(page, size))
+                .map(this::loadUserProducts)
+                .orElseGet(() -> getAvailableProducts(PageRequest.of(page, size, Sort.by("createdDate").descending())));
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserProductResponse> getBestsellers(PopularityWindow window, int limit) {
+        if (limit < 1 || limit > SalesLeaderboard.MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + SalesLeaderboard.MAX_LIMIT);
+        }
+        List<Long> ids = salesLeaderboard.top(window, limit, this::isAvailable);
+        return loadUserProducts(new PageImpl<>(ids)).getContent();
+    }
+
+    // Bought together with this product, best first: ids from the co-purchase index, filtered on
+    // the search index and resolved through the detail cache, so warm requests never reach the database
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<UserProductResponse> getRelatedProducts(Long id, int limit) {
+        if (limit < 1 || limit > boughtTogetherIndex.getTopN()) {
+            throw new BadRequestException("limit must be between 1 and " + boughtTogetherIndex.getTopN());
+        }
+        if (!productSearchIndex.isReady()) {
+            return List.of();
+        }
+        return boughtTogetherIndex.related(id).stream()
+                .filter(productId -> productSearchIndex.find(productId)
+                        .filter(product -> product.isActive() && product.isInStock())
+                        .isPresent())
+                .limit(limit)
+                .map(productId -> toUserProductResponse(productDetailCache.get(productId, this::loadProductResponse)))
+                .toList();
+    }
+
+    // Listed and in stock, going by the search index; anything goes while it is still building
+    private boolean isAvailable(Long productId) {
+        return !productSearchIndex.isReady()
+                || productSearchIndex.find(productId).filter(IndexedProduct::isInStock).isPresent();
+    }
+
+    // Cursor (keyset) listings
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserProductResponse> scrollAvailableProducts(Sort sort, String after, int size) {
+        CursorCodec.checkSize(size);
+        Specification<Product> spec = ProductSpecifications.isActive().and(ProductSpecifications.inStock());
+        return scrollUserProducts(spec, sort, after, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserProductResponse> scrollFilteredProducts(Long categoryId, String searchTerm, String brand,
+                                                                          BigDecimal minPrice, BigDecimal maxPrice,
+                                                                          Sort sort, String after, int size) {
+        CursorCodec.checkSize(size);
+        Specification<Product> spec = ProductSpecifications.isActive().and(ProductSpecifications.inStock());
+        if (categoryId != null) {
+            spec = spec.and(ProductSpecifications.inCategory(categoryId));
+        }
+        if (searchTerm != null && !searchTerm.isBlank()) {
+            List<Long> matches = productSearchIndex.matchingIds(searchTerm, IndexedProduct::isActive).orElse(null);
+            if (matches != null && matches.isEmpty()) {
+                return new CursorPageResponse<>(List.of(), size, null, false);
+            }
+            spec = spec.and(matches != null
+                    ? ProductSpecifications.idIn(matches)
+                    : ProductSpecifications.matchesSearch(searchTerm));
+        }
+        if (brand != null) {
+            spec = spec.and(ProductSpecifications.hasBrand(brand));
+        }
+        if (minPrice != null) {
+            spec = spec.and(ProductSpecifications.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            spec = spec.and(ProductSpecifications.priceAtMost(maxPrice));
+        }
+        return scrollUserProducts(spec, sort, after, size);
+    }
+
+    private CursorPageResponse<UserProductResponse> scrollUserProducts(Specification<Product> spec, Sort sort,
+                                                                     String after, int size) {
+        Window<Product> window = productRepository.findBy(spec, query -> query
+                .sortBy(sort)
+                .limit(size)
+                .scroll(CursorCodec.decode(after, sort)));
+
+        List<UserProductResponse> content = toUserProducts(window.getContent());
+        return new CursorPageResponse<>(content, size, CursorCodec.nextCursor(window), window.hasNext());
+    }
+
+    // Loads a page of index hits by primary key, preserving the index order
+    private Page<UserProductResponse> loadUserProducts(Page<Long> ids) {
+        Map<Long, ProductSummary> products = productRepository.findSummariesByProductIdIn(ids.getContent())
+                .stream()
+                .collect(Collectors.toMap(ProductSummary::getProductId, Function.identity()));
+
+        List<ProductSummary> summaries = ids.getContent().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, Set<CategoryResponse>> categories = loadCategories(ids.getContent());
+        List<UserProductResponse> content = summaries.stream()
+                .map(summary -> mapToUserProductResponse(summary, categoriesOf(summary.getProductId(), categories)))
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+
+    // Listing mappers: the categories of a whole page come from one extra statement,
+    // not one lazy load per product
+    private Page<ProductResponse> toProductPage(Page<Product> page) {
+        Map<Long, Set<CategoryResponse>> categories = loadCategories(productIds(page.getContent()));
+        return page.map(product -> mapToProductResponse(product, categoriesOf(product.getProductId(), categories)));
+    }
+
+    private Page<UserProductResponse> toUserProductSummaryPage(Page<ProductSummary> page) {
+        Map<Long, Set<CategoryResponse>> categories = loadCategories(
+                page.getContent().stream().map(ProductSummary::getProductId).toList());
+        return page.map(summary -> mapToUserProductResponse(summary, categoriesOf(summary.getProductId(), categories)));
+    }
+
+    private List<UserProductResponse> toUserProducts(List<Product> products) {
+        Map<Long, Set<CategoryResponse>> categories = loadCategories(productIds(products));
+        return products.stream()
+                .map(product -> mapToUserProductResponse(product, categoriesOf(product.getProductId(), categories)))
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> productIds(List<Product> products) {
+        return products.stream().map(Product::getProductId).toList();
+    }
+
+    private Map<Long, Set<CategoryResponse>> loadCategories(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Set<CategoryResponse>> categories = new HashMap<>();
+        for (Object[] row : productRepository.findCategoriesForProducts(productIds)) {
+            categories.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add(new CategoryResponse(
+                    (Long) row[1],
+                    (String) row[2],
+                    (String) row[3],
+                    (Long) row[4],
+                    new ArrayList<>(),
+                    0L,
+                    (LocalDateTime) row[5],
+                    null
+            ));
+        }
+        return categories;
+    }
+
+    private Set<CategoryResponse> categoriesOf(Long productId, Map<Long, Set<CategoryResponse>> categories) {
+        return categories.getOrDefault(productId, new HashSet<>());
+    }
+
+    private ProductResponse loadProductResponse(Long id) {
+        Product product = productRepository.findWithCategoriesByProductId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + id));
+        return mapToProductResponse(product);
     }
 
     // Mapping methods
@@ -254,6 +469,10 @@ public class ProductService {
                 .map(this::mapToCategoryResponse)
                 .collect(Collectors.toSet());
 
+        return mapToProductResponse(product, categoryResponses);
+    }
+
+    private ProductResponse mapToProductResponse(Product product, Set<CategoryResponse> categoryResponses) {
         return new ProductResponse(
                 product.getProductId(),
                 product.getName(),
@@ -271,12 +490,7 @@ public class ProductService {
         );
     }
 
-    private UserProductResponse mapToUserProductResponse(Product product) {
-        Set<CategoryResponse> categoryResponses = product.getCategories()
-                .stream()
-                .map(this::mapToCategoryResponse)
-                .collect(Collectors.toSet());
-
+    private UserProductResponse mapToUserProductResponse(Product product, Set<CategoryResponse> categoryResponses) {
         return new UserProductResponse(
                 product.getProductId(),
                 product.getName(),
@@ -291,6 +505,36 @@ public class ProductService {
         );
     }
 
+    private UserProductResponse mapToUserProductResponse(ProductSummary summary, Set<CategoryResponse> categoryResponses) {
+        return new UserProductResponse(
+                summary.getProductId(),
+                summary.getName(),
+                summary.getDescription(),
+                summary.getPrice(),
+                summary.getSku(),
+                summary.getBrand(),
+                summary.getMainImageUrl(),
+                summary.getAdditionalImages(),
+                categoryResponses,
+                summary.getQuantity() > 0
+        );
+    }
+
+    private UserProductResponse toUserProductResponse(ProductResponse product) {
+        return new UserProductResponse(
+                product.getProductId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getSku(),
+                product.getBrand(),
+                product.getMainImageUrl(),
+                product.getAdditionalImages(),
+                product.getCategories(),
+                product.getQuantity() > 0
+        );
+    }
+
     private CategoryResponse mapToCategoryResponse(Category category) {
         return new CategoryResponse(
                 category.getCategoryId(),
@@ -299,7 +543,8 @@ public class ProductService {
                 category.getParentId(),
                 new ArrayList<>(),
                 0L,
-                category.getCreatedDate()
+                category.getCreatedDate(),
+                null
         );
     }
 }
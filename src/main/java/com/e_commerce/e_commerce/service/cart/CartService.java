@@ -0,0 +1,185 @@
+package com.e_commerce.e_commerce.service.cart;
+
+import com.e_commerce.e_commerce.dto.request.CartItemRequest;
+import com.e_commerce.e_commerce.dto.response.CartItemResponse;
+import com.e_commerce.e_commerce.dto.response.CartQuoteItemResponse;
+import com.e_commerce.e_commerce.dto.response.CartQuoteResponse;
+import com.e_commerce.e_commerce.dto.response.CartResponse;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.service.pricing.Money;
+import com.e_commerce.e_commerce.service.pricing.PriceBreakdown;
+import com.e_commerce.e_commerce.service.pricing.PricingEngine;
+import com.e_commerce.e_commerce.util.LongIntMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Server-side carts, for guests under a random token and for signed-in users under
+ * their id. Carts only hold product ids and quantities; prices are looked up when the
+ * cart is quoted, with the same tax and shipping rules as order placement.
+ */
+@Service
+@Slf4j
+public class CartService {
+
+    private static final String GUEST = "guest:";
+    private static final String USER = "user:";
+
+    private final CartStore cartStore;
+    private final ProductRepository productRepository;
+    private final PricingEngine pricingEngine;
+    private final int maxItems;
+    private final int maxQuantity;
+
+    public CartService(CartStore cartStore,
+                       ProductRepository productRepository,
+                       PricingEngine pricingEngine,
+                       @Value("${app.cart.max-items:100}") int maxItems,
+                       @Value("${app.cart.max-quantity:999}") int maxQuantity) {
+        this.cartStore = cartStore;
+        this.productRepository = productRepository;
+        this.pricingEngine = pricingEngine;
+        this.maxItems = maxItems;
+        this.maxQuantity = maxQuantity;
+    }
+
+    public static String guestCart(String token) {
+        return GUEST + token;
+    }
+
+    public static String userCart(Long userId) {
+        return USER + userId;
+    }
+
+    public CartResponse createGuestCart() {
+        String key = guestCart(UUID.randomUUID().toString());
+        return toResponse(key, cartStore.getOrCreate(key));
+    }
+
+    public CartResponse getCart(String key) {
+        return toResponse(key, lines(key));
+    }
+
+    public CartResponse addItem(String key, CartItemRequest request) {
+        if (request.getQuantity() <= 0) {
+            throw new BadRequestException("Quantity must be greater than 0 for product ID: " + request.getProductId());
+        }
+        // In long, so a huge quantity cannot wrap around past the limit
+        return change(key, request.getProductId(), current -> current + request.getQuantity());
+    }
+
+    public CartResponse setItem(String key, CartItemRequest request) {
+        return change(key, request.getProductId(), current -> request.getQuantity());
+    }
+
+    public CartResponse removeItem(String key, Long productId) {
+        LongIntMap lines = lines(key);
+        synchronized (lines) {
+            lines.remove(productId);
+        }
+        cartStore.changed(key);
+        return toResponse(key, lines);
+    }
+
+    public void clear(String key) {
+        lines(key);
+        cartStore.remove(key);
+    }
+
+    /**
+     * Prices every line of the cart with one product query. Without a country the
+     * default tax rate applies.
+     */
+    public CartQuoteResponse quote(String key, String country, String state) {
+        LongIntMap lines = lines(key);
+        Map<Long, Integer> quantities = new TreeMap<>();
+        synchronized (lines) {
+            lines.forEach(quantities::put);
+        }
+
+        Map<Long, Object[]> rows = new HashMap<>();
+        if (!quantities.isEmpty()) {
+            for (Object[] row : productRepository.findPricingRows(quantities.keySet())) {
+                rows.put((Long) row[0], row);
+            }
+        }
+
+        List<CartQuoteItemResponse> items = new ArrayList<>();
+        List<Long> unavailable = new ArrayList<>();
+        long subtotalCents = 0;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Object[] row = rows.get(line.getKey());
+            if (row == null) {
+                unavailable.add(line.getKey());
+                continue;
+            }
+            BigDecimal unitPrice = (BigDecimal) row[4];
+            long lineCents = Math.multiplyExact(Money.toCents(unitPrice), line.getValue());
+            Integer stock = (Integer) row[5];
+            items.add(new CartQuoteItemResponse(line.getKey(), (String) row[1], (String) row[2], (String) row[3],
+                    line.getValue(), unitPrice, Money.toDecimal(lineCents), stock != null && stock >= line.getValue()));
+            subtotalCents = Math.addExact(subtotalCents, lineCents);
+        }
+
+        PriceBreakdown price = pricingEngine.price(subtotalCents, country, state);
+        return new CartQuoteResponse(cartId(key), items, unavailable,
+                Money.toDecimal(price.getSubtotalCents()), Money.toDecimal(price.getTaxCents()),
+                Money.toDecimal(price.getShippingCents()), Money.toDecimal(price.getTotalCents()));
+    }
+
+    private CartResponse change(String key, Long productId, LongUnaryOperator update) {
+        LongIntMap lines = lines(key);
+        if (!productRepository.existsByProductIdAndStatus(productId, "ACTIVE")) {
+            throw new ResourceNotFoundException("Product not found with ID: " + productId);
+        }
+        synchronized (lines) {
+            int current = lines.get(productId);
+            long quantity = update.applyAsLong(current);
+            if (quantity > maxQuantity) {
+                throw new BadRequestException("At most " + maxQuantity + " units of a product fit in a cart");
+            }
+            if (current == 0 && quantity > 0 && lines.size() >= maxItems) {
+                throw new BadRequestException("A cart holds at most " + maxItems + " different products");
+            }
+            lines.put(productId, (int) quantity);
+        }
+        cartStore.changed(key);
+        return toResponse(key, lines);
+    }
+
+    // Guest carts must have been created; a user's cart appears on first use
+    private LongIntMap lines(String key) {
+        if (key.startsWith(USER)) {
+            return cartStore.getOrCreate(key);
+        }
+        return cartStore.find(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found: " + cartId(key)));
+    }
+
+    private CartResponse toResponse(String key, LongIntMap lines) {
+        List<CartItemResponse> items = new ArrayList<>();
+        synchronized (lines) {
+            lines.forEach((productId, quantity) -> items.add(new CartItemResponse(productId, quantity)));
+        }
+        items.sort(Comparator.comparing(CartItemResponse::getProductId));
+        int totalQuantity = items.stream().mapToInt(CartItemResponse::getQuantity).sum();
+        return new CartResponse(cartId(key), items, totalQuantity);
+    }
+
+    private String cartId(String key) {
+        return key.startsWith(GUEST) ? key.substring(GUEST.length()) : null;
+    }
+}
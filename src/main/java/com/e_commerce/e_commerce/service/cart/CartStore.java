@@ -0,0 +1,177 @@
+package com.e_commerce.e_commerce.service.cart;
+
+import com.e_commerce.e_commerce.model.CartSnapshot;
+import com.e_commerce.e_commerce.repository.CartSnapshotRepository;
+import com.e_commerce.e_commerce.util.LongIntMap;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Carts by key, in memory, dropped after app.cart.ttl without use. With snapshots
+ * enabled, changed carts are written behind to CART_SNAPSHOTS and read back on a miss,
+ * so they outlive restarts and size-based eviction. Callers synchronize on the lines.
+ */
+@Component
+@Slf4j
+class CartStore {
+
+    private final CartSnapshotRepository snapshotRepository;
+    private final boolean snapshots;
+    private final Duration ttl;
+
+    private final Cache<String, LongIntMap> carts;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public CartStore(CartSnapshotRepository snapshotRepository,
+                     @Value("${app.cart.max-carts:200000}") long maxCarts,
+                     @Value("${app.cart.ttl:7d}") Duration ttl,
+                     @Value("${app.cart.snapshot.enabled:false}") boolean snapshots) {
+        this.snapshotRepository = snapshotRepository;
+        this.snapshots = snapshots;
+        this.ttl = ttl;
+        this.carts = Caffeine.newBuilder()
+                .maximumSize(maxCarts)
+                .expireAfterAccess(ttl)
+                .removalListener((String key, LongIntMap lines, RemovalCause cause) -> {
+                    // Pushed out for room while still live: keep what has not been written yet
+                    if (cause == RemovalCause.SIZE && lines != null && dirty.remove(key)) {
+                        CartSnapshot snapshot = snapshotOf(key, lines);
+                        if (snapshot.getItems().isEmpty()) {
+                            snapshotRepository.deleteById(key);
+                        } else {
+                            write(List.of(snapshot));
+                        }
+                    }
+                })
+                .build();
+    }
+
+    Optional<LongIntMap> find(String key) {
+        return Optional.ofNullable(carts.get(key, this::load));
+    }
+
+    LongIntMap getOrCreate(String key) {
+        return carts.get(key, k -> {
+            LongIntMap loaded = load(k);
+            return loaded != null ? loaded : new LongIntMap();
+        });
+    }
+
+    void changed(String key) {
+        if (snapshots) {
+            dirty.add(key);
+        }
+    }
+
+    void remove(String key) {
+        carts.invalidate(key);
+        if (snapshots) {
+            dirty.remove(key);
+            snapshotRepository.deleteById(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.snapshot.interval-ms:30000}")
+    public void writeSnapshots() {
+        if (!snapshots || dirty.isEmpty()) {
+            return;
+        }
+        List<CartSnapshot> changed = new ArrayList<>();
+        List<String> emptied = new ArrayList<>();
+        for (Iterator<String> keys = dirty.iterator(); keys.hasNext(); ) {
+            String key = keys.next();
+            keys.remove();
+            LongIntMap lines = carts.getIfPresent(key);
+            if (lines == null) {
+                continue;
+            }
+            CartSnapshot snapshot = snapshotOf(key, lines);
+            if (snapshot.getItems().isEmpty()) {
+                emptied.add(key);
+            } else {
+                changed.add(snapshot);
+            }
+        }
+        write(changed);
+        if (!emptied.isEmpty()) {
+            snapshotRepository.deleteAllById(emptied);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void writeSnapshotsOnShutdown() {
+        writeSnapshots();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.snapshot.purge-interval-ms:3600000}")
+    public void purgeSnapshots() {
+        if (snapshots) {
+            int purged = snapshotRepository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+            if (purged > 0) {
+                log.info("Purged {} expired cart snapshots", purged);
+            }
+        }
+    }
+
+    private LongIntMap load(String key) {
+        if (!snapshots) {
+            return null;
+        }
+        return snapshotRepository.findById(key)
+                .filter(snapshot -> snapshot.getUpdatedDate().isAfter(LocalDateTime.now().minus(ttl)))
+                .map(snapshot -> decode(snapshot.getItems()))
+                .orElse(null);
+    }
+
+    private void write(List<CartSnapshot> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            snapshotRepository.saveAll(changed);
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} cart snapshots: {}", changed.size(), e.getMessage());
+            changed.forEach(snapshot -> dirty.add(snapshot.getCartKey()));
+        }
+    }
+
+    private CartSnapshot snapshotOf(String key, LongIntMap lines) {
+        StringBuilder items = new StringBuilder();
+        synchronized (lines) {
+            lines.forEach((productId, quantity) -> {
+                if (!items.isEmpty()) {
+                    items.append(',');
+                }
+                items.append(productId).append(':').append(quantity);
+            });
+        }
+        return new CartSnapshot(key, items.toString(), LocalDateTime.now());
+    }
+
+    private LongIntMap decode(String items) {
+        LongIntMap lines = new LongIntMap();
+        for (String line : items.split(",")) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                lines.put(Long.parseLong(line.substring(0, colon)), Integer.parseInt(line.substring(colon + 1)));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,298 @@
+package com.e_commerce.e_commerce.service.category;
+
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import com.e_commerce.e_commerce.event.StockChangedEvent;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Product counts per category, kept in memory: products (any status, active, active and
+ * in stock) linked to the category itself and anywhere in its subtree, each product
+ * counted once per category. Counts move with committed product writes and with stock
+ * crossing zero. Subtree counts are recomputed whenever the category tree has changed,
+ * and everything is reloaded periodically from the database to settle any drift.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryProductCounters {
+
+    private static final int LINKED = 0;
+    private static final int ACTIVE = 1;
+    private static final int IN_STOCK = 2;
+    private static final int[] NONE = new int[3];
+
+    private final ProductRepository productRepository;
+    private final CategoryTreeIndex categoryTreeIndex;
+
+    // Only products that are in at least one category
+    private Map<Long, Listing> products = new HashMap<>();
+    private Map<Long, int[]> direct = new HashMap<>();
+    private Map<Long, int[]> subtree = new HashMap<>();
+    // The tree the subtree counts were computed against
+    private CategoryTree subtreeBasis;
+    private volatile boolean loaded;
+    // Bumped whenever a count changes, for anything rendered from them
+    private volatile long version;
+
+    // Serializes reloads; they read the database without holding the counters' own lock
+    private final Object reloadLock = new Object();
+    // While a reload is reading: products that changed meanwhile and their latest stock change,
+    // both newer than what the reload may have read
+    private Set<Long> changedDuringLoad;
+    private Map<Long, StockChangedEvent> stockDuringLoad;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Counts {
+        private final long products;
+        private final long activeProducts;
+        private final long inStockProducts;
+        private final long subtreeProducts;
+        private final long subtreeActiveProducts;
+        private final long subtreeInStockProducts;
+    }
+
+    // What a product contributes to the counts of its categories, as of the product's last write
+    @AllArgsConstructor
+    private static class Listing {
+        private final Set<Long> categoryIds;
+        private final boolean active;
+        private final boolean inStock;
+        private final LocalDateTime updatedDate;
+
+        private boolean countsLike(Listing other) {
+            return categoryIds.equals(other.categoryIds) && active == other.active
+                    && (!active || inStock == other.inStock);
+        }
+
+        // Unknown on either side counts as newer: there is nothing to order by
+        private boolean isOlderThan(LocalDateTime stockUpdatedDate) {
+            return updatedDate == null || stockUpdatedDate == null || stockUpdatedDate.isAfter(updatedDate);
+        }
+
+        private Listing withStock(StockChangedEvent event) {
+            return new Listing(categoryIds, active, inStock(event.getQuantity()), event.getUpdatedDate());
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Counts get(Long categoryId) {
+        if (!loaded) {
+            load();
+        }
+        synchronized (this) {
+            refreshSubtree();
+            int[] own = direct.getOrDefault(categoryId, new int[3]);
+            int[] below = subtree.getOrDefault(categoryId, new int[3]);
+            return new Counts(own[LINKED], own[ACTIVE], own[IN_STOCK], below[LINKED], below[ACTIVE], below[IN_STOCK]);
+        }
+    }
+
+    /**
+     * Reads every product's categories, status and stock and swaps the result in. The two
+     * queries run without blocking readers or event listeners; changes that commit in the
+     * meantime are kept over what the queries saw.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.categories.product-counts.reload-interval-ms:600000}",
+            fixedDelayString = "${app.categories.product-counts.reload-interval-ms:600000}")
+    public void load() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                changedDuringLoad = new HashSet<>();
+                stockDuringLoad = new HashMap<>();
+            }
+
+            Map<Long, Listing> read;
+            Map<Long, int[]> counted = new HashMap<>();
+            Map<Long, int[]> countedBelow = new HashMap<>();
+            CategoryTree tree;
+            try {
+                read = readListings();
+                tree = categoryTreeIndex.current();
+                read.values().forEach(listing -> {
+                    count(counted, listing.categoryIds, listing, 1);
+                    count(countedBelow, withAncestors(listing.categoryIds, tree), listing, 1);
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changedDuringLoad = null;
+                    stockDuringLoad = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                Map<Long, Listing> newer = new HashMap<>();
+                stockDuringLoad.forEach((productId, stock) -> {
+                    Listing listing = read.get(productId);
+                    if (listing != null && listing.isOlderThan(stock.getUpdatedDate())) {
+                        newer.put(productId, listing.withStock(stock));
+                    }
+                });
+                changedDuringLoad.forEach(productId -> newer.put(productId, products.get(productId)));
+                newer.forEach((productId, listing) -> {
+                    Listing previous = listing != null ? read.put(productId, listing) : read.remove(productId);
+                    if (previous != null) {
+                        count(counted, previous.categoryIds, previous, -1);
+                        count(countedBelow, withAncestors(previous.categoryIds, tree), previous, -1);
+                    }
+                    if (listing != null) {
+                        count(counted, listing.categoryIds, listing, 1);
+                        count(countedBelow, withAncestors(listing.categoryIds, tree), listing, 1);
+                    }
+                });
+                changedDuringLoad = null;
+                stockDuringLoad = null;
+
+                boolean changed = !loaded || tree != subtreeBasis
+                        || !sameCounts(direct, counted) || !sameCounts(subtree, countedBelow);
+                products = read;
+                direct = counted;
+                subtree = countedBelow;
+                subtreeBasis = tree;
+                loaded = true;
+                if (changed) {
+                    version++;
+                }
+            }
+            log.debug("Loaded category product counts for {} products", read.size());
+        }
+    }
+
+    // Before the first load starts nothing is tracked; the load itself reads every committed write
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (loaded || changedDuringLoad != null) {
+            set(event.getProductId(), new Listing(event.getCategoryIds(), "ACTIVE".equals(event.getStatus()),
+                    inStock(event.getQuantity()), event.getUpdatedDate()));
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.getProductId());
+            }
+        }
+    }
+
+    // Listeners can run out of commit order; a change older than the product's last write is dropped
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        Listing listing = products.get(event.getProductId());
+        if (listing != null && listing.isOlderThan(event.getUpdatedDate())) {
+            // Only stock crossing zero moves a count; set() skips the rest
+            set(event.getProductId(), listing.withStock(event));
+        }
+        if (stockDuringLoad != null) {
+            stockDuringLoad.merge(event.getProductId(), event, (seen, latest) ->
+                    seen.getUpdatedDate() != null && latest.getUpdatedDate() != null
+                            && !latest.getUpdatedDate().isAfter(seen.getUpdatedDate()) ? seen : latest);
+        }
+    }
+
+    private Map<Long, Listing> readListings() {
+        Map<Long, Set<Long>> categoryIds = new HashMap<>();
+        for (Object[] link : productRepository.findAllCategoryLinks()) {
+            categoryIds.computeIfAbsent((Long) link[0], id -> new HashSet<>()).add((Long) link[1]);
+        }
+
+        Map<Long, Listing> read = new HashMap<>();
+        for (Object[] row : productRepository.findAllListingStates()) {
+            Set<Long> categories = categoryIds.get((Long) row[0]);
+            if (categories != null) {
+                read.put((Long) row[0], new Listing(categories, "ACTIVE".equals(row[1]), inStock((Integer) row[2]),
+                        (LocalDateTime) row[3]));
+            }
+        }
+        return read;
+    }
+
+    private void set(Long productId, Listing listing) {
+        refreshSubtree();
+        Listing previous = listing.categoryIds.isEmpty() ? products.remove(productId) : products.put(productId, listing);
+        if (previous != null ? previous.countsLike(listing) : listing.categoryIds.isEmpty()) {
+            return;
+        }
+        if (previous != null) {
+            count(direct, previous.categoryIds, previous, -1);
+            count(subtree, withAncestors(previous.categoryIds, subtreeBasis), previous, -1);
+        }
+        if (!listing.categoryIds.isEmpty()) {
+            count(direct, listing.categoryIds, listing, 1);
+            count(subtree, withAncestors(listing.categoryIds, subtreeBasis), listing, 1);
+        }
+        version++;
+    }
+
+    // A moved, added or deleted category changes which subtrees a product is in
+    private void refreshSubtree() {
+        CategoryTree tree = categoryTreeIndex.current();
+        if (tree == subtreeBasis) {
+            return;
+        }
+        subtree.clear();
+        products.values().forEach(listing -> count(subtree, withAncestors(listing.categoryIds, tree), listing, 1));
+        subtreeBasis = tree;
+    }
+
+    private static void count(Map<Long, int[]> counts, Iterable<Long> categoryIds, Listing listing, int sign) {
+        for (Long categoryId : categoryIds) {
+            int[] category = counts.computeIfAbsent(categoryId, id -> new int[3]);
+            category[LINKED] += sign;
+            if (listing.active) {
+                category[ACTIVE] += sign;
+                if (listing.inStock) {
+                    category[IN_STOCK] += sign;
+                }
+            }
+        }
+    }
+
+    // Categories whose counts dropped back to zero still have an entry in one map but maybe not the other
+    private static boolean sameCounts(Map<Long, int[]> counts, Map<Long, int[]> others) {
+        return covers(counts, others) && covers(others, counts);
+    }
+
+    private static boolean covers(Map<Long, int[]> counts, Map<Long, int[]> others) {
+        for (Map.Entry<Long, int[]> category : counts.entrySet()) {
+            if (!Arrays.equals(category.getValue(), others.getOrDefault(category.getKey(), NONE))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The product's categories and all of their ancestors, each once
+    private static List<Long> withAncestors(Set<Long> categoryIds, CategoryTree tree) {
+        if (categoryIds.size() == 1) {
+            return tree.path(categoryIds.iterator().next()).stream().map(CategoryTree.Node::getCategoryId).toList();
+        }
+        Set<Long> closure = new HashSet<>();
+        for (Long categoryId : categoryIds) {
+            tree.path(categoryId).forEach(node -> closure.add(node.getCategoryId()));
+        }
+        return new ArrayList<>(closure);
+    }
+
+    private static boolean inStock(Integer quantity) {
+        return quantity != null && quantity > 0;
+    }
+}
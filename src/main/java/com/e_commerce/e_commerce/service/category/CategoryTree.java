@@ -0,0 +1,240 @@
+package com.e_commerce.e_commerce.service.category;
+
+import com.e_commerce.e_commerce.model.Category;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+/**
+ * Immutable snapshot of all categories. Nodes are stored in pre-order (siblings by id),
+ * so every subtree is one contiguous slice: a node at position i owns positions
+ * [i, end[i]), which makes "is X under Y" a range check and a subtree a sub-list.
+ * Parents are kept as positions too, so a path to the root is a walk over an int array.
+ */
+public final class CategoryTree {
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Node {
+        private final Long categoryId;
+        private final String name;
+        private final String description;
+        private final Long parentId;
+        private final LocalDateTime createdDate;
+    }
+
+    private final Node[] nodes;
+    private final int[] parent;
+    private final int[] end;
+    private final Map<Long, Integer> positions;
+    private final Map<String, Integer> byName;
+    private final List<Node> byId;
+
+    private CategoryTree(Node[] nodes, int[] parent, int[] end) {
+        this.nodes = nodes;
+        this.parent = parent;
+        this.end = end;
+        this.positions = new HashMap<>(nodes.length * 2);
+        this.byName = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            positions.put(nodes[i].getCategoryId(), i);
+            byName.put(nodes[i].getName(), i);
+        }
+        this.byId = Arrays.stream(nodes)
+                .sorted(Comparator.comparing(Node::getCategoryId))
+                .toList();
+    }
+
+    public static CategoryTree of(List<Category> categories) {
+        List<Category> sorted = new ArrayList<>(categories);
+        sorted.sort(Comparator.comparing(Category::getCategoryId));
+
+        Map<Long, Category> byId = new HashMap<>(sorted.size() * 2);
+        sorted.forEach(category -> byId.put(category.getCategoryId(), category));
+        Map<Long, List<Category>> children = new HashMap<>();
+        List<Category> roots = new ArrayList<>();
+        for (Category category : sorted) {
+            // A parent that no longer exists makes the category a root
+            if (category.getParentId() == null || !byId.containsKey(category.getParentId())) {
+                roots.add(category);
+            } else {
+                children.computeIfAbsent(category.getParentId(), id -> new ArrayList<>()).add(category);
+            }
+        }
+
+        Node[] nodes = new Node[sorted.size()];
+        int[] parent = new int[sorted.size()];
+        Map<Long, Integer> placed = new HashMap<>(sorted.size() * 2);
+        int next = 0;
+        // Roots first, then anything left over, which can only be caught in a parent cycle
+        List<Category> starts = new ArrayList<>(roots);
+        starts.addAll(sorted);
+        for (Category start : starts) {
+            if (placed.containsKey(start.getCategoryId())) {
+                continue;
+            }
+            // Iterative pre-order walk, so a deep tree cannot overflow the stack; entries are {category, parent position}
+            Deque<Object[]> stack = new ArrayDeque<>();
+            stack.push(new Object[]{start, -1});
+            while (!stack.isEmpty()) {
+                Object[] entry = stack.pop();
+                Category category = (Category) entry[0];
+                if (placed.containsKey(category.getCategoryId())) {
+                    continue;
+                }
+                int position = next++;
+                placed.put(category.getCategoryId(), position);
+                nodes[position] = new Node(category.getCategoryId(), category.getName(), category.getDescription(),
+                        category.getParentId(), category.getCreatedDate());
+                parent[position] = (Integer) entry[1];
+
+                List<Category> below = children.getOrDefault(category.getCategoryId(), List.of());
+                for (int i = below.size() - 1; i >= 0; i--) {
+                    stack.push(new Object[]{below.get(i), position});
+                }
+            }
+        }
+
+        // Subtree sizes, children before parents
+        int[] size = new int[nodes.length];
+        int[] end = new int[nodes.length];
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            size[i]++;
+            end[i] = i + size[i];
+            if (parent[i] >= 0) {
+                size[parent[i]] += size[i];
+            }
+        }
+        return new CategoryTree(nodes, parent, end);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public Optional<Node> find(Long categoryId) {
+        Integer position = positions.get(categoryId);
+        return position != null ? Optional.of(nodes[position]) : Optional.empty();
+    }
+
+    public Optional<Node> findByName(String name) {
+        Integer position = byName.get(name);
+        return position != null ? Optional.of(nodes[position]) : Optional.empty();
+    }
+
+    public boolean contains(Long categoryId) {
+        return positions.containsKey(categoryId);
+    }
+
+    /**
+     * All categories by id.
+     */
+    public List<Node> all() {
+        return byId;
+    }
+
+    public List<Node> roots() {
+        List<Node> roots = new ArrayList<>();
+        for (int i = 0; i < nodes.length; i = end[i]) {
+            roots.add(nodes[i]);
+        }
+        return roots;
+    }
+
+    public List<Node> children(Long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return List.of();
+        }
+        List<Node> children = new ArrayList<>();
+        for (int i = position + 1; i < end[position]; i = end[i]) {
+            children.add(nodes[i]);
+        }
+        return children;
+    }
+
+    /**
+     * Maps the whole tree bottom-up and returns the mapped roots. Each node is mapped with
+     * its children's results in order; positions are visited from last to first, so every
+     * child is mapped before its parent without recursion.
+     */
+    public <T> List<T> mapFromLeaves(BiFunction<Node, List<T>, T> mapper) {
+        List<T> mapped = new ArrayList<>(Collections.nCopies(nodes.length, null));
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            List<T> children = new ArrayList<>();
+            for (int child = i + 1; child < end[i]; child = end[child]) {
+                children.add(mapped.get(child));
+            }
+            mapped.set(i, mapper.apply(nodes[i], children));
+        }
+        List<T> roots = new ArrayList<>();
+        for (int i = 0; i < nodes.length; i = end[i]) {
+            roots.add(mapped.get(i));
+        }
+        return roots;
+    }
+
+    public boolean hasChildren(Long categoryId) {
+        Integer position = positions.get(categoryId);
+        return position != null && end[position] > position + 1;
+    }
+
+    /**
+     * The category followed by all of its descendants, depth first.
+     */
+    public List<Node> subtree(Long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return List.of();
+        }
+        return Collections.unmodifiableList(Arrays.asList(nodes).subList(position, end[position]));
+    }
+
+    public List<Long> subtreeIds(Long categoryId) {
+        return subtree(categoryId).stream().map(Node::getCategoryId).toList();
+    }
+
+    /**
+     * From the root down to the category itself.
+     */
+    public List<Node> path(Long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return List.of();
+        }
+        List<Node> path = new ArrayList<>();
+        for (int i = position; i >= 0; i = parent[i]) {
+            path.add(nodes[i]);
+        }
+        return path.reversed();
+    }
+
+    /**
+     * Whether the category is the given ancestor or anywhere below it.
+     */
+    public boolean isInSubtree(Long ancestorId, Long categoryId) {
+        Integer ancestor = positions.get(ancestorId);
+        Integer position = positions.get(categoryId);
+        return ancestor != null && position != null && position >= ancestor && position < end[ancestor];
+    }
+
+    public List<Node> search(String term) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        return byId.stream()
+                .filter(node -> node.getName().toLowerCase(Locale.ROOT).contains(needle))
+                .toList();
+    }
+}
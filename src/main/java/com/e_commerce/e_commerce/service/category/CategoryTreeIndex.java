@@ -0,0 +1,42 @@
+package com.e_commerce.e_commerce.service.category;
+
+import com.e_commerce.e_commerce.event.CategoryChangedEvent;
+import com.e_commerce.e_commerce.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Holds the current {@link CategoryTree}. The snapshot is loaded with one query on first
+ * use and dropped after every committed category write; the next reader loads a new one.
+ * Loading and dropping share a lock, so a snapshot read before a write committed can
+ * never be kept once that write's event has run.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeIndex {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree;
+
+    public CategoryTree current() {
+        CategoryTree current = tree;
+        return current != null ? current : load();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        tree = null;
+    }
+
+    private synchronized CategoryTree load() {
+        if (tree == null) {
+            tree = CategoryTree.of(categoryRepository.findAll());
+            log.debug("Loaded category tree with {} categories", tree.size());
+        }
+        return tree;
+    }
+}
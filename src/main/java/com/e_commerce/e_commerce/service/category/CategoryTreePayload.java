@@ -0,0 +1,52 @@
+package com.e_commerce.e_commerce.service.category;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The navigation tree rendered once: JSON bytes, the same bytes gzipped, and an ETag
+ * derived from the content, so unchanged data keeps its ETag across restarts and
+ * instances. The ETag is weak because the plain and gzipped bodies share it.
+ */
+@Getter
+public final class CategoryTreePayload {
+
+    private final byte[] json;
+    private final byte[] gzipped;
+    private final String etag;
+
+    private CategoryTreePayload(byte[] json, byte[] gzipped, String etag) {
+        this.json = json;
+        this.gzipped = gzipped;
+        this.etag = etag;
+    }
+
+    public static CategoryTreePayload render(ObjectMapper objectMapper, Object content) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(content);
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16);
+            return new CategoryTreePayload(json, gzip(json), "W/\"" + hash + "\"");
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not render category tree", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,59 @@
+package com.e_commerce.e_commerce.service.category;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps the last rendered {@link CategoryTreePayload} together with what it was rendered
+ * from: the category tree snapshot and the product counter version. Any category write
+ * replaces the snapshot and any counted product change bumps the version, so the payload
+ * is rendered again on the first request after a change and served as is otherwise.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryTreePayloadCache {
+
+    private final ObjectMapper objectMapper;
+    private final CategoryTreeIndex categoryTreeIndex;
+    private final CategoryProductCounters categoryProductCounters;
+
+    private volatile Rendered rendered;
+
+    private static final class Rendered {
+        private final CategoryTree tree;
+        private final long countsVersion;
+        private final CategoryTreePayload payload;
+
+        private Rendered(CategoryTree tree, long countsVersion, CategoryTreePayload payload) {
+            this.tree = tree;
+            this.countsVersion = countsVersion;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * The current payload, rendering the given content (read from the current snapshot and
+     * counters) when either has changed since the last rendering.
+     */
+    public CategoryTreePayload get(Supplier<Object> content) {
+        // Read before rendering: the content is then at least as new as what it is tagged with
+        CategoryTree tree = categoryTreeIndex.current();
+        long countsVersion = categoryProductCounters.getVersion();
+        Rendered current = rendered;
+        if (current != null && current.tree == tree && current.countsVersion == countsVersion) {
+            return current.payload;
+        }
+        synchronized (this) {
+            current = rendered;
+            if (current != null && current.tree == tree && current.countsVersion == countsVersion) {
+                return current.payload;
+            }
+            CategoryTreePayload payload = CategoryTreePayload.render(objectMapper, content.get());
+            rendered = new Rendered(tree, countsVersion, payload);
+            return payload;
+        }
+    }
+}
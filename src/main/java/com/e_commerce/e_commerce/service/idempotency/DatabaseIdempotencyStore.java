@@ -0,0 +1,95 @@
+package com.e_commerce.e_commerce.service.idempotency;
+
+import com.e_commerce.e_commerce.model.IdempotencyRecord;
+import com.e_commerce.e_commerce.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Store shared by every instance through the IDEMPOTENCY_KEYS table. A claim is the
+ * insert of a row without a response; the primary key makes exactly one instance win.
+ * The request's own transaction locks that row while it runs and writes the response
+ * into it. A claim only runs out (after app.idempotency.wait-timeout) once nobody holds
+ * that lock any more, i.e. when its instance crashed and its transaction never committed.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "database")
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+@Slf4j
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository recordRepository,
+                                    @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${app.idempotency.wait-timeout:30s}") Duration claimTimeout) {
+        this.recordRepository = recordRepository;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public Optional<StoredResponse> find(String key) {
+        return recordRepository.findById(key)
+                .filter(record -> record.getResponseBody() != null)
+                .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(record -> new StoredResponse(record.getRequestHash(), record.getResponseBody()));
+    }
+
+    @Override
+    public boolean claim(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> unlocked = recordRepository.findUnlockedByIdForUpdate(key);
+        if (unlocked.isPresent() ? unlocked.get().getExpiresAt().isAfter(now) : recordRepository.existsById(key)) {
+            // A response, a fresh claim, or a claim whose request is still running
+            return false;
+        }
+        unlocked.ifPresent(expired -> recordRepository.deleteIfExpired(key, now));
+        try {
+            recordRepository.insertClaim(key, requestHash, LocalDateTime.now().plus(claimTimeout));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    // Joins the request's transaction, so the lock lasts exactly as long as the request runs
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void hold(String key) {
+        recordRepository.findByIdForUpdate(key);
+    }
+
+    // Joins the request's transaction: the response row commits with the order or not at all
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(String key, String requestHash, String responseBody) {
+        recordRepository.save(new IdempotencyRecord(key, requestHash, responseBody, LocalDateTime.now().plus(ttl)));
+    }
+
+    @Override
+    public void release(String key) {
+        recordRepository.deleteClaim(key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int purged = recordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
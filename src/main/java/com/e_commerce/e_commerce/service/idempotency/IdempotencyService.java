@@ -0,0 +1,199 @@
+package com.e_commerce.e_commerce.service.idempotency;
+
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.exception.ConflictException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays the stored response
+ * for repeats. The response is stored in the same transaction as the request's own
+ * writes, so either both commit or neither does. Duplicates arriving while the first
+ * request is still running wait for it: on this instance through an in-flight future,
+ * across instances by polling the store until the claim holder completes or gives up.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration waitTimeout;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyStore store,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Scope part for a caller known only by email (a guest): a short digest of the
+     * normalized address, so two guests never share keys and no address is stored.
+     */
+    public static String guestId(String email) {
+        return sha256(email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)).substring(0, 32);
+    }
+
+    /**
+     * Runs the action, or replays what it returned the first time this key was used
+     * within the scope. Reusing a key for a different request is a conflict.
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String storeKey = scope + ":" + key;
+        String requestHash = fingerprint(request);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            Optional<T> replay = replay(storeKey, requestHash, responseType);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(storeKey, mine);
+            if (running != null) {
+                await(running, deadline);
+                continue;
+            }
+
+            try {
+                // The previous holder may have completed between our lookup and registering
+                replay = replay(storeKey, requestHash, responseType);
+                if (replay.isPresent()) {
+                    return replay.get();
+                }
+                if (!store.claim(storeKey, requestHash)) {
+                    // Another instance is running it
+                    pause(deadline);
+                    continue;
+                }
+                return runClaimed(storeKey, requestHash, action);
+            } finally {
+                inFlight.remove(storeKey, mine);
+                mine.complete(null);
+            }
+        }
+    }
+
+    // Until the transaction has committed the claim is still ours to drop; after that the response is stored
+    private <T> T runClaimed(String storeKey, String requestHash, Supplier<T> action) {
+        try {
+            return transactionTemplate.execute(status -> {
+                store.hold(storeKey);
+                T response = action.get();
+                try {
+                    store.complete(storeKey, requestHash, objectMapper.writeValueAsString(response));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Could not store response for idempotency key " + storeKey, e);
+                }
+                return response;
+            });
+        } catch (RuntimeException e) {
+            store.release(storeKey);
+            throw e;
+        }
+    }
+
+    private <T> Optional<T> replay(String storeKey, String requestHash, Class<T> responseType) {
+        Optional<StoredResponse> stored = store.find(storeKey);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!stored.get().getRequestHash().equals(requestHash)) {
+            throw new ConflictException(HEADER + " was already used for a different request");
+        }
+        try {
+            return Optional.of(objectMapper.readValue(stored.get().getResponseBody(), responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored response for idempotency key " + storeKey, e);
+        }
+    }
+
+    private void await(CompletableFuture<Void> running, long deadline) {
+        try {
+            running.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw stillRunning();
+        } catch (ExecutionException e) {
+            // Completed either way; the store tells us how it went
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillRunning();
+        }
+    }
+
+    private void pause(long deadline) {
+        remaining(deadline);
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillRunning();
+        }
+    }
+
+    private long remaining(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw stillRunning();
+        }
+        return remaining;
+    }
+
+    private ConflictException stillRunning() {
+        return new ConflictException("A request with this " + HEADER + " is still being processed");
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return sha256(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
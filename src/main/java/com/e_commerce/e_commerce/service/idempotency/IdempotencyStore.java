@@ -0,0 +1,38 @@
+package com.e_commerce.e_commerce.service.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Where completed responses for idempotency keys are kept, and how a key is claimed
+ * by the one request allowed to execute it.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * The completed response for the key, if any and not yet expired.
+     */
+    Optional<StoredResponse> find(String key);
+
+    /**
+     * Marks the key as being executed; false when someone else already holds it.
+     */
+    boolean claim(String key, String requestHash);
+
+    /**
+     * Keeps a claim held for as long as the request's own transaction runs, however long
+     * that is. Called inside that transaction, before the request does anything else.
+     */
+    void hold(String key);
+
+    /**
+     * Stores the response. Called inside the request's own transaction, so the response
+     * only becomes visible if the request's writes commit.
+     */
+    void complete(String key, String requestHash, String responseBody);
+
+    /**
+     * Drops a claim whose request failed, so a retry can execute again. A key that
+     * already has a committed response is left alone.
+     */
+    void release(String key);
+}
@@ -0,0 +1,65 @@
+package com.e_commerce.e_commerce.service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded, expiring per-instance store. Claims always succeed here: requests racing
+ * on one instance are already serialized by {@link IdempotencyService}. Responses are
+ * kept once the request's transaction has committed.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, StoredResponse> responses;
+
+    public InMemoryIdempotencyStore(@Value("${app.idempotency.max-keys:100000}") long maxKeys,
+                                    @Value("${app.idempotency.ttl:24h}") Duration ttl) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    @Override
+    public boolean claim(String key, String requestHash) {
+        return true;
+    }
+
+    @Override
+    public void hold(String key) {
+    }
+
+    @Override
+    public void complete(String key, String requestHash, String responseBody) {
+        StoredResponse response = new StoredResponse(requestHash, responseBody);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            responses.put(key, response);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                responses.put(key, response);
+            }
+        });
+    }
+
+    @Override
+    public void release(String key) {
+    }
+}
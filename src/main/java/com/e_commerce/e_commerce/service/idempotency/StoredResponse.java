@@ -0,0 +1,11 @@
+package com.e_commerce.e_commerce.service.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredResponse {
+    private final String requestHash;
+    private final String responseBody;
+}
@@ -0,0 +1,397 @@
+package com.e_commerce.e_commerce.service.intake;
+
+import com.e_commerce.e_commerce.dto.request.GuestOrderRequest;
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.dto.request.UserOrderRequest;
+import com.e_commerce.e_commerce.dto.response.OrderIntakeResponse;
+import com.e_commerce.e_commerce.enums.IntakeStatus;
+import com.e_commerce.e_commerce.enums.PaymentMethod;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
+import com.e_commerce.e_commerce.exception.TooManyRequestsException;
+import com.e_commerce.e_commerce.model.OrderIntakeRecord;
+import com.e_commerce.e_commerce.repository.OrderIntakeRecordRepository;
+import com.e_commerce.e_commerce.repository.OrderRepository;
+import com.e_commerce.e_commerce.service.OrderNumberGenerator;
+import com.e_commerce.e_commerce.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous order intake for bursts. Orders are validated, given their order number,
+ * written to the intake table and put on a bounded queue; a full queue is answered with
+ * 429 instead of tying up request threads. A dispatcher drains the queue into
+ * micro-batches that are placed on virtual threads, each batch in one transaction, with
+ * at most app.orders.intake.workers batches (and so database connections) in flight. A
+ * batch waits for every earlier batch that shares a product with it, so orders for the
+ * same product are placed in arrival order. Clients poll the order number for its status.
+ * <p>
+ * The intake row is deleted in the transaction that places the order, so an accepted order
+ * is never lost with the instance holding it in memory: a row still queued once its claim is
+ * app.orders.intake.recover-after old is taken over by whichever instance claims it first,
+ * up to {@value #MAX_ATTEMPTS} times. An order number is unique in the orders table, so an
+ * order placed twice that way fails the second time instead of being duplicated.
+ */
+@Service
+@Slf4j
+public class OrderIntakeService {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+    private static final long STATUS_CACHE_SIZE = 100_000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int RECOVER_BATCH = 500;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderIntakeRecordRepository intakeRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration statusTtl;
+    private final Duration recoverAfter;
+    private final Semaphore workers;
+
+    private final BlockingQueue<QueuedOrder> queue;
+    private final Cache<String, QueuedOrder> statuses;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Last batch to touch each product; only the dispatcher reads and writes it
+    private final Map<Long, CompletableFuture<Void>> lastBatchByProduct = new HashMap<>();
+
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+    private Thread dispatcher;
+
+    public OrderIntakeService(OrderService orderService,
+                              OrderRepository orderRepository,
+                              OrderNumberGenerator orderNumberGenerator,
+                              OrderIntakeRecordRepository intakeRepository,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.orders.intake.queue-capacity:10000}") int queueCapacity,
+                              @Value("${app.orders.intake.batch-size:32}") int batchSize,
+                              @Value("${app.orders.intake.workers:4}") int workers,
+                              @Value("${app.orders.intake.status-ttl:1h}") Duration statusTtl,
+                              @Value("${app.orders.intake.recover-after:5m}") Duration recoverAfter) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.intakeRepository = intakeRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.statusTtl = statusTtl;
+        this.recoverAfter = recoverAfter;
+        this.workers = new Semaphore(workers);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(STATUS_CACHE_SIZE)
+                .expireAfterWrite(statusTtl)
+                .build();
+    }
+
+    public OrderIntakeResponse submitGuestOrder(GuestOrderRequest request) {
+        validate(request.getItems(), request.getPaymentMethod());
+        return enqueue(QueuedOrder.guest(orderNumberGenerator.next(), request), request);
+    }
+
+    public OrderIntakeResponse submitUserOrder(Long userId, UserOrderRequest request) {
+        validate(request.getItems(), request.getPaymentMethod());
+        return enqueue(QueuedOrder.user(orderNumberGenerator.next(), userId, request), request);
+    }
+
+    /**
+     * Status of an order, from this instance's memory when it took the order in, otherwise
+     * from the orders table (completed) or the intake table (queued elsewhere, or failed).
+     * A user only sees their own orders; a guest (null userId) only guest orders.
+     */
+    public OrderIntakeResponse getStatus(String orderNumber, Long userId) {
+        QueuedOrder queued = statuses.getIfPresent(orderNumber);
+        if (queued != null) {
+            if (!Objects.equals(queued.getUserId(), userId)) {
+                throw new ResourceNotFoundException("Order not found: " + orderNumber);
+            }
+            return toResponse(queued);
+        }
+
+        return orderRepository.findByOrderNumber(orderNumber)
+                .filter(order -> Objects.equals(order.getUser() != null ? order.getUser().getUserId() : null, userId))
+                .map(order -> new OrderIntakeResponse(order.getOrderNumber(), IntakeStatus.COMPLETED, null))
+                .or(() -> intakeRepository.findById(orderNumber)
+                        .filter(record -> Objects.equals(record.getUserId(), userId))
+                        .map(record -> new OrderIntakeResponse(orderNumber, record.getStatus(), record.getMessage())))
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderNumber));
+    }
+
+    public int queuedOrders() {
+        return queue.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        dispatcher = Thread.ofVirtual().name("order-intake-dispatcher").start(this::dispatch);
+    }
+
+    /**
+     * Takes over orders whose intake row has been queued for longer than recover-after,
+     * meaning the instance that accepted them is gone or failed to place them, and drops
+     * failed rows once their status has expired.
+     */
+    @Scheduled(initialDelayString = "${app.orders.intake.recover-interval-ms:60000}",
+            fixedDelayString = "${app.orders.intake.recover-interval-ms:60000}")
+    public void recoverStaleOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status ->
+                intakeRepository.deleteClaimedBefore(IntakeStatus.FAILED, now.minus(statusTtl)));
+
+        List<OrderIntakeRecord> stale = intakeRepository.findClaimedBefore(IntakeStatus.QUEUED,
+                now.minus(recoverAfter), PageRequest.of(0, RECOVER_BATCH));
+        int recovered = 0;
+        for (OrderIntakeRecord record : stale) {
+            if (!accepting || queue.remainingCapacity() == 0) {
+                break;
+            }
+            Integer claimed = transactionTemplate.execute(status ->
+                    intakeRepository.claim(record.getOrderNumber(), record.getAttempts(), now));
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+            // The row of an order placed before the accepting request committed is left behind
+            if (orderRepository.existsByOrderNumber(record.getOrderNumber())) {
+                forget(List.of(record.getOrderNumber()));
+                continue;
+            }
+            if (record.getAttempts() >= MAX_ATTEMPTS) {
+                log.error("Giving up on queued order {} after {} attempts", record.getOrderNumber(), record.getAttempts());
+                persistFailure(record.getOrderNumber(), "Order could not be placed");
+                continue;
+            }
+            QueuedOrder order = fromRecord(record);
+            statuses.put(order.getOrderNumber(), order);
+            // A full queue leaves the row claimed; it comes round again after recover-after
+            if (queue.offer(order)) {
+                recovered++;
+            }
+        }
+        if (recovered > 0) {
+            log.info("Recovered {} queued order(s) from the intake table", recovered);
+        }
+    }
+
+    // Runs first on shutdown, while the database is still there to place what is left
+    @EventListener(ContextClosedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void drainOnShutdown() throws InterruptedException {
+        accepting = false;
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.join();
+        }
+        // Batches still waiting on an earlier one have not reached the executor yet; every
+        // dispatched batch is either the last for one of its products or awaited by one that is
+        try {
+            CompletableFuture.allOf(lastBatchByProduct.values().toArray(CompletableFuture[]::new))
+                    .get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Gave up waiting for queued order batches: {}", e.toString());
+        }
+        executor.shutdown();
+
+        List<QueuedOrder> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            process(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        log.info("Order intake stopped");
+    }
+
+    private void validate(List<OrderItemRequest> items, String paymentMethod) {
+        for (OrderItemRequest item : items) {
+            if (item.getProductId() == null) {
+                throw new BadRequestException("Product ID is required for every order item");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new BadRequestException("Quantity must be greater than 0 for product ID: " + item.getProductId());
+            }
+        }
+        try {
+            PaymentMethod.valueOf(paymentMethod);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown payment method: " + paymentMethod);
+        }
+    }
+
+    // Joins the request's transaction when there is one, so the row commits with the idempotency record
+    private OrderIntakeResponse enqueue(QueuedOrder order, Object request) {
+        if (!accepting || queue.remainingCapacity() == 0) {
+            throw queueFull();
+        }
+        String requestBody = toJson(request);
+        transactionTemplate.executeWithoutResult(status -> intakeRepository.insertQueued(order.getOrderNumber(),
+                order.getUserId(), requestBody, IntakeStatus.QUEUED, LocalDateTime.now()));
+
+        statuses.put(order.getOrderNumber(), order);
+        if (!queue.offer(order)) {
+            statuses.invalidate(order.getOrderNumber());
+            transactionTemplate.executeWithoutResult(status ->
+                    intakeRepository.deleteByOrderNumbers(List.of(order.getOrderNumber())));
+            throw queueFull();
+        }
+        return toResponse(order);
+    }
+
+    private TooManyRequestsException queueFull() {
+        return new TooManyRequestsException("Too many orders are waiting to be placed, please retry shortly",
+                RETRY_AFTER_SECONDS);
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                QueuedOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<QueuedOrder> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                workers.acquire();
+                List<CompletableFuture<Void>> earlier = new ArrayList<>();
+                batch.forEach(order -> order.getProductIds().forEach(productId -> {
+                    CompletableFuture<Void> previous = lastBatchByProduct.get(productId);
+                    if (previous != null) {
+                        earlier.add(previous);
+                    }
+                }));
+
+                CompletableFuture<Void> done = CompletableFuture.allOf(earlier.toArray(CompletableFuture[]::new))
+                        .thenRunAsync(() -> {
+                            try {
+                                process(batch);
+                            } finally {
+                                workers.release();
+                            }
+                        }, executor);
+
+                lastBatchByProduct.values().removeIf(CompletableFuture::isDone);
+                batch.forEach(order -> order.getProductIds().forEach(productId -> lastBatchByProduct.put(productId, done)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void process(List<QueuedOrder> batch) {
+        batch.forEach(order -> order.setStatus(IntakeStatus.PROCESSING));
+        try {
+            // The placed orders' rows go in the same transaction as the orders, the failed ones are kept as failed
+            Map<String, RuntimeException> failures = transactionTemplate.execute(status -> {
+                Map<String, RuntimeException> failed = orderService.placeQueuedOrders(batch);
+                List<String> placed = batch.stream()
+                        .map(QueuedOrder::getOrderNumber)
+                        .filter(orderNumber -> !failed.containsKey(orderNumber))
+                        .toList();
+                if (!placed.isEmpty()) {
+                    intakeRepository.deleteByOrderNumbers(placed);
+                }
+                LocalDateTime now = LocalDateTime.now();
+                failed.forEach((orderNumber, failure) ->
+                        intakeRepository.markFailed(orderNumber, truncate(failure.getMessage()), now));
+                return failed;
+            });
+            for (QueuedOrder order : batch) {
+                RuntimeException failure = failures.get(order.getOrderNumber());
+                if (failure != null) {
+                    fail(order, failure.getMessage());
+                } else {
+                    order.setStatus(IntakeStatus.COMPLETED);
+                }
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                QueuedOrder order = batch.get(0);
+                // The row stays queued and is retried by recovery; the status poll reads it from the table
+                log.error("Could not place queued order {}, leaving it for recovery", order.getOrderNumber(), e);
+                statuses.invalidate(order.getOrderNumber());
+                return;
+            }
+            log.warn("Batch of {} queued orders failed, placing them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(order -> process(List.of(order)));
+        }
+    }
+
+    private void fail(QueuedOrder order, String message) {
+        order.setMessage(message);
+        order.setStatus(IntakeStatus.FAILED);
+    }
+
+    private void persistFailure(String orderNumber, String message) {
+        transactionTemplate.executeWithoutResult(status ->
+                intakeRepository.markFailed(orderNumber, message, LocalDateTime.now()));
+    }
+
+    private void forget(List<String> orderNumbers) {
+        transactionTemplate.executeWithoutResult(status -> intakeRepository.deleteByOrderNumbers(orderNumbers));
+    }
+
+    private String toJson(Object request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order request", e);
+        }
+    }
+
+    private QueuedOrder fromRecord(OrderIntakeRecord record) {
+        try {
+            return record.getUserId() == null
+                    ? QueuedOrder.guest(record.getOrderNumber(),
+                            objectMapper.readValue(record.getRequestBody(), GuestOrderRequest.class))
+                    : QueuedOrder.user(record.getOrderNumber(), record.getUserId(),
+                            objectMapper.readValue(record.getRequestBody(), UserOrderRequest.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read queued order " + record.getOrderNumber(), e);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    private OrderIntakeResponse toResponse(QueuedOrder order) {
+        return new OrderIntakeResponse(order.getOrderNumber(), order.getStatus(), order.getMessage());
+    }
+}
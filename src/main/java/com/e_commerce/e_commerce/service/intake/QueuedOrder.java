@@ -0,0 +1,53 @@
+package com.e_commerce.e_commerce.service.intake;
+
+import com.e_commerce.e_commerce.dto.request.GuestOrderRequest;
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.dto.request.UserOrderRequest;
+import com.e_commerce.e_commerce.enums.IntakeStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An order accepted by {@link OrderIntakeService}: its number is fixed at intake, the
+ * order itself is placed later. Exactly one of the guest and user requests is set.
+ */
+@Getter
+public class QueuedOrder {
+
+    private final String orderNumber;
+    private final Long userId;
+    private final GuestOrderRequest guestRequest;
+    private final UserOrderRequest userRequest;
+    private final Set<Long> productIds;
+
+    @Setter
+    private volatile IntakeStatus status = IntakeStatus.QUEUED;
+    @Setter
+    private volatile String message;
+
+    private QueuedOrder(String orderNumber, Long userId, GuestOrderRequest guestRequest,
+                        UserOrderRequest userRequest, List<OrderItemRequest> items) {
+        this.orderNumber = orderNumber;
+        this.userId = userId;
+        this.guestRequest = guestRequest;
+        this.userRequest = userRequest;
+        this.productIds = new TreeSet<>();
+        items.forEach(item -> productIds.add(item.getProductId()));
+    }
+
+    public static QueuedOrder guest(String orderNumber, GuestOrderRequest request) {
+        return new QueuedOrder(orderNumber, null, request, null, request.getItems());
+    }
+
+    public static QueuedOrder user(String orderNumber, Long userId, UserOrderRequest request) {
+        return new QueuedOrder(orderNumber, userId, null, request, request.getItems());
+    }
+
+    public boolean isGuest() {
+        return userId == null;
+    }
+}
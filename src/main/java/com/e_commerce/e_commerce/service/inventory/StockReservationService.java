@@ -0,0 +1,291 @@
+package com.e_commerce.e_commerce.service.inventory;
+
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.dto.request.ReservationRequest;
+import com.e_commerce.e_commerce.dto.response.ReservationItemResponse;
+import com.e_commerce.e_commerce.dto.response.ReservationResponse;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
+import com.e_commerce.e_commerce.model.Product;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.service.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Timed stock holds in front of checkout. A hold sets units aside for a checkout session
+ * until an order consumes it or its TTL runs out; expiry is driven by a {@link TimingWheel},
+ * not by scanning. Holds only admit or refuse: an order always takes its stock in its own
+ * transaction through {@link InventoryService}'s conditional updates, which leave the
+ * units of other live holds on the shelf, so the database stays the authority on what is
+ * left. Holds live in this instance's memory; another instance cannot see them, but it
+ * cannot oversell either. Each hold belongs to a signed-in user, who can only have a
+ * few live at once and only so many units of any one product in them.
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final int maxHoldsPerUser;
+    private final int maxUnitsPerProduct;
+
+    // Units in live holds per product, including holds whose order is still being placed
+    private final Map<Long, Integer> held = new ConcurrentHashMap<>();
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    // Live holds and held units per product, per user; a hold counts until its units are released
+    private final Map<Long, Owner> owners = new ConcurrentHashMap<>();
+    private final TimingWheel<Hold> wheel;
+
+    private static final class Hold {
+        private final String id;
+        private final Long userId;
+        private final SortedMap<Long, Integer> quantities;
+        private final long expiresAtMillis;
+        private TimingWheel.Timer<Hold> timer;
+
+        private Hold(String id, Long userId, SortedMap<Long, Integer> quantities, long expiresAtMillis) {
+            this.id = id;
+            this.userId = userId;
+            this.quantities = quantities;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private static final class Owner {
+        private int holds;
+        private final Map<Long, Integer> units = new HashMap<>();
+    }
+
+    public StockReservationService(ProductRepository productRepository,
+                                   InventoryService inventoryService,
+                                   @Value("${app.inventory.hold.default-ttl:10m}") Duration defaultTtl,
+                                   @Value("${app.inventory.hold.max-ttl:30m}") Duration maxTtl,
+                                   @Value("${app.inventory.hold.max-per-user:5}") int maxHoldsPerUser,
+                                   @Value("${app.inventory.hold.max-units-per-product:10}") int maxUnitsPerProduct,
+                                   @Value("${app.inventory.hold.tick-ms:100}") long tickMillis) {
+        this.productRepository = productRepository;
+        this.inventoryService = inventoryService;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.maxHoldsPerUser = maxHoldsPerUser;
+        this.maxUnitsPerProduct = maxUnitsPerProduct;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    public ReservationResponse reserve(Long userId, ReservationRequest request) {
+        SortedMap<Long, Integer> quantities = sumByProduct(request.getItems());
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+        if (ttl.compareTo(maxTtl) > 0) {
+            ttl = maxTtl;
+        }
+
+        Map<Long, Integer> onHand = stockLevels(quantities.keySet());
+        book(userId, quantities);
+        List<Map.Entry<Long, Integer>> applied = new ArrayList<>();
+        for (Map.Entry<Long, Integer> item : quantities.entrySet()) {
+            int[] available = new int[1];
+            held.compute(item.getKey(), (productId, units) -> {
+                int current = units != null ? units : 0;
+                available[0] = onHand.get(productId) - current;
+                return available[0] >= item.getValue() ? current + item.getValue() : units;
+            });
+            if (available[0] < item.getValue()) {
+                unhold(applied);
+                unbook(userId, quantities);
+                throw insufficientStock(item.getKey(), item.getValue(), available[0]);
+            }
+            applied.add(item);
+        }
+
+        Hold hold = new Hold(UUID.randomUUID().toString(), userId, quantities,
+                System.currentTimeMillis() + ttl.toMillis());
+        holds.put(hold.id, hold);
+        synchronized (wheel) {
+            hold.timer = wheel.schedule(hold, hold.expiresAtMillis);
+        }
+        log.info("Stock hold {} placed for {} product(s), expires in {}", hold.id, quantities.size(), ttl);
+
+        return new ReservationResponse(hold.id, LocalDateTime.now().plus(ttl), quantities.entrySet().stream()
+                .map(item -> new ReservationItemResponse(item.getKey(), item.getValue()))
+                .collect(Collectors.toList()));
+    }
+
+    public void release(Long userId, String reservationId) {
+        Hold hold = holds.get(reservationId);
+        if (hold == null || !hold.userId.equals(userId) || !holds.remove(reservationId, hold)) {
+            throw new ResourceNotFoundException("Reservation not found or already expired: " + reservationId);
+        }
+        synchronized (wheel) {
+            wheel.cancel(hold.timer);
+        }
+        unhold(hold);
+        log.info("Stock hold {} released", reservationId);
+    }
+
+    /**
+     * Takes stock for an order in the current transaction with conditional updates that
+     * leave every other live hold's units in place; the given hold (if it is still live
+     * and the user's) is used up by the order. Guests pass no user and take free stock only. If the order runs short, or its transaction rolls back, the
+     * hold comes back until its original expiry. A shortage leaves the transaction usable,
+     * so one order of a batch can fail without taking the others down with it.
+     */
+    public void take(Long userId, String reservationId, Map<Long, Integer> quantities) {
+        Hold live = reservationId != null ? holds.get(reservationId) : null;
+        Hold hold = live != null && live.userId.equals(userId) && holds.remove(reservationId, live) ? live : null;
+        if (hold != null) {
+            synchronized (wheel) {
+                wheel.cancel(hold.timer);
+            }
+        }
+        Map<Long, Integer> own = hold != null ? hold.quantities : Map.of();
+
+        Map<Long, Integer> reserved = new HashMap<>();
+        quantities.keySet().forEach(productId ->
+                reserved.put(productId, held.getOrDefault(productId, 0) - own.getOrDefault(productId, 0)));
+
+        BadRequestException shortage;
+        try {
+            shortage = inventoryService.tryDecrement(quantities, reserved);
+        } catch (RuntimeException e) {
+            if (hold != null) {
+                settle(hold, false);
+            }
+            throw e;
+        }
+        if (shortage != null) {
+            if (hold != null) {
+                settle(hold, false);
+            }
+            throw shortage;
+        }
+
+        if (hold != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    settle(hold, status == STATUS_COMMITTED);
+                }
+            });
+        } else if (hold != null) {
+            settle(hold, true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.hold.tick-ms:100}")
+    public void expireHolds() {
+        synchronized (wheel) {
+            wheel.advanceTo(System.currentTimeMillis(), this::expire);
+        }
+    }
+
+    private void expire(Hold hold) {
+        if (holds.remove(hold.id, hold)) {
+            unhold(hold);
+            log.info("Stock hold {} expired", hold.id);
+        }
+    }
+
+    // A used hold's units are in the order now; a hold whose order failed is live again unless it ran out meanwhile
+    private void settle(Hold hold, boolean used) {
+        if (used || hold.expiresAtMillis <= System.currentTimeMillis()) {
+            unhold(hold);
+            return;
+        }
+        holds.put(hold.id, hold);
+        synchronized (wheel) {
+            hold.timer = wheel.schedule(hold, hold.expiresAtMillis);
+        }
+    }
+
+    // Counts the new hold against the user's limits, or refuses it
+    private void book(Long userId, Map<Long, Integer> quantities) {
+        owners.compute(userId, (id, owner) -> {
+            Owner booked = owner != null ? owner : new Owner();
+            if (booked.holds >= maxHoldsPerUser) {
+                throw new BadRequestException("At most " + maxHoldsPerUser + " stock holds can be live at once");
+            }
+            quantities.forEach((productId, units) -> {
+                if (booked.units.getOrDefault(productId, 0) + units > maxUnitsPerProduct) {
+                    throw new BadRequestException("At most " + maxUnitsPerProduct +
+                            " units of product ID " + productId + " can be held at once");
+                }
+            });
+            booked.holds++;
+            quantities.forEach((productId, units) -> booked.units.merge(productId, units, Integer::sum));
+            return booked;
+        });
+    }
+
+    private void unbook(Long userId, Map<Long, Integer> quantities) {
+        owners.computeIfPresent(userId, (id, owner) -> {
+            owner.holds--;
+            quantities.forEach((productId, units) -> owner.units.computeIfPresent(productId, (product, booked) ->
+                    booked > units ? booked - units : null));
+            return owner.holds > 0 ? owner : null;
+        });
+    }
+
+    private void unhold(Hold hold) {
+        unhold(new ArrayList<>(hold.quantities.entrySet()));
+        unbook(hold.userId, hold.quantities);
+    }
+
+    private void unhold(List<Map.Entry<Long, Integer>> quantities) {
+        for (Map.Entry<Long, Integer> item : quantities) {
+            held.computeIfPresent(item.getKey(), (productId, units) ->
+                    units > item.getValue() ? units - item.getValue() : null);
+        }
+    }
+
+    private Map<Long, Integer> stockLevels(Iterable<Long> productIds) {
+        List<Long> ids = new ArrayList<>();
+        productIds.forEach(ids::add);
+        Map<Long, Integer> levels = new HashMap<>();
+        for (Object[] row : productRepository.findStockLevels(ids)) {
+            levels.put((Long) row[0], row[1] != null ? (Integer) row[1] : 0);
+        }
+        for (Long productId : ids) {
+            if (!levels.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product not found with ID: " + productId);
+            }
+        }
+        return levels;
+    }
+
+    private static SortedMap<Long, Integer> sumByProduct(List<OrderItemRequest> items) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequest item : items) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new BadRequestException("Quantity must be greater than 0 for product ID: " + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private RuntimeException insufficientStock(Long productId, int requested, int available) {
+        String name = productRepository.findById(productId).map(Product::getName).orElse("ID " + productId);
+        return new BadRequestException("Insufficient stock for product: " + name +
+                ". Available: " + Math.max(available, 0) + ", Requested: " + requested);
+    }
+}
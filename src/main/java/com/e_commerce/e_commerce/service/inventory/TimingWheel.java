@@ -0,0 +1,174 @@
+package com.e_commerce.e_commerce.service.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 buckets, each level's bucket spanning
+ * a whole rotation of the level below (with 100 ms ticks: 6.4 s, 6.8 min, 7.3 h, 19 days).
+ * Scheduling and cancelling are O(1); advancing costs one bucket per level per tick,
+ * and a timer is re-bucketed at most once per level on its way down, so nothing is
+ * ever scanned for expiry. Deadlines past the top level wait in an overflow list.
+ * Not thread-safe; callers serialize access.
+ */
+final class TimingWheel<T> {
+
+    private static final int LEVELS = 4;
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+
+    private final long tickMillis;
+    private final Bucket<T>[][] buckets;
+    private final Bucket<T> overflow = new Bucket<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * A scheduled item; pass it back to {@link #cancel} to drop it before it fires.
+     */
+    static final class Timer<T> {
+        private final T item;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        T getItem() {
+            return item;
+        }
+    }
+
+    private static final class Bucket<T> {
+        private Timer<T> head;
+
+        void add(Timer<T> timer) {
+            timer.bucket = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        void remove(Timer<T> timer) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.bucket = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        Timer<T> drain() {
+            Timer<T> drained = head;
+            head = null;
+            return drained;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.buckets = (Bucket<T>[][]) new Bucket<?>[LEVELS][SLOTS];
+        for (Bucket<T>[] level : buckets) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = new Bucket<>();
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    Timer<T> schedule(T item, long deadlineMillis) {
+        // Round up, so an item never fires before its deadline
+        Timer<T> timer = new Timer<>(item, Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    boolean cancel(Timer<T> timer) {
+        if (timer.bucket == null) {
+            return false;
+        }
+        timer.bucket.remove(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis}, handing every item whose deadline has passed to {@code expired}.
+     */
+    void advanceTo(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> fired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Higher levels first, so their timers land in lower buckets before those are read
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    if (level == LEVELS - 1) {
+                        replace(overflow.drain());
+                    }
+                    replace(buckets[level][slot(currentTick, level)].drain());
+                }
+            }
+            for (Timer<T> timer = buckets[0][slot(currentTick, 0)].drain(); timer != null; ) {
+                Timer<T> next = timer.next;
+                timer.bucket = null;
+                timer.prev = null;
+                timer.next = null;
+                size--;
+                fired.add(timer.item);
+                timer = next;
+            }
+        }
+        fired.forEach(expired);
+    }
+
+    private void replace(Timer<T> timer) {
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    // Lowest level whose current rotation still contains the deadline
+    private void place(Timer<T> timer) {
+        long deadline = timer.deadlineTick;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * (level + 1);
+            if ((deadline >>> shift) == (currentTick >>> shift)) {
+                buckets[level][slot(deadline, level)].add(timer);
+                return;
+            }
+            if (level == 0 && (deadline >>> shift) == (currentTick >>> shift) + 1
+                    && slot(deadline, 0) < slot(currentTick, 0)) {
+                // Wraps into the next rotation but is still less than one rotation away
+                buckets[0][slot(deadline, 0)].add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) ((tick >>> (BITS * level)) & (SLOTS - 1));
+    }
+}
@@ -0,0 +1,37 @@
+package com.e_commerce.e_commerce.service.popularity;
+
+import com.e_commerce.e_commerce.exception.BadRequestException;
+
+/**
+ * Period over which product sales are ranked; {@code hours} is 0 for all time.
+ */
+public enum PopularityWindow {
+    ALL_TIME("all", 0),
+    LAST_7_DAYS("7d", 168),
+    LAST_24_HOURS("24h", 24);
+
+    private final String key;
+    private final int hours;
+
+    PopularityWindow(String key, int hours) {
+        this.key = key;
+        this.hours = hours;
+    }
+
+    public int getHours() {
+        return hours;
+    }
+
+    public boolean isSliding() {
+        return hours > 0;
+    }
+
+    public static PopularityWindow of(String key) {
+        for (PopularityWindow window : values()) {
+            if (window.key.equalsIgnoreCase(key)) {
+                return window;
+            }
+        }
+        throw new BadRequestException("window must be one of all, 7d, 24h");
+    }
+}
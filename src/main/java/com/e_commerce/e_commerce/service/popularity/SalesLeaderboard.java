@@ -0,0 +1,230 @@
+package com.e_commerce.e_commerce.service.popularity;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.event.OrderStatusChangedEvent;
+import com.e_commerce.e_commerce.repository.OrderItemRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Units sold per product, ranked, for all time and for sliding windows, kept from
+ * committed order placements and cancellations (a cancelled order stops counting).
+ * Sliding windows are summed from hourly buckets: as the clock passes an hour, the
+ * bucket falling out of a window is subtracted from it, so no window is ever
+ * recomputed. Sales count in the hour the order was placed. Loaded from the order
+ * tables once on startup; afterwards nothing here queries the database.
+ */
+@Component
+@Slf4j
+public class SalesLeaderboard {
+
+    public static final int MAX_LIMIT = 50;
+
+    private static final int BUCKETS = PopularityWindow.LAST_7_DAYS.getHours();
+
+    private final OrderItemRepository orderItemRepository;
+    private final Supplier<LocalDateTime> clock;
+
+    private final Map<PopularityWindow, Ranking> rankings = new EnumMap<>(PopularityWindow.class);
+    // Units per product sold in the hour that maps to each slot
+    private final List<Map<Long, Long>> buckets = new ArrayList<>(BUCKETS);
+    private long currentHour = -1;
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final long productId;
+        private final long units;
+    }
+
+    // Most units first; on a tie the newer (higher id) product
+    private static final Comparator<Entry> RANK_ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.units).reversed()
+            .thenComparing(Comparator.comparingLong((Entry entry) -> entry.productId).reversed());
+
+    private static class Ranking {
+        private final Map<Long, Long> units = new ConcurrentHashMap<>();
+        private final NavigableSet<Entry> order = new TreeSet<>(RANK_ORDER);
+
+        private void add(long productId, long delta) {
+            long before = units.getOrDefault(productId, 0L);
+            long after = before + delta;
+            if (before > 0) {
+                order.remove(new Entry(productId, before));
+            }
+            if (after > 0) {
+                units.put(productId, after);
+                order.add(new Entry(productId, after));
+            } else {
+                units.remove(productId);
+            }
+        }
+
+        private void clear() {
+            units.clear();
+            order.clear();
+        }
+    }
+
+    @Autowired
+    public SalesLeaderboard(OrderItemRepository orderItemRepository) {
+        this(orderItemRepository, LocalDateTime::now);
+    }
+
+    SalesLeaderboard(OrderItemRepository orderItemRepository, Supplier<LocalDateTime> clock) {
+        this.orderItemRepository = orderItemRepository;
+        this.clock = clock;
+        for (PopularityWindow window : PopularityWindow.values()) {
+            rankings.put(window, new Ranking());
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long now = hourOf(clock.get());
+        List<Object[]> allTime = orderItemRepository.getQuantitySoldPerProduct();
+        List<Object[]> recent = orderItemRepository.getHourlyQuantitySold(startOfHour(now - BUCKETS + 1));
+
+        synchronized (this) {
+            rankings.values().forEach(Ranking::clear);
+            buckets.forEach(Map::clear);
+            currentHour = now;
+            for (Object[] row : allTime) {
+                rankings.get(PopularityWindow.ALL_TIME).add((Long) row[0], (Long) row[1]);
+            }
+            for (Object[] row : recent) {
+                LocalDateTime hour = LocalDateTime.of((Integer) row[1], (Integer) row[2], (Integer) row[3], (Integer) row[4], 0);
+                addToWindows((Long) row[0], hourOf(hour), (Long) row[5]);
+            }
+        }
+        log.info("Sales leaderboard loaded with {} products", allTime.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean was = event.getPreviousStatus() != null && isSale(event.getPreviousStatus());
+        boolean is = isSale(event.getStatus());
+        if (was == is) {
+            return;
+        }
+
+        advance(hourOf(clock.get()));
+        long hour = event.getCreatedDate() != null ? hourOf(event.getCreatedDate()) : currentHour;
+        for (OrderStatusChangedEvent.Line line : event.getLines()) {
+            long units = is ? line.getQuantity() : -line.getQuantity();
+            rankings.get(PopularityWindow.ALL_TIME).add(line.getProductId(), units);
+            addToWindows(line.getProductId(), hour, units);
+        }
+    }
+
+    // Slides the windows even when nothing is being sold
+    @Scheduled(fixedDelayString = "${app.popularity.tick-ms:60000}")
+    public synchronized void tick() {
+        advance(hourOf(clock.get()));
+    }
+
+    /**
+     * Up to {@code limit} product ids, best-selling first, skipping those {@code include} rejects.
+     */
+    public synchronized List<Long> top(PopularityWindow window, int limit, Predicate<Long> include) {
+        advance(hourOf(clock.get()));
+        List<Long> top = new ArrayList<>(limit);
+        for (Entry entry : rankings.get(window).order) {
+            if (top.size() == limit) {
+                break;
+            }
+            if (include.test(entry.productId)) {
+                top.add(entry.productId);
+            }
+        }
+        return top;
+    }
+
+    // Lock-free; may lag the clock by up to one tick
+    public long unitsSold(PopularityWindow window, Long productId) {
+        return rankings.get(window).units.getOrDefault(productId, 0L);
+    }
+
+    private void addToWindows(long productId, long hour, long units) {
+        long age = currentHour - hour;
+        if (age < 0 || age >= BUCKETS) {
+            return;
+        }
+        Map<Long, Long> bucket = buckets.get(slot(hour));
+        if (bucket.merge(productId, units, Long::sum) == 0) {
+            bucket.remove(productId);
+        }
+        for (PopularityWindow window : PopularityWindow.values()) {
+            if (window.isSliding() && age < window.getHours()) {
+                rankings.get(window).add(productId, units);
+            }
+        }
+    }
+
+    private void advance(long now) {
+        if (now <= currentHour) {
+            return;
+        }
+        if (now - currentHour >= BUCKETS) {
+            for (PopularityWindow window : PopularityWindow.values()) {
+                if (window.isSliding()) {
+                    rankings.get(window).clear();
+                }
+            }
+            buckets.forEach(Map::clear);
+            currentHour = now;
+            return;
+        }
+        while (currentHour < now) {
+            currentHour++;
+            for (PopularityWindow window : PopularityWindow.values()) {
+                if (window.isSliding()) {
+                    Ranking ranking = rankings.get(window);
+                    buckets.get(slot(currentHour - window.getHours()))
+                            .forEach((productId, units) -> ranking.add(productId, -units));
+                }
+            }
+            // The longest window just let go of this slot; it now holds the new hour
+            buckets.get(slot(currentHour)).clear();
+        }
+    }
+
+    private static boolean isSale(OrderStatus status) {
+        return status != OrderStatus.CANCELLED;
+    }
+
+    private static int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) BUCKETS);
+    }
+
+    // Hours are counted on the local wall clock, the same one order dates are stored in
+    private static long hourOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static LocalDateTime startOfHour(long hour) {
+        return LocalDateTime.ofEpochSecond(hour * 3600, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,32 @@
+package com.e_commerce.e_commerce.service.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between {@link BigDecimal} amounts, as stored on entities, and the long
+ * minor units (cents) pricing works in.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * The amount times a rate given in parts per million, rounded half up to whole cents.
+     */
+    public static long applyRate(long cents, int ratePpm) {
+        long scaled = Math.multiplyExact(cents, (long) ratePpm);
+        return scaled >= 0
+                ? (scaled + 500_000) / 1_000_000
+                : -((-scaled + 500_000) / 1_000_000);
+    }
+}
@@ -0,0 +1,16 @@
+package com.e_commerce.e_commerce.service.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Order or cart totals in cents.
+ */
+@Getter
+@AllArgsConstructor
+public class PriceBreakdown {
+    private final long subtotalCents;
+    private final long taxCents;
+    private final long shippingCents;
+    private final long totalCents;
+}
@@ -0,0 +1,15 @@
+package com.e_commerce.e_commerce.service.pricing;
+
+/**
+ * Tax and shipping for an order or cart, in cents. {@link TablePricingEngine} is the
+ * configured default; declare another implementation as a {@code @Primary} bean to
+ * replace it.
+ */
+public interface PricingEngine {
+
+    /**
+     * Prices a subtotal for delivery to the given country and state, either of which
+     * may be null when the address is not known yet.
+     */
+    PriceBreakdown price(long subtotalCents, String country, String state);
+}
@@ -0,0 +1,126 @@
+package com.e_commerce.e_commerce.service.pricing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pricing rules from configuration, compiled once into lookup tables.
+ * Tax rates are keyed "COUNTRY" or "COUNTRY-STATE" (the state rate wins) and held in
+ * parts per million; anything unlisted pays the default rate. Shipping is tiered on
+ * the subtotal: "threshold:cost" pairs, where the highest threshold not above the
+ * subtotal sets the cost.
+ */
+@Component
+@Slf4j
+public class TablePricingEngine implements PricingEngine {
+
+    private static final class CountryRates {
+        private int ratePpm;
+        private final Map<String, Integer> stateRatesPpm = new HashMap<>();
+    }
+
+    private final int defaultRatePpm;
+    private final Map<String, CountryRates> taxTable = new HashMap<>();
+    private final long[] shippingThresholdsCents;
+    private final long[] shippingCostsCents;
+
+    public TablePricingEngine(@Value("${app.pricing.tax.default-rate:0.10}") BigDecimal defaultRate,
+                              @Value("${app.pricing.tax.rates:}") String taxRates,
+                              @Value("${app.pricing.shipping.tiers:0:10.00,50:0}") String shippingTiers) {
+        this.defaultRatePpm = toPpm(defaultRate);
+
+        for (String[] rule : pairs(taxRates)) {
+            String region = rule[0].toUpperCase(Locale.ROOT);
+            int dash = region.indexOf('-');
+            String country = dash < 0 ? region : region.substring(0, dash);
+            CountryRates rates = taxTable.computeIfAbsent(country, c -> {
+                CountryRates created = new CountryRates();
+                created.ratePpm = defaultRatePpm;
+                return created;
+            });
+            if (dash < 0) {
+                rates.ratePpm = toPpm(new BigDecimal(rule[1]));
+            } else {
+                rates.stateRatesPpm.put(region.substring(dash + 1), toPpm(new BigDecimal(rule[1])));
+            }
+        }
+
+        TreeMap<Long, Long> tiers = new TreeMap<>();
+        for (String[] tier : pairs(shippingTiers)) {
+            tiers.put(Money.toCents(new BigDecimal(tier[0])), Money.toCents(new BigDecimal(tier[1])));
+        }
+        this.shippingThresholdsCents = tiers.keySet().stream().mapToLong(Long::longValue).toArray();
+        this.shippingCostsCents = tiers.values().stream().mapToLong(Long::longValue).toArray();
+
+        log.info("Pricing rules loaded: {} tax regions, {} shipping tiers", taxTable.size(), tiers.size());
+    }
+
+    @Override
+    public PriceBreakdown price(long subtotalCents, String country, String state) {
+        long taxCents = Money.applyRate(subtotalCents, taxRatePpm(country, state));
+        long shippingCents = shippingCents(subtotalCents);
+        return new PriceBreakdown(subtotalCents, taxCents, shippingCents,
+                Math.addExact(Math.addExact(subtotalCents, taxCents), shippingCents));
+    }
+
+    private int taxRatePpm(String country, String state) {
+        if (country == null) {
+            return defaultRatePpm;
+        }
+        CountryRates rates = taxTable.get(country.trim().toUpperCase(Locale.ROOT));
+        if (rates == null) {
+            return defaultRatePpm;
+        }
+        if (state != null) {
+            Integer stateRate = rates.stateRatesPpm.get(state.trim().toUpperCase(Locale.ROOT));
+            if (stateRate != null) {
+                return stateRate;
+            }
+        }
+        return rates.ratePpm;
+    }
+
+    private long shippingCents(long subtotalCents) {
+        int low = 0;
+        int high = shippingThresholdsCents.length - 1;
+        int tier = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (shippingThresholdsCents[mid] <= subtotalCents) {
+                tier = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return tier < 0 ? 0 : shippingCostsCents[tier];
+    }
+
+    private static int toPpm(BigDecimal rate) {
+        return rate.movePointRight(6).intValueExact();
+    }
+
+    private static List<String[]> pairs(String spec) {
+        List<String[]> pairs = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalStateException("Expected key:value in pricing rule '" + entry.trim() + "'");
+            }
+            pairs.add(new String[]{entry.substring(0, colon).trim(), entry.substring(colon + 1).trim()});
+        }
+        return pairs;
+    }
+}
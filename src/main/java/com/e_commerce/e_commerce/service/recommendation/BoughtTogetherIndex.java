@@ -0,0 +1,321 @@
+package com.e_commerce.e_commerce.service.recommendation;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.event.OrderStatusChangedEvent;
+import com.e_commerce.e_commerce.repository.OrderItemRepository;
+import com.e_commerce.e_commerce.util.LongIntMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * "Frequently bought together": for every product, in how many orders each other product
+ * was bought with it. Counts live in primitive maps and move with committed order
+ * placements and cancellations (cancelled orders do not count); each product also keeps
+ * its current top partners, so a lookup copies a short array. Built once on startup by a
+ * fork-join pass over the order history; until then lookups come back empty.
+ */
+@Component
+@Slf4j
+public class BoughtTogetherIndex {
+
+    private static final int HISTORY_BATCH = 10_000;
+
+    private final OrderItemRepository orderItemRepository;
+    private final int topN;
+    private final int maxOrderProducts;
+
+    // Updates that arrive while the initial build is still loading
+    private final List<Consumer<Map<Long, Node>>> pendingUpdates = new ArrayList<>();
+    private volatile Map<Long, Node> nodes;
+
+    public BoughtTogetherIndex(OrderItemRepository orderItemRepository,
+                               @Value("${app.recommendations.top-n:10}") int topN,
+                               @Value("${app.recommendations.max-order-products:50}") int maxOrderProducts) {
+        this.orderItemRepository = orderItemRepository;
+        this.topN = topN;
+        this.maxOrderProducts = maxOrderProducts;
+    }
+
+    public int getTopN() {
+        return topN;
+    }
+
+    /**
+     * Ids of the products most often bought with the given one, best first.
+     */
+    public List<Long> related(Long productId) {
+        Map<Long, Node> current = nodes;
+        Node node = current != null ? current.get(productId) : null;
+        if (node == null) {
+            return List.of();
+        }
+        return Arrays.stream(node.top(topN)).boxed().toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean was = event.getPreviousStatus() != null && isSale(event.getPreviousStatus());
+        boolean is = isSale(event.getStatus());
+        if (was == is) {
+            return;
+        }
+        long[] products = event.getLines().stream()
+                .mapToLong(OrderStatusChangedEvent.Line::getProductId)
+                .distinct()
+                .toArray();
+        if (counts(products)) {
+            int delta = is ? 1 : -1;
+            apply(target -> {
+                for (long product : products) {
+                    Node node = target.computeIfAbsent(product, id -> new Node());
+                    for (long partner : products) {
+                        if (partner != product) {
+                            node.add(partner, delta, topN);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Building bought-together index");
+        List<long[]> orders = loadOrders();
+
+        Map<Long, LongIntMap> counts = ForkJoinPool.commonPool().invoke(new CountTask(orders, 0, orders.size()));
+        Map<Long, Node> built = new ConcurrentHashMap<>();
+        counts.entrySet().parallelStream()
+                .forEach(entry -> built.put(entry.getKey(), Node.of(entry.getValue(), topN)));
+
+        synchronized (pendingUpdates) {
+            pendingUpdates.forEach(update -> update.accept(built));
+            pendingUpdates.clear();
+            nodes = built;
+        }
+        log.info("Bought-together index built from {} orders for {} products", orders.size(), built.size());
+    }
+
+    // Product ids of every counted order, read in order id batches
+    private List<long[]> loadOrders() {
+        List<long[]> orders = new ArrayList<>();
+        long after = 0;
+        while (true) {
+            List<Object[]> rows = orderItemRepository.findSaleLinesAfter(after, Limit.of(HISTORY_BATCH));
+            boolean full = rows.size() == HISTORY_BATCH;
+            // A full batch may end partway through its last order: leave that order to the next one,
+            // unless it is the only order in the batch (far larger than any order that counts anyway)
+            long last = rows.isEmpty() ? after : (Long) rows.get(rows.size() - 1)[0];
+            long first = rows.isEmpty() ? after : (Long) rows.get(0)[0];
+            boolean keepLast = !full || first == last;
+
+            int start = 0;
+            for (int i = 1; i <= rows.size(); i++) {
+                if (i == rows.size() || !rows.get(i)[0].equals(rows.get(start)[0])) {
+                    if (keepLast || !rows.get(start)[0].equals(last)) {
+                        long[] products = rows.subList(start, i).stream()
+                                .mapToLong(row -> (Long) row[1])
+                                .distinct()
+                                .toArray();
+                        if (counts(products)) {
+                            orders.add(products);
+                        }
+                    }
+                    start = i;
+                }
+            }
+
+            if (!full) {
+                return orders;
+            }
+            after = keepLast ? last : (Long) rows.get(lastIndexBefore(rows, last))[0];
+        }
+    }
+
+    private static int lastIndexBefore(List<Object[]> rows, long orderId) {
+        int i = rows.size() - 1;
+        while (rows.get(i)[0].equals(orderId)) {
+            i--;
+        }
+        return i;
+    }
+
+    // One-product orders say nothing, and very large ones would cost k² pairs for little signal
+    private boolean counts(long[] products) {
+        return products.length >= 2 && products.length <= maxOrderProducts;
+    }
+
+    private void apply(Consumer<Map<Long, Node>> update) {
+        Map<Long, Node> current = nodes;
+        if (current != null) {
+            update.accept(current);
+            return;
+        }
+        synchronized (pendingUpdates) {
+            if (nodes == null) {
+                pendingUpdates.add(update);
+                return;
+            }
+        }
+        update.accept(nodes);
+    }
+
+    private static boolean isSale(OrderStatus status) {
+        return status != OrderStatus.CANCELLED;
+    }
+
+    /**
+     * Partner counts of one product plus its top partners. Raising a count can only move
+     * that partner up, so the top list is patched in place; lowering a partner that is in
+     * the list marks it stale, and it is recomputed from the counts on the next read.
+     */
+    private static final class Node {
+        private final LongIntMap counts;
+        private long[] top = new long[0];
+        private boolean stale;
+
+        private Node() {
+            this(new LongIntMap());
+        }
+
+        private Node(LongIntMap counts) {
+            this.counts = counts;
+        }
+
+        private static Node of(LongIntMap counts, int topN) {
+            Node node = new Node(counts);
+            node.recompute(topN);
+            return node;
+        }
+
+        private synchronized void add(long partner, int delta, int topN) {
+            int count = counts.add(partner, delta);
+            int position = indexOf(partner);
+            if (delta < 0) {
+                stale |= position >= 0;
+                return;
+            }
+            if (stale) {
+                return;
+            }
+
+            long[] ids = top;
+            if (position < 0) {
+                if (ids.length == topN && !ranksAbove(partner, count, ids[ids.length - 1])) {
+                    return;
+                }
+                ids = Arrays.copyOf(ids, Math.min(ids.length + 1, topN));
+                position = ids.length - 1;
+            } else {
+                ids = ids.clone();
+            }
+            // Bubble the partner up past everything it now outranks
+            while (position > 0 && ranksAbove(partner, count, ids[position - 1])) {
+                ids[position] = ids[position - 1];
+                position--;
+            }
+            ids[position] = partner;
+            top = ids;
+        }
+
+        private synchronized long[] top(int topN) {
+            if (stale) {
+                recompute(topN);
+            }
+            return top;
+        }
+
+        private void recompute(int topN) {
+            List<long[]> partners = new ArrayList<>(counts.size());
+            counts.forEach((partner, count) -> partners.add(new long[]{partner, count}));
+            partners.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(b[0], a[0]));
+            top = partners.stream().limit(topN).mapToLong(partner -> partner[0]).toArray();
+            stale = false;
+        }
+
+        // More orders together first; on a tie the newer (higher id) product
+        private boolean ranksAbove(long partner, int count, long other) {
+            int otherCount = counts.get(other);
+            return count != otherCount ? count > otherCount : partner > other;
+        }
+
+        private int indexOf(long partner) {
+            for (int i = 0; i < top.length; i++) {
+                if (top[i] == partner) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Counts pairs over a range of orders: ranges above the threshold are split in two,
+     * counted in parallel, and the smaller result is merged into the larger.
+     */
+    private static final class CountTask extends RecursiveTask<Map<Long, LongIntMap>> {
+        private static final int THRESHOLD = 2_048;
+
+        private final List<long[]> orders;
+        private final int from;
+        private final int to;
+
+        private CountTask(List<long[]> orders, int from, int to) {
+            this.orders = orders;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, LongIntMap> compute() {
+            if (to - from <= THRESHOLD) {
+                Map<Long, LongIntMap> counts = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    long[] products = orders.get(i);
+                    for (long product : products) {
+                        LongIntMap partners = counts.computeIfAbsent(product, id -> new LongIntMap());
+                        for (long partner : products) {
+                            if (partner != product) {
+                                partners.add(partner, 1);
+                            }
+                        }
+                    }
+                }
+                return counts;
+            }
+
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(orders, from, middle);
+            left.fork();
+            Map<Long, LongIntMap> right = new CountTask(orders, middle, to).compute();
+            Map<Long, LongIntMap> joined = left.join();
+
+            Map<Long, LongIntMap> into = joined.size() >= right.size() ? joined : right;
+            Map<Long, LongIntMap> smaller = into == joined ? right : joined;
+            smaller.forEach((product, partners) -> {
+                LongIntMap target = into.get(product);
+                if (target == null) {
+                    into.put(product, partners);
+                } else {
+                    partners.forEach(target::add);
+                }
+            });
+            return into;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.e_commerce.e_commerce.service.report;
+
+import com.e_commerce.e_commerce.dto.response.CategorySalesResponse;
+import com.e_commerce.e_commerce.dto.response.DailySalesResponse;
+import com.e_commerce.e_commerce.dto.response.ProductSalesResponse;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.repository.DailyCategorySalesRepository;
+import com.e_commerce.e_commerce.repository.DailyProductSalesRepository;
+import com.e_commerce.e_commerce.repository.DailySalesRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Admin sales reports. Reads only the SALES_DAILY* rollups kept by {@link SalesRollupService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SalesReportService {
+
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository productSalesRepository;
+    private final DailyCategorySalesRepository categorySalesRepository;
+
+    public Page<DailySalesResponse> getDailySales(LocalDate from, LocalDate to, int page, int size) {
+        checkRange(from, to);
+        return dailySalesRepository.findReport(from, to,
+                PageRequest.of(page, size, Sort.by("salesDate").descending()));
+    }
+
+    public Page<ProductSalesResponse> getProductSales(LocalDate from, LocalDate to, String sortBy, int page, int size) {
+        checkRange(from, to);
+        return productSalesRepository.findReport(from, to, PageRequest.of(page, size, ranking(sortBy, "productId")));
+    }
+
+    public Page<CategorySalesResponse> getCategorySales(LocalDate from, LocalDate to, String sortBy, int page, int size) {
+        checkRange(from, to);
+        return categorySalesRepository.findReport(from, to, PageRequest.of(page, size, ranking(sortBy, "categoryId")));
+    }
+
+    // Highest first on a summed column; the grouping id breaks ties so pages are stable
+    private Sort ranking(String sortBy, String id) {
+        String column = switch (sortBy) {
+            case "revenue" -> "revenue";
+            case "units" -> "units";
+            case "orders" -> "orderCount";
+            default -> throw new BadRequestException("sortBy must be one of revenue, units, orders");
+        };
+        return JpaSort.unsafe(Sort.Direction.DESC, "SUM(s." + column + ")")
+                .andUnsafe(Sort.Direction.ASC, "s." + id);
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+    }
+}
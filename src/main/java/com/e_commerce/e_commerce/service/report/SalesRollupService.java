@@ -0,0 +1,256 @@
+package com.e_commerce.e_commerce.service.report;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.event.OrderStatusChangedEvent;
+import com.e_commerce.e_commerce.repository.DailyCategorySalesRepository;
+import com.e_commerce.e_commerce.repository.DailyProductSalesRepository;
+import com.e_commerce.e_commerce.repository.DailySalesRepository;
+import com.e_commerce.e_commerce.repository.OrderItemRepository;
+import com.e_commerce.e_commerce.repository.OrderRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.service.pricing.Money;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps the SALES_DAILY* rollups that admin reports read, so reporting never
+ * aggregates over ORDERS and ORDER_ITEMS. An order counts as a sale on the day it
+ * was placed for as long as it is not cancelled. Committed changes are queued in
+ * memory and written by a periodic flush as increments; anything queued is lost if
+ * the process dies, which the nightly rebuild of the previous day (or a manual
+ * rebuild) repairs from the source tables. An empty rollup is backfilled on startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    private static final int REBUILD_CHUNK_DAYS = 31;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository productSalesRepository;
+    private final DailyCategorySalesRepository categorySalesRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Queue<Sale> pending = new ConcurrentLinkedQueue<>();
+    // Nothing is written before the startup backfill has decided whether the rollups are empty
+    private volatile boolean started;
+
+    // One order entering (+1) or leaving (-1) the sales of its day
+    @AllArgsConstructor
+    private static class Sale {
+        private final LocalDate day;
+        private final int sign;
+        private final List<OrderStatusChangedEvent.Line> lines;
+    }
+
+    private static class Totals {
+        private String name;
+        private long orders;
+        private long units;
+        private long revenueCents;
+
+        private void add(long orders, long units, long revenueCents) {
+            this.orders += orders;
+            this.units += units;
+            this.revenueCents += revenueCents;
+        }
+
+        // Placed and cancelled within the same batch
+        private boolean isZero() {
+            return orders == 0 && units == 0 && revenueCents == 0;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean was = event.getPreviousStatus() != null && isSale(event.getPreviousStatus());
+        boolean is = isSale(event.getStatus());
+        if (was != is && !event.getLines().isEmpty()) {
+            // New orders may not have their creation timestamp until the insert is flushed
+            LocalDate day = event.getCreatedDate() != null ? event.getCreatedDate().toLocalDate() : LocalDate.now();
+            pending.add(new Sale(day, is ? 1 : -1, event.getLines()));
+        }
+    }
+
+    /**
+     * Adds the queued sales to the rollups in one transaction. On failure they go back
+     * on the queue for the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.reports.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (!started) {
+            return;
+        }
+        List<Sale> batch = new ArrayList<>();
+        for (Sale sale; (sale = pending.poll()) != null; ) {
+            batch.add(sale);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} sales to the rollups, will retry: {}", batch.size(), e.getMessage());
+            pending.addAll(batch);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void backfill() {
+        started = true;
+        if (dailySalesRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime firstOrder = orderRepository.findFirstOrderDate();
+        if (firstOrder != null) {
+            log.info("Backfilling sales rollups from {}", firstOrder.toLocalDate());
+            rebuild(firstOrder.toLocalDate(), LocalDate.now());
+        }
+    }
+
+    // Late cancellations, and anything lost with the queue, are settled once the day is over
+    @Scheduled(cron = "${app.reports.settle-cron:0 15 0 * * *}")
+    public void settleYesterday() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        rebuild(yesterday, yesterday);
+    }
+
+    /**
+     * Recomputes the rollups of the given days (inclusive) from the order tables,
+     * a month per transaction. Queued sales are flushed first so they are not added
+     * on top; one committing while its day is being rebuilt may still be counted twice.
+     */
+    public synchronized void rebuild(LocalDate from, LocalDate to) {
+        flush();
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(REBUILD_CHUNK_DAYS)) {
+            LocalDate chunkStart = start;
+            LocalDate chunkEnd = start.plusDays(REBUILD_CHUNK_DAYS - 1);
+            LocalDate end = chunkEnd.isAfter(to) ? to : chunkEnd;
+            transactionTemplate.executeWithoutResult(status -> rebuildChunk(chunkStart, end));
+        }
+        log.info("Rebuilt sales rollups for {} to {}", from, to);
+    }
+
+    private void rebuildChunk(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        dailySalesRepository.deleteBetween(from, to);
+        productSalesRepository.deleteBetween(from, to);
+        categorySalesRepository.deleteBetween(from, to);
+
+        for (Object[] row : orderItemRepository.getDailySales(start, end)) {
+            dailySalesRepository.insert(day(row), (Long) row[3], (Long) row[4], (BigDecimal) row[5]);
+        }
+        for (Object[] row : orderItemRepository.getDailyProductSales(start, end)) {
+            productSalesRepository.insert(day(row), (Long) row[3], (String) row[4],
+                    (Long) row[5], (Long) row[6], (BigDecimal) row[7]);
+        }
+        for (Object[] row : orderItemRepository.getDailyCategorySales(start, end)) {
+            categorySalesRepository.insert(day(row), (Long) row[3], (String) row[4],
+                    (Long) row[5], (Long) row[6], (BigDecimal) row[7]);
+        }
+    }
+
+    private void write(List<Sale> batch) {
+        Set<Long> productIds = new HashSet<>();
+        batch.forEach(sale -> sale.lines.forEach(line -> productIds.add(line.getProductId())));
+
+        // [productId, categoryId, name, ...]
+        Map<Long, List<Object[]>> categoriesByProduct = new HashMap<>();
+        for (Object[] row : productRepository.findCategoriesForProducts(productIds)) {
+            categoriesByProduct.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+        }
+
+        Map<LocalDate, Totals> days = new HashMap<>();
+        Map<LocalDate, Map<Long, Totals>> products = new HashMap<>();
+        Map<LocalDate, Map<Long, Totals>> categories = new HashMap<>();
+        for (Sale sale : batch) {
+            Set<Long> saleProducts = new HashSet<>();
+            Set<Long> saleCategories = new HashSet<>();
+            Totals day = days.computeIfAbsent(sale.day, d -> new Totals());
+            day.add(sale.sign, 0, 0);
+            Map<Long, Totals> dayProducts = products.computeIfAbsent(sale.day, d -> new HashMap<>());
+            Map<Long, Totals> dayCategories = categories.computeIfAbsent(sale.day, d -> new HashMap<>());
+
+            for (OrderStatusChangedEvent.Line line : sale.lines) {
+                long units = (long) sale.sign * line.getQuantity();
+                long cents = sale.sign * Money.toCents(line.getTotalPrice());
+                day.add(0, units, cents);
+
+                Totals product = dayProducts.computeIfAbsent(line.getProductId(), id -> new Totals());
+                product.name = line.getProductName();
+                product.add(saleProducts.add(line.getProductId()) ? sale.sign : 0, units, cents);
+
+                for (Object[] link : categoriesByProduct.getOrDefault(line.getProductId(), List.of())) {
+                    Long categoryId = (Long) link[1];
+                    Totals category = dayCategories.computeIfAbsent(categoryId, id -> new Totals());
+                    category.name = (String) link[2];
+                    category.add(saleCategories.add(categoryId) ? sale.sign : 0, units, cents);
+                }
+            }
+        }
+
+        days.values().removeIf(Totals::isZero);
+        products.values().forEach(byProduct -> byProduct.values().removeIf(Totals::isZero));
+        categories.values().forEach(byCategory -> byCategory.values().removeIf(Totals::isZero));
+
+        days.forEach((day, totals) -> {
+            BigDecimal revenue = Money.toDecimal(totals.revenueCents);
+            if (dailySalesRepository.addTo(day, totals.orders, totals.units, revenue) == 0) {
+                dailySalesRepository.insert(day, totals.orders, totals.units, revenue);
+            }
+        });
+        products.forEach((day, byProduct) -> byProduct.forEach((productId, totals) -> {
+            BigDecimal revenue = Money.toDecimal(totals.revenueCents);
+            if (productSalesRepository.addTo(day, productId, totals.name, totals.orders, totals.units, revenue) == 0) {
+                productSalesRepository.insert(day, productId, totals.name, totals.orders, totals.units, revenue);
+            }
+        }));
+        categories.forEach((day, byCategory) -> byCategory.forEach((categoryId, totals) -> {
+            BigDecimal revenue = Money.toDecimal(totals.revenueCents);
+            if (categorySalesRepository.addTo(day, categoryId, totals.name, totals.orders, totals.units, revenue) == 0) {
+                categorySalesRepository.insert(day, categoryId, totals.name, totals.orders, totals.units, revenue);
+            }
+        }));
+    }
+
+    private static boolean isSale(OrderStatus status) {
+        return status != OrderStatus.CANCELLED;
+    }
+
+    private static LocalDate day(Object[] row) {
+        return LocalDate.of((Integer) row[0], (Integer) row[1], (Integer) row[2]);
+    }
+}
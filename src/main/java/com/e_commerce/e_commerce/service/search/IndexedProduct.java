@@ -0,0 +1,88 @@
+package com.e_commerce.e_commerce.service.search;
+
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The per-product document held by the inverted index: the attributes search
+ * filters and sorts on, plus the weighted term frequencies it was indexed with.
+ */
+@Getter
+public class IndexedProduct {
+
+    // Field weights: a hit in the name matters more than one buried in the description
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int SKU_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final Long productId;
+    private final String name;
+    private final String brand;
+    private final BigDecimal price;
+    private final String status;
+    private final Set<Long> categoryIds;
+    private final LocalDateTime createdDate;
+    private final Map<String, Integer> termFrequencies;
+    private final int length;
+    private volatile int quantity;
+    // When the indexed quantity was written, as far as known
+    private LocalDateTime updatedDate;
+
+    private IndexedProduct(ProductChangedEvent source, Map<String, Integer> termFrequencies, int length) {
+        this.productId = source.getProductId();
+        this.name = source.getName();
+        this.brand = source.getBrand();
+        this.price = source.getPrice();
+        this.status = source.getStatus();
+        this.categoryIds = source.getCategoryIds();
+        this.createdDate = source.getCreatedDate();
+        this.quantity = source.getQuantity() != null ? source.getQuantity() : 0;
+        this.updatedDate = source.getUpdatedDate();
+        this.termFrequencies = termFrequencies;
+        this.length = length;
+    }
+
+    public static IndexedProduct of(ProductChangedEvent source) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        length += addTerms(frequencies, source.getName(), NAME_WEIGHT);
+        length += addTerms(frequencies, source.getBrand(), BRAND_WEIGHT);
+        length += addTerms(frequencies, source.getSku(), SKU_WEIGHT);
+        length += addTerms(frequencies, source.getDescription(), DESCRIPTION_WEIGHT);
+        return new IndexedProduct(source, frequencies, Math.max(length, 1));
+    }
+
+    public boolean isActive() {
+        return "ACTIVE".equals(status);
+    }
+
+    public boolean isInStock() {
+        return quantity > 0;
+    }
+
+    // Unknown on either side counts as newer: there is nothing to order by
+    boolean isOlderThan(LocalDateTime stockUpdatedDate) {
+        return updatedDate == null || stockUpdatedDate == null || stockUpdatedDate.isAfter(updatedDate);
+    }
+
+    void setQuantity(int quantity, LocalDateTime updatedDate) {
+        this.quantity = quantity;
+        this.updatedDate = updatedDate;
+    }
+
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        int count = 0;
+        for (String token : SearchTokenizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+            count += weight;
+        }
+        return count;
+    }
+}
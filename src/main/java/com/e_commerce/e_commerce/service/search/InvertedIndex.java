@@ -0,0 +1,250 @@
+package com.e_commerce.e_commerce.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Term -> posting list index over product text with BM25 scoring.
+ * All query terms must match (posting-list intersection); the last term is also
+ * treated as a prefix so partially typed words still hit. Every indexed term under
+ * the prefix counts, however short it is.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_MATCH_FACTOR = 0.8;
+
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        private final IndexedProduct product;
+        private final double score;
+    }
+
+    public void put(IndexedProduct product) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getProductId());
+            documents.put(product.getProductId(), product);
+            totalLength += product.getLength();
+            product.getTermFrequencies().forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new PostingList()).put(product.getProductId(), frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Stock events can arrive out of commit order; one older than what is indexed is dropped
+    public void updateQuantity(Long productId, int quantity, LocalDateTime updatedDate) {
+        lock.writeLock().lock();
+        try {
+            IndexedProduct product = documents.get(productId);
+            if (product != null && product.isOlderThan(updatedDate)) {
+                product.setQuantity(quantity, updatedDate);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public IndexedProduct get(Long productId) {
+        lock.readLock().lock();
+        try {
+            return documents.get(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void forEach(Consumer<IndexedProduct> action) {
+        lock.readLock().lock();
+        try {
+            documents.values().forEach(action);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit> search(String query, Predicate<IndexedProduct> filter) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+
+            // Every term but the last must match exactly
+            List<PostingList> required = new ArrayList<>();
+            for (String token : tokens.subList(0, tokens.size() - 1)) {
+                PostingList list = postings.get(token);
+                if (list == null) {
+                    return List.of();
+                }
+                required.add(list);
+            }
+
+            // The last term matches itself or any indexed term it is a prefix of
+            String last = tokens.get(tokens.size() - 1);
+            List<PostingList> alternatives = new ArrayList<>();
+            List<Double> alternativeFactors = new ArrayList<>();
+            for (Map.Entry<String, PostingList> entry
+                    : postings.subMap(last, true, last + Character.MAX_VALUE, false).entrySet()) {
+                alternatives.add(entry.getValue());
+                alternativeFactors.add(entry.getKey().equals(last) ? 1.0 : PREFIX_MATCH_FACTOR);
+            }
+            if (alternatives.isEmpty()) {
+                return List.of();
+            }
+
+            double averageLength = (double) totalLength / documents.size();
+            return required.isEmpty()
+                    ? scoreAlternatives(alternatives, alternativeFactors, averageLength, filter)
+                    : scoreIntersection(required, alternatives, alternativeFactors, averageLength, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Hit> scoreAlternatives(List<PostingList> alternatives, List<Double> factors,
+                                        double averageLength, Predicate<IndexedProduct> filter) {
+        List<Hit> hits = new ArrayList<>();
+        bestAlternatives(alternatives, factors, averageLength).forEach((id, score) -> {
+            IndexedProduct product = documents.get(id);
+            if (filter.test(product)) {
+                hits.add(new Hit(product, score));
+            }
+        });
+        return hits;
+    }
+
+    // Best prefix score per product, walking every expansion's posting list once
+    private Map<Long, Double> bestAlternatives(List<PostingList> alternatives, List<Double> factors,
+                                               double averageLength) {
+        Map<Long, Double> best = new HashMap<>();
+        for (int a = 0; a < alternatives.size(); a++) {
+            PostingList list = alternatives.get(a);
+            for (int i = 0; i < list.size(); i++) {
+                long id = list.idAt(i);
+                IndexedProduct product = documents.get(id);
+                double score = factors.get(a) * bm25(list.frequencyAt(i), list.size(), product.getLength(), averageLength);
+                best.merge(id, score, Math::max);
+            }
+        }
+        return best;
+    }
+
+    private List<Hit> scoreIntersection(List<PostingList> required, List<PostingList> alternatives,
+                                        List<Double> factors, double averageLength,
+                                        Predicate<IndexedProduct> filter) {
+        // Drive from the rarest term so every other lookup is a binary search into a longer list
+        required.sort(Comparator.comparingInt(PostingList::size));
+        PostingList driver = required.get(0);
+
+        // A short prefix can expand to many terms; once probing each of them per candidate
+        // would cost more than reading their lists, score the prefix up front instead
+        long alternativePostings = 0;
+        for (PostingList list : alternatives) {
+            alternativePostings += list.size();
+        }
+        Map<Long, Double> prefixScores = alternativePostings < (long) driver.size() * alternatives.size()
+                ? bestAlternatives(alternatives, factors, averageLength)
+                : null;
+
+        List<Hit> hits = new ArrayList<>();
+        candidates:
+        for (int i = 0; i < driver.size(); i++) {
+            long id = driver.idAt(i);
+            IndexedProduct product = documents.get(id);
+
+            double score = bm25(driver.frequencyAt(i), driver.size(), product.getLength(), averageLength);
+            for (int r = 1; r < required.size(); r++) {
+                PostingList list = required.get(r);
+                int frequency = list.frequency(id);
+                if (frequency == 0) {
+                    continue candidates;
+                }
+                score += bm25(frequency, list.size(), product.getLength(), averageLength);
+            }
+
+            double bestAlternative = prefixScores != null ? prefixScores.getOrDefault(id, 0.0) : 0;
+            for (int a = 0; prefixScores == null && a < alternatives.size(); a++) {
+                PostingList list = alternatives.get(a);
+                int frequency = list.frequency(id);
+                if (frequency > 0) {
+                    bestAlternative = Math.max(bestAlternative,
+                            factors.get(a) * bm25(frequency, list.size(), product.getLength(), averageLength));
+                }
+            }
+            if (bestAlternative == 0 || !filter.test(product)) {
+                continue;
+            }
+            hits.add(new Hit(product, score + bestAlternative));
+        }
+        return hits;
+    }
+
+    private double bm25(int frequency, int documentFrequency, int length, double averageLength) {
+        int documentCount = documents.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        double norm = frequency + K1 * (1 - B + B * length / averageLength);
+        return idf * frequency * (K1 + 1) / norm;
+    }
+
+    private void removeInternal(Long productId) {
+        IndexedProduct existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.getLength();
+        for (String term : existing.getTermFrequencies().keySet()) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(productId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.e_commerce.e_commerce.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted product ids containing a term, with the weighted term frequency for each.
+ * Kept as parallel primitive arrays so lookups are a binary search and intersection
+ * never boxes.
+ */
+final class PostingList {
+
+    private long[] ids = new long[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    void put(long id, int frequency) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            frequencies[index] = frequency;
+            return;
+        }
+
+        index = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+        ids[index] = id;
+        frequencies[index] = frequency;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+        size--;
+    }
+
+    int frequency(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index >= 0 ? frequencies[index] : 0;
+    }
+
+    long idAt(int index) {
+        return ids[index];
+    }
+
+    int frequencyAt(int index) {
+        return frequencies[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
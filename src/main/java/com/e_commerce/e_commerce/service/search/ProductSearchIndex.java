@@ -0,0 +1,253 @@
+package com.e_commerce.e_commerce.service.search;
+
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import com.e_commerce.e_commerce.event.StockChangedEvent;
+import com.e_commerce.e_commerce.model.Product;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-process full-text search over active products.
+ * Built once on startup and then kept current from product and stock events;
+ * until the first build completes, callers fall back to the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    public static final String RELEVANCE = "relevance";
+
+    private final ProductRepository productRepository;
+
+    // Updates that arrive while the initial build is still loading
+    private final List<Consumer<InvertedIndex>> pendingUpdates = new ArrayList<>();
+    private volatile InvertedIndex index;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Building product search index");
+
+        Map<Long, Set<Long>> categoryIds = new HashMap<>();
+        for (Object[] link : productRepository.findAllCategoryLinks()) {
+            categoryIds.computeIfAbsent((Long) link[0], id -> new HashSet<>()).add((Long) link[1]);
+        }
+
+        InvertedIndex built = new InvertedIndex();
+        for (Product product : productRepository.findByStatus("ACTIVE")) {
+            built.put(IndexedProduct.of(new ProductChangedEvent(
+                    product.getProductId(),
+                    product.getName(),
+                    product.getDescription(),
+                    product.getBrand(),
+                    product.getSku(),
+                    product.getPrice(),
+                    product.getQuantity(),
+                    product.getStatus(),
+                    categoryIds.getOrDefault(product.getProductId(), Set.of()),
+                    product.getCreatedDate(),
+                    product.getUpdatedDate()
+            )));
+        }
+
+        synchronized (pendingUpdates) {
+            pendingUpdates.forEach(update -> update.accept(built));
+            pendingUpdates.clear();
+            index = built;
+        }
+        log.info("Product search index built with {} products", built.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if ("ACTIVE".equals(event.getStatus())) {
+            apply(target -> target.put(IndexedProduct.of(event)));
+        } else {
+            apply(target -> target.remove(event.getProductId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        apply(target -> target.updateQuantity(event.getProductId(), event.getQuantity(), event.getUpdatedDate()));
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Returns the requested page of matching product ids, or empty when the index
+     * cannot answer (still building, or sorted on a property it does not hold).
+     */
+    public Optional<Page<Long>> search(String query, Predicate<IndexedProduct> filter, Pageable pageable) {
+        InvertedIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        Optional<Comparator<InvertedIndex.Hit>> comparator = comparatorFor(pageable.getSort());
+        if (comparator.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<InvertedIndex.Hit> hits = new ArrayList<>(current.search(query, filter));
+        hits.sort(comparator.get());
+
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        List<Long> ids = hits.subList(from, to).stream()
+                .map(hit -> hit.getProduct().getProductId())
+                .toList();
+
+        return Optional.of(new PageImpl<>(ids, pageable, hits.size()));
+    }
+
+    /**
+     * Returns every matching product id in no particular order, or empty while the index is building.
+     */
+    public Optional<List<Long>> matchingIds(String query, Predicate<IndexedProduct> filter) {
+        InvertedIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.search(query, filter).stream()
+                .map(hit -> hit.getProduct().getProductId())
+                .toList());
+    }
+
+    public Optional<IndexedProduct> find(Long productId) {
+        InvertedIndex current = index;
+        return current == null ? Optional.empty() : Optional.ofNullable(current.get(productId));
+    }
+
+    /**
+     * Returns the requested page of every product the filter accepts, highest score first
+     * (newest first on a tie), or empty while the index is building. Each score is read
+     * once, and only the first offset + size products are ever sorted.
+     */
+    public Optional<Page<Long>> rank(Predicate<IndexedProduct> filter, ToLongFunction<IndexedProduct> score,
+                                     Pageable pageable) {
+        InvertedIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        Comparator<Scored> best = Comparator.comparingLong((Scored scored) -> scored.score)
+                .thenComparing(scored -> scored.product.getCreatedDate(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(scored -> scored.product.getProductId())
+                .reversed();
+        long wanted = pageable.getOffset() + pageable.getPageSize();
+        // Worst of the kept products on top, so each newcomer costs O(log wanted)
+        PriorityQueue<Scored> kept = new PriorityQueue<>(best.reversed());
+        int[] total = {0};
+        current.forEach(product -> {
+            if (filter.test(product)) {
+                total[0]++;
+                kept.add(new Scored(product, score.applyAsLong(product)));
+                if (kept.size() > wanted) {
+                    kept.poll();
+                }
+            }
+        });
+
+        List<Scored> sorted = new ArrayList<>(kept);
+        sorted.sort(best);
+        List<Long> ids = sorted.stream()
+                .skip(pageable.getOffset())
+                .map(scored -> scored.product.getProductId())
+                .toList();
+        return Optional.of(new PageImpl<>(ids, pageable, total[0]));
+    }
+
+    @AllArgsConstructor
+    private static class Scored {
+        private final IndexedProduct product;
+        private final long score;
+    }
+
+    /**
+     * Strips the index-only relevance ordering so the pageable can be sent to the database.
+     */
+    public static Pageable withoutRelevance(Pageable pageable) {
+        if (pageable.getSort().getOrderFor(RELEVANCE) == null) {
+            return pageable;
+        }
+        List<Sort.Order> orders = pageable.getSort().stream()
+                .filter(order -> !RELEVANCE.equals(order.getProperty()))
+                .toList();
+        Sort sort = orders.isEmpty() ? Sort.by("createdDate").descending() : Sort.by(orders);
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : pageable;
+    }
+
+    private void apply(Consumer<InvertedIndex> update) {
+        InvertedIndex current = index;
+        if (current != null) {
+            update.accept(current);
+            return;
+        }
+        synchronized (pendingUpdates) {
+            if (index == null) {
+                pendingUpdates.add(update);
+                return;
+            }
+        }
+        update.accept(index);
+    }
+
+    private Optional<Comparator<InvertedIndex.Hit>> comparatorFor(Sort sort) {
+        Comparator<InvertedIndex.Hit> byRelevance = Comparator.comparingDouble(InvertedIndex.Hit::getScore);
+        Comparator<InvertedIndex.Hit> comparator = null;
+
+        for (Sort.Order order : sort) {
+            Comparator<InvertedIndex.Hit> next = switch (order.getProperty()) {
+                case RELEVANCE -> byRelevance;
+                case "createdDate" -> Comparator.comparing(hit -> hit.getProduct().getCreatedDate(),
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "price" -> Comparator.comparing(hit -> hit.getProduct().getPrice(),
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "name" -> Comparator.comparing(hit -> hit.getProduct().getName(),
+                        Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+                case "productId" -> Comparator.comparing(hit -> hit.getProduct().getProductId());
+                default -> null;
+            };
+            if (next == null) {
+                return Optional.empty();
+            }
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        if (comparator == null) {
+            comparator = byRelevance.reversed();
+        }
+        return Optional.of(comparator.thenComparing(
+                Comparator.comparing((InvertedIndex.Hit hit) -> hit.getProduct().getProductId()).reversed()));
+    }
+}
@@ -0,0 +1,275 @@
+package com.e_commerce.e_commerce.service.search;
+
+import com.e_commerce.e_commerce.dto.response.SuggestionResponse;
+import com.e_commerce.e_commerce.event.CategoryChangedEvent;
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import com.e_commerce.e_commerce.event.StockChangedEvent;
+import com.e_commerce.e_commerce.model.Category;
+import com.e_commerce.e_commerce.repository.CategoryRepository;
+import com.e_commerce.e_commerce.repository.OrderItemRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead over product names, brands and category names.
+ * Writes update a small mutable model and note which entries they touched; readers only
+ * ever see an immutable {@link SuggestionIndex} snapshot, into which the touched entries
+ * are patched when it is dirty. Popularity is units sold (plus one, so unsold items still
+ * rank), summed up for brands and categories. Sales are weighed in periodically, or at
+ * once when a product sells out or comes back, so a stream of orders does not keep the
+ * index busy.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestService {
+
+    public static final int MAX_LIMIT = 20;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private final Map<Long, ProductModel> products = new HashMap<>();
+    private final Map<Long, String> categories = new HashMap<>();
+    private final Map<Long, Long> unitsSold = new HashMap<>();
+    // What the products add up to per brand (by lower-cased name) and per category
+    private final Map<String, BrandModel> brands = new HashMap<>();
+    private final Map<Long, Long> categoryWeights = new HashMap<>();
+
+    // Entries to patch into the next snapshot, and products whose sales are not weighed in yet
+    private final Set<Long> changedProducts = new HashSet<>();
+    private final Set<String> changedBrands = new HashSet<>();
+    private final Set<Long> changedCategories = new HashSet<>();
+    private final Set<Long> soldSinceWeighed = new HashSet<>();
+
+    private volatile SuggestionIndex snapshot = SuggestionIndex.EMPTY;
+    private volatile boolean dirty;
+
+    @AllArgsConstructor
+    private static class ProductModel {
+        private final String name;
+        private final String brand;
+        private final Set<Long> categoryIds;
+        // The weight counted into its brand and categories
+        private long weight;
+
+        private boolean sameListing(ProductModel other) {
+            return Objects.equals(name, other.name) && Objects.equals(brand, other.brand)
+                    && categoryIds.equals(other.categoryIds);
+        }
+    }
+
+    private static class BrandModel {
+        private final String name;
+        private long weight;
+        private int products;
+
+        private BrandModel(String name) {
+            this.name = name;
+        }
+    }
+
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        return snapshot.suggest(query, Math.min(limit, MAX_LIMIT))
+                .stream()
+                .map(entry -> new SuggestionResponse(entry.getText(), entry.getType().name(), entry.getId()))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, Set<Long>> links = new HashMap<>();
+        for (Object[] link : productRepository.findAllCategoryLinks()) {
+            links.computeIfAbsent((Long) link[0], id -> new HashSet<>()).add((Long) link[1]);
+        }
+
+        synchronized (this) {
+            for (Object[] row : orderItemRepository.getQuantitySoldPerProduct()) {
+                unitsSold.put((Long) row[0], (Long) row[1]);
+            }
+            for (Category category : categoryRepository.findAll()) {
+                categories.put(category.getCategoryId(), category.getName());
+            }
+            for (Object[] row : productRepository.findActiveProductNames()) {
+                Long id = (Long) row[0];
+                put(id, new ProductModel((String) row[1], (String) row[2], links.getOrDefault(id, Set.of()), weight(id)));
+            }
+            changedProducts.clear();
+            changedBrands.clear();
+            changedCategories.clear();
+            snapshot = SuggestionIndex.build(new ArrayList<>(allEntries()));
+            dirty = false;
+        }
+        log.info("Suggestion index built with {} entries", snapshot.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Long id = event.getProductId();
+        ProductModel current = products.get(id);
+        if ("ACTIVE".equals(event.getStatus())) {
+            ProductModel product = new ProductModel(event.getName(), event.getBrand(), event.getCategoryIds(), weight(id));
+            if (current != null && current.sameListing(product) && current.weight == product.weight) {
+                return;
+            }
+            put(id, product);
+        } else if (current != null) {
+            put(id, null);
+        } else {
+            return;
+        }
+        soldSinceWeighed.remove(id);
+        dirty = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.isDeleted()) {
+            categories.remove(event.getCategoryId());
+        } else {
+            categories.put(event.getCategoryId(), event.getName());
+        }
+        changedCategories.add(event.getCategoryId());
+        dirty = true;
+    }
+
+    // Order placement takes stock down and cancellation puts it back: both move popularity
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        long sold = event.getPreviousQuantity() - event.getQuantity();
+        unitsSold.merge(event.getProductId(), sold, (a, b) -> Math.max(a + b, 0));
+        if (!products.containsKey(event.getProductId())) {
+            return;
+        }
+        if ((event.getPreviousQuantity() > 0) != (event.getQuantity() > 0)) {
+            soldSinceWeighed.remove(event.getProductId());
+            dirty |= reweigh(event.getProductId());
+        } else {
+            soldSinceWeighed.add(event.getProductId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.suggest.popularity-interval-ms:60000}")
+    public synchronized void weighSales() {
+        for (Long id : soldSinceWeighed) {
+            dirty |= reweigh(id);
+        }
+        soldSinceWeighed.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${app.suggest.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (!dirty) {
+            return;
+        }
+        synchronized (this) {
+            dirty = false;
+            snapshot = snapshot.patch(pendingChanges());
+        }
+    }
+
+    // Adds or (for null) removes a product, moving its weight between brands and categories
+    private void put(Long id, ProductModel product) {
+        ProductModel previous = product != null ? products.put(id, product) : products.remove(id);
+        if (previous != null) {
+            count(previous, -1);
+        }
+        if (product != null) {
+            count(product, 1);
+        }
+        changedProducts.add(id);
+    }
+
+    private boolean reweigh(Long id) {
+        ProductModel product = products.get(id);
+        long weight = weight(id);
+        if (product == null || product.weight == weight) {
+            return false;
+        }
+        count(product, -1);
+        product.weight = weight;
+        count(product, 1);
+        changedProducts.add(id);
+        return true;
+    }
+
+    private void count(ProductModel product, int sign) {
+        if (product.brand != null && !product.brand.isBlank()) {
+            String key = product.brand.toLowerCase(Locale.ROOT);
+            BrandModel brand = brands.computeIfAbsent(key, k -> new BrandModel(product.brand));
+            brand.weight += sign * product.weight;
+            brand.products += sign;
+            if (brand.products == 0) {
+                brands.remove(key);
+            }
+            changedBrands.add(key);
+        }
+        for (Long categoryId : product.categoryIds) {
+            categoryWeights.merge(categoryId, sign * product.weight, (a, b) -> a + b != 0 ? a + b : null);
+            changedCategories.add(categoryId);
+        }
+    }
+
+    private long weight(Long productId) {
+        return 1 + unitsSold.getOrDefault(productId, 0L);
+    }
+
+    private Map<String, SuggestionIndex.Entry> pendingChanges() {
+        Map<String, SuggestionIndex.Entry> changes = new HashMap<>();
+        changedProducts.forEach(id -> changes.put(SuggestionIndex.key(SuggestionIndex.Type.PRODUCT, id),
+                productEntry(id, products.get(id))));
+        changedBrands.forEach(key -> changes.put(SuggestionIndex.key(SuggestionIndex.Type.BRAND, key),
+                brandEntry(brands.get(key))));
+        changedCategories.forEach(id -> changes.put(SuggestionIndex.key(SuggestionIndex.Type.CATEGORY, id),
+                categoryEntry(id)));
+        changedProducts.clear();
+        changedBrands.clear();
+        changedCategories.clear();
+        return changes;
+    }
+
+    private List<SuggestionIndex.Entry> allEntries() {
+        List<SuggestionIndex.Entry> entries = new ArrayList<>();
+        products.forEach((id, product) -> entries.add(productEntry(id, product)));
+        brands.values().forEach(brand -> entries.add(brandEntry(brand)));
+        categories.keySet().forEach(id -> entries.add(categoryEntry(id)));
+        return entries;
+    }
+
+    private static SuggestionIndex.Entry productEntry(Long id, ProductModel product) {
+        return product != null
+                ? new SuggestionIndex.Entry(SuggestionIndex.Type.PRODUCT, id, product.name, product.weight)
+                : null;
+    }
+
+    private static SuggestionIndex.Entry brandEntry(BrandModel brand) {
+        return brand != null
+                ? new SuggestionIndex.Entry(SuggestionIndex.Type.BRAND, null, brand.name, brand.weight)
+                : null;
+    }
+
+    private SuggestionIndex.Entry categoryEntry(Long id) {
+        String name = categories.get(id);
+        return name != null
+                ? new SuggestionIndex.Entry(SuggestionIndex.Type.CATEGORY, id, name, 1 + categoryWeights.getOrDefault(id, 0L))
+                : null;
+    }
+}
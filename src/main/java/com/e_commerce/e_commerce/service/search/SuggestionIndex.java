@@ -0,0 +1,286 @@
+package com.e_commerce.e_commerce.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable prefix lookup over suggestion texts.
+ * Every entry is keyed by its full normalized text and by each word-start suffix,
+ * so "iph" finds "Apple iPhone 15". Keys live in one sorted array; a prefix is a
+ * contiguous range, and a range-max tree over entry weights pulls the top-k out of
+ * that range without scanning it. {@link #patch} derives the next snapshot from this
+ * one, re-keying only the entries whose text changed.
+ */
+public final class SuggestionIndex {
+
+    public enum Type { PRODUCT, BRAND, CATEGORY }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final Type type;
+        private final Long id;
+        private final String text;
+        private final long weight;
+
+        // Identifies the entry across snapshots: brands by name, products and categories by id
+        public String getKey() {
+            return key(type, id != null ? id : text.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public static final SuggestionIndex EMPTY = build(List.of());
+
+    private final String[] keys;
+    private final int[] keyEntries;
+    // Null where an entry was removed by a patch; no key points there any more
+    private final Entry[] entries;
+    private final Map<String, Integer> positions;
+    private final int live;
+    // Implicit segment tree: leaves at [n, 2n) hold key positions, inner nodes the heaviest below them
+    private final int[] tree;
+
+    private SuggestionIndex(String[] keys, int[] keyEntries, Entry[] entries, Map<String, Integer> positions, int live) {
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.entries = entries;
+        this.positions = positions;
+        this.live = live;
+
+        int n = keys.length;
+        this.tree = new int[Math.max(2 * n, 1)];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            tree[i] = heavier(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    public static String key(Type type, Object id) {
+        return type + ":" + id;
+    }
+
+    public static SuggestionIndex build(List<Entry> source) {
+        Entry[] entries = source.toArray(new Entry[0]);
+        Map<String, Integer> positions = new HashMap<>(entries.length * 2);
+
+        List<String> keyList = new ArrayList<>();
+        List<Integer> entryList = new ArrayList<>();
+        for (int e = 0; e < entries.length; e++) {
+            positions.put(entries[e].getKey(), e);
+            addKeys(entries[e].getText(), e, keyList, entryList);
+        }
+
+        Integer[] order = sortedOrder(keyList);
+        String[] keys = new String[order.length];
+        int[] keyEntries = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            keyEntries[i] = entryList.get(order[i]);
+        }
+        return new SuggestionIndex(keys, keyEntries, entries, positions, entries.length);
+    }
+
+    /**
+     * The index with the given entries replaced, added or (mapped to null) removed, by
+     * entry key. An entry whose text is unchanged keeps its keys and only takes the new
+     * weight; the keys of the others are dropped and their new keys merged in, so the cost
+     * is a linear pass rather than a re-sort. Once removals have left more holes than
+     * entries, the index is rebuilt compact.
+     */
+    public SuggestionIndex patch(Map<String, Entry> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        Entry[] patched = Arrays.copyOf(entries, entries.length + changes.size());
+        Map<String, Integer> patchedPositions = new HashMap<>(positions);
+        boolean[] rekeyed = new boolean[entries.length];
+        List<String> addedKeys = new ArrayList<>();
+        List<Integer> addedEntries = new ArrayList<>();
+        int next = entries.length;
+        int patchedLive = live;
+
+        for (Map.Entry<String, Entry> change : changes.entrySet()) {
+            Integer position = patchedPositions.get(change.getKey());
+            Entry entry = change.getValue();
+            if (position != null) {
+                if (entry != null && Objects.equals(entry.getText(), patched[position].getText())) {
+                    patched[position] = entry;
+                    continue;
+                }
+                rekeyed[position] = true;
+                if (entry == null) {
+                    patched[position] = null;
+                    patchedPositions.remove(change.getKey());
+                    patchedLive--;
+                    continue;
+                }
+            } else if (entry == null) {
+                continue;
+            } else {
+                position = next++;
+                patchedPositions.put(change.getKey(), position);
+                patchedLive++;
+            }
+            patched[position] = entry;
+            addKeys(entry.getText(), position, addedKeys, addedEntries);
+        }
+        patched = Arrays.copyOf(patched, next);
+
+        if (patchedLive < next / 2) {
+            List<Entry> compact = new ArrayList<>(patchedLive);
+            for (Entry entry : patched) {
+                if (entry != null) {
+                    compact.add(entry);
+                }
+            }
+            return build(compact);
+        }
+
+        // Merge the surviving keys with the new ones, both already sorted
+        Integer[] order = sortedOrder(addedKeys);
+        int kept = 0;
+        for (int keyEntry : keyEntries) {
+            if (!rekeyed[keyEntry]) {
+                kept++;
+            }
+        }
+        String[] mergedKeys = new String[kept + order.length];
+        int[] mergedEntries = new int[mergedKeys.length];
+        int out = 0;
+        int added = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (rekeyed[keyEntries[i]]) {
+                continue;
+            }
+            while (added < order.length && addedKeys.get(order[added]).compareTo(keys[i]) < 0) {
+                mergedKeys[out] = addedKeys.get(order[added]);
+                mergedEntries[out++] = addedEntries.get(order[added++]);
+            }
+            mergedKeys[out] = keys[i];
+            mergedEntries[out++] = keyEntries[i];
+        }
+        while (added < order.length) {
+            mergedKeys[out] = addedKeys.get(order[added]);
+            mergedEntries[out++] = addedEntries.get(order[added++]);
+        }
+        return new SuggestionIndex(mergedKeys, mergedEntries, patched, patchedPositions, patchedLive);
+    }
+
+    // The full normalized text and each word-start suffix of it, each once
+    private static void addKeys(String text, int entry, List<String> keyList, List<Integer> entryList) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        Set<String> seen = new HashSet<>();
+        for (int start = 0; start < tokens.size(); start++) {
+            String key = String.join(" ", tokens.subList(start, tokens.size()));
+            if (seen.add(key)) {
+                keyList.add(key);
+                entryList.add(entry);
+            }
+        }
+    }
+
+    private static Integer[] sortedOrder(List<String> keyList) {
+        Integer[] order = new Integer[keyList.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(keyList::get));
+        return order;
+    }
+
+    public int size() {
+        return live;
+    }
+
+    public List<Entry> suggest(String query, int limit) {
+        String prefix = String.join(" ", SearchTokenizer.tokenize(query));
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE) - 1;
+        if (from > to) {
+            return List.of();
+        }
+
+        // Best-first walk over sub-ranges: pop the heaviest key, then split its range around it
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compare(b[2], a[2]));
+        ranges.add(new int[]{from, to, heaviestIn(from, to)});
+
+        List<Entry> results = new ArrayList<>(limit);
+        Set<Integer> emitted = new HashSet<>();
+        while (!ranges.isEmpty() && results.size() < limit) {
+            int[] range = ranges.poll();
+            int position = range[2];
+            if (emitted.add(keyEntries[position])) {
+                results.add(entries[keyEntries[position]]);
+            }
+            if (range[0] < position) {
+                ranges.add(new int[]{range[0], position - 1, heaviestIn(range[0], position - 1)});
+            }
+            if (position < range[1]) {
+                ranges.add(new int[]{position + 1, range[1], heaviestIn(position + 1, range[1])});
+            }
+        }
+        return results;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int heaviestIn(int from, int to) {
+        int n = keys.length;
+        int best = -1;
+        for (int left = from + n, right = to + n + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                best = heavier(best, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                best = heavier(best, tree[--right]);
+            }
+        }
+        return best;
+    }
+
+    private int heavier(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return compare(a, b) >= 0 ? a : b;
+    }
+
+    // Orders key positions by entry weight; ties go to the alphabetically first key
+    private int compare(int a, int b) {
+        int byWeight = Long.compare(entries[keyEntries[a]].getWeight(), entries[keyEntries[b]].getWeight());
+        return byWeight != 0 ? byWeight : Integer.compare(b, a);
+    }
+}
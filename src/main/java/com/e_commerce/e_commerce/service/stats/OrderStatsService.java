@@ -0,0 +1,141 @@
+package com.e_commerce.e_commerce.service.stats;
+
+import com.e_commerce.e_commerce.dto.response.OrderStatsResponse;
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.event.OrderStatusChangedEvent;
+import com.e_commerce.e_commerce.repository.OrderRepository;
+import com.e_commerce.e_commerce.service.pricing.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live order counters for the admin dashboard, so polling it never scans ORDERS.
+ * Counts per status and delivered revenue per day (in cents, by the day the order
+ * was placed) are bumped from committed status changes, and periodically
+ * reconciled against the database to correct any drift.
+ */
+@Service
+@Slf4j
+public class OrderStatsService {
+
+    private final OrderRepository orderRepository;
+    private final int revenueDays;
+
+    private final Map<OrderStatus, LongAdder> countByStatus = new EnumMap<>(OrderStatus.class);
+    private final Map<LocalDate, LongAdder> revenueCentsByDay = new ConcurrentHashMap<>();
+    private volatile LocalDateTime reconciledAt;
+
+    public OrderStatsService(OrderRepository orderRepository,
+                             @Value("${app.orders.stats.revenue-days:30}") int revenueDays) {
+        this.orderRepository = orderRepository;
+        this.revenueDays = revenueDays;
+        for (OrderStatus status : OrderStatus.values()) {
+            countByStatus.put(status, new LongAdder());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() != null) {
+            countByStatus.get(event.getPreviousStatus()).decrement();
+        }
+        countByStatus.get(event.getStatus()).increment();
+
+        boolean wasDelivered = event.getPreviousStatus() == OrderStatus.DELIVERED;
+        boolean isDelivered = event.getStatus() == OrderStatus.DELIVERED;
+        if (wasDelivered != isDelivered && event.getCreatedDate() != null && event.getTotalAmount() != null) {
+            LocalDate day = event.getCreatedDate().toLocalDate();
+            if (!day.isBefore(firstDay())) {
+                long cents = Money.toCents(event.getTotalAmount());
+                revenueCentsByDay.computeIfAbsent(day, d -> new LongAdder()).add(isDelivered ? cents : -cents);
+            }
+        }
+    }
+
+    public OrderStatsResponse getStats() {
+        Map<OrderStatus, Long> orders = new EnumMap<>(OrderStatus.class);
+        long total = 0;
+        for (Map.Entry<OrderStatus, LongAdder> entry : countByStatus.entrySet()) {
+            long count = entry.getValue().sum();
+            orders.put(entry.getKey(), count);
+            total += count;
+        }
+
+        Map<LocalDate, BigDecimal> revenueByDay = new LinkedHashMap<>();
+        long revenueCents = 0;
+        for (LocalDate day = firstDay(), today = LocalDate.now(); !day.isAfter(today); day = day.plusDays(1)) {
+            LongAdder adder = revenueCentsByDay.get(day);
+            long cents = adder != null ? adder.sum() : 0;
+            revenueByDay.put(day, Money.toDecimal(cents));
+            revenueCents += cents;
+        }
+
+        return new OrderStatsResponse(orders, total, revenueByDay, Money.toDecimal(revenueCents), reconciledAt);
+    }
+
+    /**
+     * Moves every counter onto the database figures by adding the difference, so
+     * changes applied meanwhile are kept. A transition that commits while the
+     * queries run can still leave a counter one off until the next run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.orders.stats.reconcile-interval-ms:300000}",
+            fixedDelayString = "${app.orders.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        LocalDate firstDay = firstDay();
+
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (Object[] row : orderRepository.countPerStatus()) {
+            counts.put((OrderStatus) row[0], (Long) row[1]);
+        }
+        Map<LocalDate, Long> revenue = new HashMap<>();
+        for (Object[] row : orderRepository.getDeliveredRevenuePerDay(firstDay.atStartOfDay())) {
+            LocalDate day = LocalDate.of((Integer) row[0], (Integer) row[1], (Integer) row[2]);
+            revenue.put(day, Money.toCents((BigDecimal) row[3]));
+        }
+
+        long drift = 0;
+        for (Map.Entry<OrderStatus, LongAdder> entry : countByStatus.entrySet()) {
+            drift += correct(entry.getValue(), counts.getOrDefault(entry.getKey(), 0L));
+        }
+        revenueCentsByDay.keySet().removeIf(day -> day.isBefore(firstDay));
+        for (Map.Entry<LocalDate, Long> entry : revenue.entrySet()) {
+            correct(revenueCentsByDay.computeIfAbsent(entry.getKey(), d -> new LongAdder()), entry.getValue());
+        }
+        revenueCentsByDay.forEach((day, adder) -> {
+            if (!revenue.containsKey(day)) {
+                correct(adder, 0);
+            }
+        });
+
+        reconciledAt = LocalDateTime.now();
+        if (drift != 0) {
+            log.warn("Order counters were off by {} orders; reconciled with the database", drift);
+        }
+    }
+
+    private long correct(LongAdder adder, long expected) {
+        long difference = expected - adder.sum();
+        adder.add(difference);
+        return Math.abs(difference);
+    }
+
+    private LocalDate firstDay() {
+        return LocalDate.now().minusDays(revenueDays - 1L);
+    }
+}
@@ -0,0 +1,152 @@
+package com.e_commerce.e_commerce.util;
+
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns keyset scroll positions into opaque "after" tokens and back.
+ * A token is the sort key values of the last row returned (e.g. createdDate and
+ * productId), each tagged with its type so it binds correctly on the way back in.
+ */
+public final class CursorCodec {
+
+    public static final int MAX_SIZE = 100;
+
+    // Enum keys are written by simple name and only resolved in this package
+    private static final String ENUM_PACKAGE = "com.e_commerce.e_commerce.enums.";
+
+    private CursorCodec() {
+    }
+
+    public static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    /**
+     * Rejects a sort on anything but the given keys, before the query runs. A scroll can
+     * only page by columns that are never null: the last row's keys go into the next cursor.
+     */
+    public static void checkSort(Sort sort, Set<String> keys) {
+        for (Sort.Order order : sort) {
+            if (!keys.contains(order.getProperty())) {
+                throw new BadRequestException("Cannot page by " + order.getProperty() +
+                        "; sort by one of " + String.join(", ", keys.stream().sorted().toList()));
+            }
+        }
+    }
+
+    public static String nextCursor(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        return encode((KeysetScrollPosition) window.positionAt(window.size() - 1));
+    }
+
+    public static String encode(KeysetScrollPosition position) {
+        StringBuilder token = new StringBuilder();
+        for (Map.Entry<String, ?> key : position.getKeys().entrySet()) {
+            if (token.length() > 0) {
+                token.append('&');
+            }
+            token.append(key.getKey()).append('=').append(encodeValue(key.getKey(), key.getValue()));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an "after" token for a query sorted by {@code sort}.
+     * A missing or empty token starts from the beginning.
+     */
+    public static KeysetScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String pair : token.split("&")) {
+                int separator = pair.indexOf('=');
+                keys.put(pair.substring(0, separator), decodeValue(pair.substring(separator + 1)));
+            }
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+
+        for (Sort.Order order : sort) {
+            if (!keys.containsKey(order.getProperty())) {
+                throw new BadRequestException("Cursor does not match sort: " + order.getProperty());
+            }
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static String encodeValue(String property, Object value) {
+        String tag;
+        if (value == null) {
+            // A keyset comparison never matches null, so the next page would silently come back short
+            throw new BadRequestException("Cannot page by " + property + ": some rows have no value for it");
+        } else if (value instanceof Enum<?> constant) {
+            if (!constant.getDeclaringClass().getName().startsWith(ENUM_PACKAGE)) {
+                throw new BadRequestException("Cannot page by " + property);
+            }
+            return "E:" + constant.getDeclaringClass().getSimpleName() + "." + constant.name();
+        } else if (value instanceof Long) {
+            tag = "L";
+        } else if (value instanceof Integer) {
+            tag = "I";
+        } else if (value instanceof BigDecimal) {
+            tag = "D";
+        } else if (value instanceof LocalDateTime) {
+            tag = "T";
+        } else if (value instanceof String) {
+            tag = "S";
+        } else {
+            throw new BadRequestException("Cannot page by " + property);
+        }
+        return tag + ":" + URLEncoder.encode(value.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static Object decodeValue(String encoded) {
+        String value = URLDecoder.decode(encoded.substring(2), StandardCharsets.UTF_8);
+        return switch (encoded.charAt(0)) {
+            case 'E' -> decodeEnum(value);
+            case 'L' -> Long.valueOf(value);
+            case 'I' -> Integer.valueOf(value);
+            case 'D' -> new BigDecimal(value);
+            case 'T' -> LocalDateTime.parse(value);
+            case 'S' -> value;
+            default -> throw new IllegalArgumentException("Unknown cursor value type");
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Enum<?> decodeEnum(String value) {
+        int separator = value.indexOf('.');
+        try {
+            Class<?> type = Class.forName(ENUM_PACKAGE + value.substring(0, separator));
+            if (!type.isEnum()) {
+                throw new IllegalArgumentException("Not an enum: " + type.getSimpleName());
+            }
+            return Enum.valueOf((Class) type, value.substring(separator + 1));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown enum type", e);
+        }
+    }
+}
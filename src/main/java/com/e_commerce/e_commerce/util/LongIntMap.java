@@ -0,0 +1,134 @@
+package com.e_commerce.e_commerce.util;
+
+/**
+ * Open-addressing map from long to int (product id to quantity, to count) on two primitive
+ * arrays, so an entry costs twelve bytes instead of two boxed objects and a map node. A value
+ * of zero marks a free slot: storing zero removes the key. Not thread-safe.
+ */
+public final class LongIntMap {
+
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The value for the key, or zero when it is absent.
+     */
+    public int get(long key) {
+        for (int slot = slot(key); values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sets the value (zero removes the key) and returns the previous one.
+     */
+    public int put(long key, int value) {
+        int slot = slot(key);
+        for (; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                if (value == 0) {
+                    removeAt(slot);
+                } else {
+                    values[slot] = value;
+                }
+                return previous;
+            }
+        }
+        if (value != 0) {
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds to the value (a result of zero removes the key) and returns the new one.
+     */
+    public int add(long key, int delta) {
+        int value = get(key) + delta;
+        put(key, value);
+        return value;
+    }
+
+    public int remove(long key) {
+        return put(key, 0);
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != 0) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    // Linear probing without tombstones: pull later entries of the run back into the gap
+    private void removeAt(int slot) {
+        int gap = slot;
+        for (int next = (slot + 1) & mask; values[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != 0) {
+                put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
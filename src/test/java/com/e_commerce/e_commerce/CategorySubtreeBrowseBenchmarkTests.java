@@ -0,0 +1,162 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.dto.request.CategoryRequest;
+import com.e_commerce.e_commerce.dto.response.UserProductResponse;
+import com.e_commerce.e_commerce.service.CategoryService;
+import com.e_commerce.e_commerce.service.ProductService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares browsing a category with everything below it the way clients had to
+ * (one category listing per subcategory, merged) with a single includeDescendants
+ * listing, on a deep chain and on a wide fan of categories. Seeds its own catalog;
+ * run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class CategorySubtreeBrowseBenchmarkTests {
+
+    private static final int DEPTH = 40;
+    private static final int WIDTH = 300;
+    private static final int PRODUCTS = 30_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 15;
+
+    private static final Comparator<UserProductResponse> NEWEST_FIRST =
+            Comparator.comparing(UserProductResponse::getProductId, Comparator.reverseOrder());
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String run = Long.toString(System.nanoTime(), 36).toUpperCase();
+    private final List<Long> deepIds = new ArrayList<>();
+    private final List<Long> wideIds = new ArrayList<>();
+
+    @BeforeAll
+    void seedCatalog() {
+        // Deep: a chain of DEPTH categories, each the parent of the next
+        Long parent = null;
+        for (int i = 0; i < DEPTH; i++) {
+            parent = createCategory("Deep " + run + " " + i, parent);
+            deepIds.add(parent);
+        }
+        // Wide: one root with WIDTH children
+        Long wideRoot = createCategory("Wide " + run + " root", null);
+        wideIds.add(wideRoot);
+        for (int i = 0; i < WIDTH; i++) {
+            wideIds.add(createCategory("Wide " + run + " " + i, wideRoot));
+        }
+
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            rows.add(new Object[]{"Browse item " + i, BigDecimal.valueOf(1 + i % 500), "BROWSE-" + run + "-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO PRODUCTS (PRODUCT_ID, NAME, PRICE, SKU, QUANTITY, STATUS, " +
+                "CREATED_DATE, UPDATED_DATE) VALUES (PRODUCT_SEQ.NEXTVAL, ?, ?, ?, 10, 'ACTIVE', " +
+                "SYSTIMESTAMP, SYSTIMESTAMP)", rows);
+
+        // Every product sits in exactly one category, spread evenly over both trees
+        List<Long> all = new ArrayList<>(deepIds);
+        all.addAll(wideIds);
+        for (int c = 0; c < all.size(); c++) {
+            jdbcTemplate.update("INSERT INTO PRODUCT_CATEGORIES (PRODUCT_ID, CATEGORY_ID) " +
+                            "SELECT PRODUCT_ID, ? FROM PRODUCTS WHERE SKU LIKE ? AND MOD(PRODUCT_ID, ?) = ?",
+                    all.get(c), "BROWSE-" + run + "-%", all.size(), c);
+        }
+    }
+
+    @AfterAll
+    void removeCatalog() {
+        jdbcTemplate.update("DELETE FROM PRODUCT_CATEGORIES WHERE PRODUCT_ID IN " +
+                "(SELECT PRODUCT_ID FROM PRODUCTS WHERE SKU LIKE ?)", "BROWSE-" + run + "-%");
+        jdbcTemplate.update("DELETE FROM PRODUCTS WHERE SKU LIKE ?", "BROWSE-" + run + "-%");
+        categoryService.deleteCategoryWithSubcategories(deepIds.get(0));
+        categoryService.deleteCategoryWithSubcategories(wideIds.get(0));
+    }
+
+    @Test
+    void compareSubtreeBrowsing() {
+        Pageable page = PageRequest.of(0, 20, Sort.by("productId").descending());
+
+        compare("deep chain, from root", deepIds.get(0), deepIds, page);
+        compare("deep chain, from middle", deepIds.get(DEPTH / 2), deepIds.subList(DEPTH / 2, DEPTH), page);
+        compare("wide fan, from root", wideIds.get(0), wideIds, page);
+    }
+
+    private void compare(String label, Long categoryId, List<Long> subtree, Pageable page) {
+        Supplier<Page<UserProductResponse>> fanOut = () -> fanOut(subtree, page);
+        Supplier<Page<UserProductResponse>> single = () -> productService.getProductsByCategory(categoryId, true, page);
+
+        double fanOutMs = time(fanOut);
+        double singleMs = time(single);
+
+        Page<UserProductResponse> expected = fanOut.get();
+        Page<UserProductResponse> actual = single.get();
+        assertThat(actual.getTotalElements()).isEqualTo(expected.getTotalElements());
+        assertThat(actual.getContent()).extracting(UserProductResponse::getProductId)
+                .containsExactlyElementsOf(expected.getContent().stream().map(UserProductResponse::getProductId).toList());
+
+        System.out.printf("%-26s categories=%4d matches=%6d  fan-out %8.2f ms  includeDescendants %8.2f ms%n",
+                label, subtree.size(), actual.getTotalElements(), fanOutMs, singleMs);
+    }
+
+    // What a client had to do: list every category of the subtree on its own and merge the first pages
+    private Page<UserProductResponse> fanOut(List<Long> subtree, Pageable page) {
+        List<UserProductResponse> merged = new ArrayList<>();
+        long total = 0;
+        for (Long id : subtree) {
+            Page<UserProductResponse> products = productService.getProductsByCategory(id, false, page);
+            merged.addAll(products.getContent());
+            total += products.getTotalElements();
+        }
+        merged.sort(NEWEST_FIRST);
+        return new PageImpl<>(merged.subList(0, Math.min(page.getPageSize(), merged.size())), page, total);
+    }
+
+    private double time(Supplier<Page<UserProductResponse>> listing) {
+        for (int i = 0; i < WARMUP; i++) {
+            listing.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            listing.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private Long createCategory(String name, Long parentId) {
+        CategoryRequest request = new CategoryRequest();
+        request.setName(name);
+        request.setParentId(parentId);
+        return categoryService.createCategory(request).getCategoryId();
+    }
+}
@@ -0,0 +1,84 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.repository.IdempotencyRecordRepository;
+import com.e_commerce.e_commerce.service.idempotency.IdempotencyStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A claim on the shared idempotency table must stay with its request for as long as the
+ * request's transaction runs, even past app.idempotency.wait-timeout, and only run out
+ * once nobody holds it.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = {"app.idempotency.store=database", "app.idempotency.wait-timeout=1s"})
+class IdempotencyClaimLockTests {
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String key = "claim-lock:" + System.nanoTime();
+
+    @AfterEach
+    void removeKey() {
+        recordRepository.deleteById(key);
+    }
+
+    @Test
+    void claimHeldByARunningRequestOutlivesTheTimeout() throws Exception {
+        assertThat(store.claim(key, "hash")).isTrue();
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Void> owner = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    store.hold(key);
+                    holding.countDown();
+                    await(finish);
+                    store.complete(key, "hash", "\"order-1\"");
+                }));
+        assertThat(holding.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Thread.sleep(1_500);
+        assertThat(store.claim(key, "hash")).isFalse();
+
+        finish.countDown();
+        owner.get(10, TimeUnit.SECONDS);
+        assertThat(store.claim(key, "hash")).isFalse();
+        assertThat(store.find(key)).hasValueSatisfying(stored ->
+                assertThat(stored.getResponseBody()).isEqualTo("\"order-1\""));
+    }
+
+    @Test
+    void claimNobodyHoldsRunsOut() throws Exception {
+        assertThat(store.claim(key, "hash")).isTrue();
+        assertThat(store.claim(key, "hash")).isFalse();
+
+        Thread.sleep(1_500);
+        assertThat(store.claim(key, "hash")).isTrue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
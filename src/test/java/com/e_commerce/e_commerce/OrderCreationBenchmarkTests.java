@@ -0,0 +1,178 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.dto.request.GuestOrderRequest;
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.model.Product;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Order creation throughput with ten-item orders, with JDBC batching switched off
+ * for the session and with the configured batch size. Sequence round trips show up
+ * in the statement count; run the same benchmark on a checkout with
+ * {@code allocationSize = 1} for the pre-pooling baseline. Also reports statements
+ * and latency per order for 1, 10 and 50 line items.
+ * Run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderCreationBenchmarkTests {
+
+    private static final int ITEMS_PER_ORDER = 10;
+    private static final int MAX_ITEMS = 50;
+    private static final int WARMUP_ORDERS = 20;
+    private static final int ORDERS = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String run = Long.toString(System.nanoTime(), 36).toUpperCase();
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeAll
+    void seedProducts() {
+        for (int i = 0; i < MAX_ITEMS; i++) {
+            Product product = new Product();
+            product.setName("Order bench " + i);
+            product.setPrice(BigDecimal.valueOf(5 + i));
+            product.setSku("OBENCH-" + run + "-" + i);
+            product.setQuantity(1_000_000);
+            productIds.add(productRepository.save(product).getProductId());
+        }
+    }
+
+    @AfterAll
+    void removeOrders() {
+        jdbcTemplate.update("DELETE FROM ORDER_ITEMS WHERE PRODUCT_ID IN " +
+                "(SELECT PRODUCT_ID FROM PRODUCTS WHERE SKU LIKE ?)", "OBENCH-" + run + "-%");
+        jdbcTemplate.update("DELETE FROM ORDERS WHERE CUSTOMER_EMAIL = ?", email());
+        productRepository.deleteAllById(productIds);
+    }
+
+    @Test
+    void orderCreationThroughput() {
+        measure("unbatched", 1);
+        measure("batched", null);
+    }
+
+    @Test
+    void statementsAndLatencyByOrderSize() {
+        for (int items : new int[]{1, 10, 50}) {
+            for (int i = 0; i < WARMUP_ORDERS; i++) {
+                placeOrder(null, items);
+            }
+
+            Statistics statistics = statistics();
+            statistics.clear();
+            long[] latencies = new long[ORDERS];
+            for (int i = 0; i < ORDERS; i++) {
+                long start = System.nanoTime();
+                placeOrder(null, items);
+                latencies[i] = System.nanoTime() - start;
+            }
+            long orderStatements = statistics.getPrepareStatementCount();
+
+            Arrays.sort(latencies);
+            System.out.printf("%2d items  %6.1f statements/order  mean %6.2f ms  p95 %6.2f ms%n",
+                    items, (double) orderStatements / ORDERS,
+                    Arrays.stream(latencies).average().orElse(0) / 1_000_000.0,
+                    latencies[(int) (ORDERS * 0.95)] / 1_000_000.0);
+        }
+    }
+
+    private void measure(String label, Integer jdbcBatchSize) {
+        for (int i = 0; i < WARMUP_ORDERS; i++) {
+            placeOrder(jdbcBatchSize, ITEMS_PER_ORDER);
+        }
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            placeOrder(jdbcBatchSize, ITEMS_PER_ORDER);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%-10s %8.1f orders/s  %6.1f statements/order%n",
+                label, ORDERS / seconds, (double) statistics.getPrepareStatementCount() / ORDERS);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void placeOrder(Integer jdbcBatchSize, int items) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            orderService.createGuestOrder(orderRequest(items));
+        });
+    }
+
+    private GuestOrderRequest orderRequest(int itemCount) {
+        GuestOrderRequest request = new GuestOrderRequest();
+        request.setFirstName("Bench");
+        request.setLastName("Runner");
+        request.setEmail(email());
+        request.setPhone("5550000");
+        request.setAddress("1 Bench Street");
+        request.setCity("Testville");
+        request.setState("TS");
+        request.setZipCode("00000");
+        request.setCountry("US");
+        request.setPaymentMethod("CASH_ON_DELIVERY");
+
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (Long productId : productIds.subList(0, itemCount)) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(productId);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        request.setItems(items);
+        return request;
+    }
+
+    private String email() {
+        return "bench-" + run.toLowerCase() + "@example.com";
+    }
+}
@@ -0,0 +1,160 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.dto.request.UserOrderRequest;
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.model.Order;
+import com.e_commerce.e_commerce.model.Product;
+import com.e_commerce.e_commerce.model.Shipment;
+import com.e_commerce.e_commerce.model.User;
+import com.e_commerce.e_commerce.repository.OrderRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.repository.UserRepository;
+import com.e_commerce.e_commerce.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order listings must cost a fixed number of statements per request, however
+ * many orders (and items and shipments per order) are on the page.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderListingStatementCountTests {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Product> products = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void seedOrders() {
+        String run = Long.toString(System.nanoTime(), 36).toUpperCase();
+
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Order listing probe " + i);
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setSku("OLS-" + run + "-" + i);
+            product.setQuantity(100);
+            products.add(productRepository.save(product));
+        }
+
+        User customer = new User();
+        customer.setEmail("orders-" + run.toLowerCase() + "@example.com");
+        customer.setPassword("not-a-real-hash");
+        customer.setFirstName("Listing");
+        customer.setLastName("Probe");
+        user = userRepository.save(customer);
+
+        for (int i = 0; i < 24; i++) {
+            Long orderId = orderService.createUserOrder(user.getUserId(), order(i)).getOrderId();
+            // Every other order has shipped, so pages mix orders with and without a shipment
+            if (i % 2 == 0) {
+                Order order = orderRepository.findById(orderId).orElseThrow();
+                Shipment shipment = new Shipment();
+                shipment.setOrder(order);
+                shipment.setTrackingNumber("TRK-" + run + "-" + i);
+                order.setShipment(shipment);
+                orderRepository.save(order);
+            }
+        }
+    }
+
+    @AfterEach
+    void removeOrders() {
+        orderRepository.deleteAll(orderRepository.findByUserUserIdOrderByCreatedDateDesc(user.getUserId()));
+        userRepository.delete(user);
+        productRepository.deleteAll(products);
+    }
+
+    @Test
+    void userOrderPageCostsPageCountAndItemQueries() {
+        assertBounded(3, size -> orderService.getUserOrders(user.getUserId(), PageRequest.of(0, size)));
+    }
+
+    @Test
+    void userOrderScrollCostsWindowAndItemQueries() {
+        assertBounded(2, size -> orderService.scrollUserOrders(user.getUserId(), null, size));
+    }
+
+    @Test
+    void adminOrderScrollCostsWindowAndItemQueries() {
+        Sort sort = Sort.by("createdDate").descending();
+        assertBounded(2, size -> orderService.scrollAllOrders(sort, null, size));
+    }
+
+    @Test
+    void adminOrderSummariesCostPageAndCountQueries() {
+        Sort sort = Sort.by("createdDate").descending();
+        assertBounded(2, size -> orderService.getAllOrders(PageRequest.of(0, size, sort)));
+        assertBounded(2, size -> orderService.getOrdersByStatus(OrderStatus.PENDING, PageRequest.of(0, size, sort)));
+    }
+
+    private void assertBounded(long maxStatements, IntConsumer listing) {
+        long smallPage = statementsFor(listing, 4);
+        long fullPage = statementsFor(listing, 12);
+
+        assertThat(fullPage).isEqualTo(smallPage);
+        assertThat(fullPage).isLessThanOrEqualTo(maxStatements);
+    }
+
+    private long statementsFor(IntConsumer listing, int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        listing.accept(size);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UserOrderRequest order(int index) {
+        List<OrderItemRequest> items = new ArrayList<>();
+        // One to three lines per order
+        for (int i = 0; i <= index % products.size(); i++) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(products.get(i).getProductId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+
+        UserOrderRequest request = new UserOrderRequest();
+        request.setShippingAddress("1 Test Street");
+        request.setShippingCity("Springfield");
+        request.setShippingState("IL");
+        request.setShippingZipCode("62701");
+        request.setShippingCountry("US");
+        request.setPaymentMethod("CREDIT_CARD");
+        request.setItems(items);
+        return request;
+    }
+}
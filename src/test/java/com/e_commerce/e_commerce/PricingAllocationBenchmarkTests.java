@@ -0,0 +1,130 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.service.pricing.Money;
+import com.e_commerce.e_commerce.service.pricing.PriceBreakdown;
+import com.e_commerce.e_commerce.service.pricing.PricingEngine;
+import com.e_commerce.e_commerce.service.pricing.TablePricingEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes allocated and time per order line when pricing with BigDecimal arithmetic (as
+ * order placement used to) and with cents. Allocation is read from the thread's
+ * allocation counter after a JIT warm-up, so it reflects what escapes in compiled code.
+ * Run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class PricingAllocationBenchmarkTests {
+
+    private static final int LINES_PER_ORDER = 10;
+    private static final int WARMUP_ORDERS = 200_000;
+    private static final int ORDERS = 1_000_000;
+
+    private final PricingEngine pricingEngine =
+            new TablePricingEngine(new BigDecimal("0.10"), "US:0.05,US-CA:0.0725", "0:10.00,50:0");
+
+    private final BigDecimal[] prices = new BigDecimal[LINES_PER_ORDER];
+    private final int[] quantities = new int[LINES_PER_ORDER];
+    // Amounts handed to entities escape, as they do when orders are saved
+    private final BigDecimal[] entityAmounts = new BigDecimal[LINES_PER_ORDER + 4];
+
+    PricingAllocationBenchmarkTests() {
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            prices[i] = new BigDecimal("3.49").add(BigDecimal.valueOf(i * 125L, 2));
+            quantities[i] = 1 + i % 3;
+        }
+    }
+
+    @Test
+    void allocationPerLine() {
+        Result bigDecimal = measure("BigDecimal arithmetic", this::priceWithBigDecimal);
+        Result cents = measure("cents arithmetic", this::priceWithCents);
+        Result centsWithEntities = measure("cents + BigDecimal for entities", this::priceWithCentsForEntities);
+
+        System.out.printf("Allocation drop per line (arithmetic only): %.0f%%%n",
+                100 * (1 - cents.bytesPerLine / bigDecimal.bytesPerLine));
+
+        assertThat(priceWithCents()).isEqualTo(priceWithBigDecimal());
+        assertThat(cents.bytesPerLine).isLessThan(bigDecimal.bytesPerLine);
+        assertThat(centsWithEntities.bytesPerLine).isLessThan(bigDecimal.bytesPerLine);
+    }
+
+    // The order placement loop before the pricing engine
+    private long priceWithBigDecimal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            BigDecimal lineTotal = prices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            subtotal = subtotal.add(lineTotal);
+        }
+        BigDecimal taxAmount = subtotal.multiply(BigDecimal.valueOf(0.10)).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal shippingCost = subtotal.compareTo(BigDecimal.valueOf(50)) >= 0 ?
+                BigDecimal.ZERO : BigDecimal.valueOf(10.00);
+        BigDecimal totalAmount = subtotal.add(taxAmount).add(shippingCost).setScale(2, RoundingMode.HALF_UP);
+        return Money.toCents(totalAmount);
+    }
+
+    private long priceWithCents() {
+        long subtotalCents = 0;
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            subtotalCents += Money.toCents(prices[i]) * quantities[i];
+        }
+        return pricingEngine.price(subtotalCents, null, null).getTotalCents();
+    }
+
+    // What order placement does now: cents, then a BigDecimal per line and per total for the entities
+    private long priceWithCentsForEntities() {
+        long subtotalCents = 0;
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            long lineCents = Money.toCents(prices[i]) * quantities[i];
+            entityAmounts[i] = Money.toDecimal(lineCents);
+            subtotalCents += lineCents;
+        }
+        PriceBreakdown price = pricingEngine.price(subtotalCents, null, null);
+        entityAmounts[LINES_PER_ORDER] = Money.toDecimal(price.getSubtotalCents());
+        entityAmounts[LINES_PER_ORDER + 1] = Money.toDecimal(price.getTaxCents());
+        entityAmounts[LINES_PER_ORDER + 2] = Money.toDecimal(price.getShippingCents());
+        entityAmounts[LINES_PER_ORDER + 3] = Money.toDecimal(price.getTotalCents());
+        return price.getTotalCents();
+    }
+
+    private Result measure(String label, LongSupplier order) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long blackhole = 0;
+        for (int i = 0; i < WARMUP_ORDERS; i++) {
+            blackhole += order.getAsLong();
+        }
+
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            blackhole += order.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        long lines = (long) ORDERS * LINES_PER_ORDER;
+        Result result = new Result((double) bytes / lines, (double) elapsed / lines);
+        System.out.printf("%-34s %7.1f bytes/line %7.1f ns/line (%d)%n",
+                label, result.bytesPerLine, result.nsPerLine, blackhole % 10);
+        return result;
+    }
+
+    private static class Result {
+        private final double bytesPerLine;
+        private final double nsPerLine;
+
+        private Result(double bytesPerLine, double nsPerLine) {
+            this.bytesPerLine = bytesPerLine;
+            this.nsPerLine = nsPerLine;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.dto.projection.ProductSummary;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the old catch-all filter query (every filter as {@code :x IS NULL OR ...},
+ * LEFT JOIN + DISTINCT on categories) with the per-shape query builder.
+ * Seeds its own catalog; run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ProductFilterQueryBenchmarkTests {
+
+    private static final int PRODUCTS = 50_000;
+    private static final int CATEGORIES = 40;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 30;
+
+    private static final String LEGACY_WHERE = " FROM Product p LEFT JOIN p.categories c WHERE " +
+            "(:categoryId IS NULL OR c.categoryId = :categoryId) AND " +
+            "(:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
+            "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand)) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+            "p.status = 'ACTIVE' AND p.quantity > 0";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String run = Long.toString(System.nanoTime(), 36).toUpperCase();
+    private final List<Long> categoryIds = new ArrayList<>();
+
+    @BeforeAll
+    void seedCatalog() {
+        for (int i = 0; i < CATEGORIES; i++) {
+            jdbcTemplate.update("INSERT INTO CATEGORIES (CATEGORY_ID, NAME, CREATED_DATE) " +
+                    "VALUES (CATEGORY_SEQ.NEXTVAL, ?, SYSTIMESTAMP)", "Bench " + run + " " + i);
+        }
+        categoryIds.addAll(jdbcTemplate.queryForList(
+                "SELECT CATEGORY_ID FROM CATEGORIES WHERE NAME LIKE ? ORDER BY CATEGORY_ID", Long.class,
+                "Bench " + run + " %"));
+
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            rows.add(new Object[]{
+                    "Bench item " + i + (i % 7 == 0 ? " wireless" : ""),
+                    "Seeded description " + i,
+                    BigDecimal.valueOf(1 + i % 500),
+                    "BENCH-" + run + "-" + i,
+                    i % 10,
+                    "Brand" + (i % 25)
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO PRODUCTS (PRODUCT_ID, NAME, DESCRIPTION, PRICE, SKU, QUANTITY, STATUS, " +
+                "BRAND, CREATED_DATE, UPDATED_DATE) VALUES (PRODUCT_SEQ.NEXTVAL, ?, ?, ?, ?, ?, 'ACTIVE', ?, " +
+                "SYSTIMESTAMP, SYSTIMESTAMP)", rows);
+
+        // Every product sits in three categories, which is what makes join + DISTINCT expensive
+        for (int k = 0; k < 3; k++) {
+            for (int c = 0; c < CATEGORIES; c++) {
+                jdbcTemplate.update("INSERT INTO PRODUCT_CATEGORIES (PRODUCT_ID, CATEGORY_ID) " +
+                        "SELECT PRODUCT_ID, ? FROM PRODUCTS WHERE SKU LIKE ? AND MOD(PRODUCT_ID + ?, ?) = ?",
+                        categoryIds.get(c), "BENCH-" + run + "-%", k * 13, CATEGORIES, c);
+            }
+        }
+    }
+
+    @AfterAll
+    void removeCatalog() {
+        jdbcTemplate.update("DELETE FROM PRODUCT_CATEGORIES WHERE PRODUCT_ID IN " +
+                "(SELECT PRODUCT_ID FROM PRODUCTS WHERE SKU LIKE ?)", "BENCH-" + run + "-%");
+        jdbcTemplate.update("DELETE FROM PRODUCTS WHERE SKU LIKE ?", "BENCH-" + run + "-%");
+        jdbcTemplate.update("DELETE FROM CATEGORIES WHERE NAME LIKE ?", "Bench " + run + " %");
+    }
+
+    @Test
+    void compareFilterPlans() {
+        Pageable page = PageRequest.of(2, 20, Sort.by("createdDate").descending().and(Sort.by("productId")));
+        Long category = categoryIds.get(CATEGORIES / 2);
+
+        compare("no filters", page, null, null, null, null, null);
+        compare("category", page, category, null, null, null, null);
+        compare("category + price range", page, category, null, null,
+                BigDecimal.valueOf(100), BigDecimal.valueOf(200));
+        compare("brand + min price", page, null, null, "brand7", BigDecimal.valueOf(250), null);
+        compare("search + category", page, category, "wireless", null, null, null);
+    }
+
+    private void compare(String label, Pageable page, Long categoryId, String searchTerm, String brand,
+                         BigDecimal minPrice, BigDecimal maxPrice) {
+        Supplier<Page<ProductSummary>> legacy =
+                () -> legacyFilter(categoryId, searchTerm, brand, minPrice, maxPrice, page);
+        Supplier<Page<ProductSummary>> builder = () -> productRepository.findProductSummariesByFilter(
+                categoryId, searchTerm, brand, minPrice, maxPrice, page);
+
+        double legacyMs = time(legacy);
+        double builderMs = time(builder);
+
+        Page<ProductSummary> expected = inTransaction(legacy);
+        Page<ProductSummary> actual = inTransaction(builder);
+        assertThat(actual.getTotalElements()).isEqualTo(expected.getTotalElements());
+        assertThat(actual.getContent()).extracting(ProductSummary::getProductId)
+                .containsExactlyElementsOf(expected.getContent().stream().map(ProductSummary::getProductId).toList());
+
+        System.out.printf("%-24s matches=%6d  catch-all %8.2f ms  builder %8.2f ms%n",
+                label, actual.getTotalElements(), legacyMs, builderMs);
+    }
+
+    private double time(Supplier<Page<ProductSummary>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            inTransaction(query);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            inTransaction(query);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private Page<ProductSummary> legacyFilter(Long categoryId, String searchTerm, String brand,
+                                              BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        String orderBy = pageable.getSort().stream()
+                .map(order -> "p." + order.getProperty() + " " + order.getDirection())
+                .reduce((a, b) -> a + ", " + b)
+                .map(clause -> " ORDER BY " + clause)
+                .orElse("");
+        List<ProductSummary> content = entityManager
+                .createQuery("SELECT DISTINCT " + ProductRepository.SUMMARY + LEGACY_WHERE + orderBy,
+                        ProductSummary.class)
+                .setParameter("categoryId", categoryId)
+                .setParameter("searchTerm", searchTerm)
+                .setParameter("brand", brand)
+                .setParameter("minPrice", minPrice)
+                .setParameter("maxPrice", maxPrice)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        Long total = entityManager.createQuery("SELECT COUNT(DISTINCT p)" + LEGACY_WHERE, Long.class)
+                .setParameter("categoryId", categoryId)
+                .setParameter("searchTerm", searchTerm)
+                .setParameter("brand", brand)
+                .setParameter("minPrice", minPrice)
+                .setParameter("maxPrice", maxPrice)
+                .getSingleResult();
+        return new PageImpl<>(content, pageable, total);
+    }
+}
@@ -0,0 +1,132 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import com.e_commerce.e_commerce.model.Category;
+import com.e_commerce.e_commerce.model.Product;
+import com.e_commerce.e_commerce.repository.CategoryRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Product listings must cost a fixed number of statements per request, however
+ * many products (and categories per product) are on the page.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ProductListingStatementCountTests {
+
+    // Page query + COUNT query + one batched category query
+    private static final long MAX_STATEMENTS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final List<Category> categories = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private String brand;
+    private String probe;
+
+    @BeforeEach
+    void seedCatalog() {
+        String run = Long.toString(System.nanoTime(), 36).toUpperCase();
+        brand = "BRAND" + run;
+        probe = "probe" + run;
+
+        for (int i = 0; i < 2; i++) {
+            Category category = new Category();
+            category.setName("Listing " + run + " " + i);
+            categories.add(categoryRepository.save(category));
+        }
+
+        for (int i = 0; i < 24; i++) {
+            Product product = new Product();
+            product.setName("Listing " + probe + " " + i);
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setSku("LST-" + run + "-" + i);
+            product.setQuantity(5);
+            product.setBrand(brand);
+            categories.forEach(product::addCategory);
+            products.add(productRepository.save(product));
+        }
+        // Seeded through the repository, so tell the search index as ProductService would
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.of(product)));
+    }
+
+    @AfterEach
+    void removeCatalog() {
+        products.forEach(product -> {
+            product.setStatus("INACTIVE");
+            eventPublisher.publishEvent(ProductChangedEvent.of(product));
+        });
+        productRepository.deleteAll(products);
+        categoryRepository.deleteAll(categories);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/public/products",
+            "/api/public/products/scroll",
+            "/api/public/products/category/{category}",
+            "/api/public/products/filter?brand={brand}",
+            "/api/public/products/search?q={probe}"
+    })
+    void statementCountDoesNotGrowWithPageSize(String endpoint) throws Exception {
+        String url = endpoint
+                .replace("{category}", categories.get(0).getCategoryId().toString())
+                .replace("{brand}", brand)
+                .replace("{probe}", probe);
+        String separator = url.contains("?") ? "&" : "?";
+
+        long smallPage = statementsFor(url + separator + "size=4");
+        long fullPage = statementsFor(url + separator + "size=12");
+
+        assertThat(fullPage).isEqualTo(smallPage);
+        assertThat(fullPage).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private long statementsFor(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // An empty page would pass on statement count alone
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isNotEmpty());
+
+        return statistics.getPrepareStatementCount();
+    }
+}
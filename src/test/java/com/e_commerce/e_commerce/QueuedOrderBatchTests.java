@@ -0,0 +1,160 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.dto.request.GuestOrderRequest;
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.dto.response.OrderIntakeResponse;
+import com.e_commerce.e_commerce.enums.IntakeStatus;
+import com.e_commerce.e_commerce.model.Product;
+import com.e_commerce.e_commerce.repository.OrderIntakeRecordRepository;
+import com.e_commerce.e_commerce.repository.OrderRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.service.OrderNumberGenerator;
+import com.e_commerce.e_commerce.service.OrderService;
+import com.e_commerce.e_commerce.service.intake.OrderIntakeService;
+import com.e_commerce.e_commerce.service.intake.QueuedOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A queued order that runs short of stock must fail on its own, through the real order
+ * and inventory services and their transactional proxies: the rest of its batch commits,
+ * its own partial stock take is put back, and its failure is recorded.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class QueuedOrderBatchTests {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderIntakeRecordRepository intakeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<String> orderNumbers = new ArrayList<>();
+    private Product plenty;
+    private Product scarce;
+
+    @BeforeEach
+    void seedProducts() {
+        String run = Long.toString(System.nanoTime(), 36).toUpperCase();
+        plenty = product("QOB-" + run + "-A", 10);
+        scarce = product("QOB-" + run + "-B", 1);
+    }
+
+    @AfterEach
+    void removeOrders() {
+        orderNumbers.forEach(orderNumber -> orderRepository.findByOrderNumber(orderNumber)
+                .ifPresent(orderRepository::delete));
+        transactionTemplate.executeWithoutResult(status -> intakeRepository.deleteByOrderNumbers(orderNumbers));
+        productRepository.deleteAll(List.of(plenty, scarce));
+    }
+
+    @Test
+    void shortOrderFailsAloneAndTheBatchCommits() {
+        QueuedOrder firstOrder = queued(item(plenty, 1));
+        // Takes the plentiful product first (lower id), then runs short on the scarce one
+        QueuedOrder shortOrder = queued(item(plenty, 2), item(scarce, 2));
+        QueuedOrder lastOrder = queued(item(plenty, 1), item(scarce, 1));
+
+        Map<String, RuntimeException> failures = transactionTemplate.execute(status ->
+                orderService.placeQueuedOrders(List.of(firstOrder, shortOrder, lastOrder)));
+
+        assertThat(failures).containsOnlyKeys(shortOrder.getOrderNumber());
+        assertThat(failures.get(shortOrder.getOrderNumber())).hasMessageContaining("Insufficient stock");
+        assertThat(orderRepository.existsByOrderNumber(firstOrder.getOrderNumber())).isTrue();
+        assertThat(orderRepository.existsByOrderNumber(shortOrder.getOrderNumber())).isFalse();
+        assertThat(orderRepository.existsByOrderNumber(lastOrder.getOrderNumber())).isTrue();
+        assertThat(quantity(plenty)).isEqualTo(8);
+        assertThat(quantity(scarce)).isZero();
+    }
+
+    @Test
+    void intakeRecordsTheStockFailure() throws InterruptedException {
+        OrderIntakeResponse accepted = orderIntakeService.submitGuestOrder(guestRequest(item(scarce, 5)));
+        orderNumbers.add(accepted.getOrderNumber());
+
+        OrderIntakeResponse status = accepted;
+        for (int i = 0; i < 100 && (status.getStatus() == IntakeStatus.QUEUED
+                || status.getStatus() == IntakeStatus.PROCESSING); i++) {
+            Thread.sleep(100);
+            status = orderIntakeService.getStatus(accepted.getOrderNumber(), null);
+        }
+
+        assertThat(status.getStatus()).isEqualTo(IntakeStatus.FAILED);
+        assertThat(status.getMessage()).contains("Insufficient stock");
+        assertThat(intakeRepository.findById(accepted.getOrderNumber())).hasValueSatisfying(record -> {
+            assertThat(record.getStatus()).isEqualTo(IntakeStatus.FAILED);
+            assertThat(record.getMessage()).contains("Insufficient stock");
+        });
+        assertThat(quantity(scarce)).isEqualTo(1);
+    }
+
+    private Product product(String sku, int quantity) {
+        Product product = new Product();
+        product.setName("Queued batch probe " + sku);
+        product.setPrice(BigDecimal.TEN);
+        product.setSku(sku);
+        product.setQuantity(quantity);
+        return productRepository.save(product);
+    }
+
+    private int quantity(Product product) {
+        return productRepository.findById(product.getProductId()).orElseThrow().getQuantity();
+    }
+
+    private QueuedOrder queued(OrderItemRequest... items) {
+        QueuedOrder order = QueuedOrder.guest(orderNumberGenerator.next(), guestRequest(items));
+        orderNumbers.add(order.getOrderNumber());
+        return order;
+    }
+
+    private static OrderItemRequest item(Product product, int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(product.getProductId());
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static GuestOrderRequest guestRequest(OrderItemRequest... items) {
+        GuestOrderRequest request = new GuestOrderRequest();
+        request.setFirstName("Queued");
+        request.setLastName("Probe");
+        request.setEmail("queued-probe@example.com");
+        request.setPhone("5550100");
+        request.setAddress("1 Test Street");
+        request.setCity("Springfield");
+        request.setState("IL");
+        request.setZipCode("62701");
+        request.setCountry("US");
+        request.setPaymentMethod("CREDIT_CARD");
+        request.setItems(List.of(items));
+        return request;
+    }
+}
@@ -0,0 +1,244 @@
+package com.e_commerce.e_commerce;
+
+import com.e_commerce.e_commerce.dto.request.GuestOrderRequest;
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.dto.request.ReservationRequest;
+import com.e_commerce.e_commerce.dto.request.UserOrderRequest;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.model.Product;
+import com.e_commerce.e_commerce.model.User;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.repository.UserRepository;
+import com.e_commerce.e_commerce.service.OrderService;
+import com.e_commerce.e_commerce.service.inventory.StockReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many buyers racing for the same two products: every unit is sold exactly once,
+ * orders that cannot be filled are rejected, and none deadlock. Checked on the product
+ * rows as committed, with held stock staying on the shelf for its holders.
+ */
+@Import(TestcontainersConfiguration.class)
+// One buyer places every hold, so their per-user limits have to cover all of them
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "app.inventory.hold.max-per-user=40",
+        "app.inventory.hold.max-units-per-product=40"})
+class StockContentionStressTests {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+    private static final int STOCK = 150;
+    private static final int HOLDS = 40;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String run = Long.toString(System.nanoTime(), 36).toUpperCase();
+    private Product first;
+    private Product second;
+    private User holder;
+
+    @BeforeEach
+    void seedProducts() {
+        first = productRepository.save(product(0));
+        second = productRepository.save(product(1));
+    }
+
+    @AfterEach
+    void removeOrders() {
+        jdbcTemplate.update("DELETE FROM ORDER_ITEMS WHERE PRODUCT_ID IN (?, ?)",
+                first.getProductId(), second.getProductId());
+        jdbcTemplate.update("DELETE FROM ORDERS WHERE CUSTOMER_EMAIL = ?", email());
+        if (holder != null) {
+            userRepository.delete(holder);
+        }
+        productRepository.deleteAllById(List.of(first.getProductId(), second.getProductId()));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger firstSold = new AtomicInteger();
+        AtomicInteger secondSold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    // Alternate item order so lock ordering, not request order, decides who waits
+                    boolean reversed = (thread + i) % 2 == 0;
+                    int firstUnits = 1 + i % 2;
+                    int secondUnits = 1;
+                    try {
+                        orderService.createGuestOrder(order(reversed, firstUnits, secondUnits));
+                        placed.incrementAndGet();
+                        firstSold.addAndGet(firstUnits);
+                        secondSold.addAndGet(secondUnits);
+                    } catch (BadRequestException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - began) / 1_000_000_000.0;
+        executor.shutdown();
+
+        int firstLeft = productRepository.findById(first.getProductId()).orElseThrow().getQuantity();
+        int secondLeft = productRepository.findById(second.getProductId()).orElseThrow().getQuantity();
+        Integer orders = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ORDERS WHERE CUSTOMER_EMAIL = ?", Integer.class, email());
+
+        System.out.printf("%d placed, %d rejected in %.2f s (%.1f orders/s)%n",
+                placed.get(), rejected.get(), seconds, (placed.get() + rejected.get()) / seconds);
+
+        assertThat(placed.get() + rejected.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+        assertThat(orders).isEqualTo(placed.get());
+        assertThat(firstLeft).isGreaterThanOrEqualTo(0).isEqualTo(STOCK - firstSold.get());
+        assertThat(secondLeft).isGreaterThanOrEqualTo(0).isEqualTo(STOCK - secondSold.get());
+        // Demand is well above stock, so the first product has to sell out (down to at most one unit)
+        assertThat(firstLeft).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void heldUnitsSurviveARushOnFreeStock() throws Exception {
+        User customer = new User();
+        customer.setEmail(email());
+        customer.setPassword("not-a-real-hash");
+        customer.setFirstName("Flash");
+        customer.setLastName("Holder");
+        holder = userRepository.save(customer);
+
+        List<String> holds = new ArrayList<>();
+        for (int i = 0; i < HOLDS; i++) {
+            ReservationRequest reservation = new ReservationRequest();
+            reservation.setItems(List.of(item(first.getProductId(), 1), item(second.getProductId(), 1)));
+            holds.add(stockReservationService.reserve(holder.getUserId(), reservation).getReservationId());
+        }
+
+        AtomicInteger placed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        orderService.createGuestOrder(order(false, 1, 1));
+                        placed.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        // Sold out for everyone without a hold
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertThat(placed.get()).isEqualTo(STOCK - HOLDS);
+        assertThat(productRepository.findById(first.getProductId()).orElseThrow().getQuantity()).isEqualTo(HOLDS);
+
+        // Every hold still gets its unit, and then nothing is left
+        for (String hold : holds) {
+            UserOrderRequest request = new UserOrderRequest();
+            request.setShippingCity("Testville");
+            request.setShippingState("TS");
+            request.setShippingZipCode("00000");
+            request.setShippingCountry("US");
+            request.setPaymentMethod("CASH_ON_DELIVERY");
+            request.setItems(List.of(item(first.getProductId(), 1), item(second.getProductId(), 1)));
+            request.setReservationId(hold);
+            orderService.createUserOrder(holder.getUserId(), request);
+        }
+        assertThat(productRepository.findById(first.getProductId()).orElseThrow().getQuantity()).isZero();
+        assertThat(productRepository.findById(second.getProductId()).orElseThrow().getQuantity()).isZero();
+    }
+
+    private Product product(int index) {
+        Product product = new Product();
+        product.setName("Contended " + index);
+        product.setPrice(BigDecimal.TEN);
+        product.setSku("HOT-" + run + "-" + index);
+        product.setQuantity(STOCK);
+        return product;
+    }
+
+    private GuestOrderRequest order(boolean reversed, int firstUnits, int secondUnits) {
+        GuestOrderRequest request = new GuestOrderRequest();
+        request.setFirstName("Flash");
+        request.setLastName("Buyer");
+        request.setEmail(email());
+        request.setPhone("5550100");
+        request.setAddress("1 Queue Street");
+        request.setCity("Testville");
+        request.setState("TS");
+        request.setZipCode("00000");
+        request.setCountry("US");
+        request.setPaymentMethod("CASH_ON_DELIVERY");
+
+        List<OrderItemRequest> items = new ArrayList<>(List.of(
+                item(first.getProductId(), firstUnits),
+                item(second.getProductId(), secondUnits)));
+        if (reversed) {
+            items = items.reversed();
+        }
+        request.setItems(items);
+        return request;
+    }
+
+    private OrderItemRequest item(Long productId, int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private String email() {
+        return "stress-" + run.toLowerCase() + "@example.com";
+    }
+}
@@ -0,0 +1,86 @@
+package com.e_commerce.e_commerce.controller.pub;
+
+import com.e_commerce.e_commerce.service.CategoryService;
+import com.e_commerce.e_commerce.service.category.CategoryTreePayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PublicCategoryControllerTests {
+
+    private final CategoryTreePayload payload = CategoryTreePayload.render(new ObjectMapper(),
+            List.of(Map.of("categoryId", 1, "name", "Shoes")));
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        CategoryService categoryService = mock(CategoryService.class);
+        when(categoryService.getCategoryTreePayload()).thenReturn(payload);
+        mockMvc = MockMvcBuilders.standaloneSetup(new PublicCategoryController(categoryService)).build();
+    }
+
+    @Test
+    void treeIsServedWithItsEtag() throws Exception {
+        mockMvc.perform(get("/api/public/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, payload.getEtag()))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(payload.getJson()));
+    }
+
+    @Test
+    void matchingEtagIsNotModified() throws Exception {
+        mockMvc.perform(get("/api/public/categories/tree").header(HttpHeaders.IF_NONE_MATCH, payload.getEtag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get("/api/public/categories/tree").header(HttpHeaders.IF_NONE_MATCH, "W/\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void gzipIsSentOnlyWhenAccepted() throws Exception {
+        mockMvc.perform(get("/api/public/categories/tree").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(content().bytes(payload.getGzipped()));
+
+        mockMvc.perform(get("/api/public/categories/tree").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(payload.getJson()));
+    }
+
+    @Test
+    void acceptEncodingIsParsed() {
+        assertThat(PublicCategoryController.acceptsGzip("gzip")).isTrue();
+        assertThat(PublicCategoryController.acceptsGzip("deflate, GZIP ; q=0.5")).isTrue();
+        assertThat(PublicCategoryController.acceptsGzip("x-gzip")).isTrue();
+        assertThat(PublicCategoryController.acceptsGzip("*")).isTrue();
+        assertThat(PublicCategoryController.acceptsGzip(null)).isFalse();
+        assertThat(PublicCategoryController.acceptsGzip("identity")).isFalse();
+        assertThat(PublicCategoryController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PublicCategoryController.acceptsGzip("gzip;q=0.000")).isFalse();
+        assertThat(PublicCategoryController.acceptsGzip("*;q=1, gzip;q=0")).isFalse();
+        assertThat(PublicCategoryController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(PublicCategoryController.acceptsGzip("notgzip")).isFalse();
+    }
+}
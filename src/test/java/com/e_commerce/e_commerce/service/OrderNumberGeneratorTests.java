@@ -0,0 +1,117 @@
+package com.e_commerce.e_commerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderNumberGeneratorTests {
+
+    private static final long NOW = Instant.parse("2026-06-01T12:00:00Z").toEpochMilli();
+
+    @Test
+    void numbersAreFixedWidthAndIncreaseAsText() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderNumberGenerator generator = new OrderNumberGenerator(5, clock::get);
+
+        String previous = generator.next();
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 100 == 0) {
+                clock.addAndGet(3);
+            }
+            String next = generator.next();
+            assertThat(next).hasSize(16).startsWith("ORD").matches("ORD[0-9A-HJKMNP-TV-Z]{13}");
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void clockSteppingBackKeepsCountingOn() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderNumberGenerator generator = new OrderNumberGenerator(5, clock::get);
+        Set<String> issued = new HashSet<>();
+        String previous = generator.next();
+        issued.add(previous);
+
+        clock.addAndGet(-5_000);
+        for (int i = 0; i < 20_000; i++) {
+            String next = generator.next();
+            assertThat(next).isGreaterThan(previous);
+            assertThat(issued.add(next)).isTrue();
+            previous = next;
+        }
+
+        clock.set(NOW + 60_000);
+        assertThat(generator.next()).isGreaterThan(previous);
+    }
+
+    @Test
+    void fullMillisecondBorrowsTheNextOne() {
+        // 4096 numbers per millisecond; a stopped clock must not wrap the counter onto issued numbers
+        OrderNumberGenerator generator = new OrderNumberGenerator(5, () -> NOW);
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 3 * 4096; i++) {
+            assertThat(issued.add(generator.next())).isTrue();
+        }
+    }
+
+    @Test
+    void instancesOnDifferentNodesNeverCollide() throws Exception {
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int node = 0; node < 4; node++) {
+            // Every node reads the very same clock
+            OrderNumberGenerator generator = new OrderNumberGenerator(node, () -> NOW);
+            for (int thread = 0; thread < 2; thread++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int duplicates = 0;
+                    for (int i = 0; i < 5_000; i++) {
+                        if (!issued.add(generator.next())) {
+                            duplicates++;
+                        }
+                    }
+                    return duplicates;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<Integer> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isZero();
+        }
+        executor.shutdown();
+
+        assertThat(issued).hasSize(4 * 2 * 5_000);
+    }
+
+    @Test
+    void multiInstanceDeploymentNeedsANodeId() {
+        assertThatThrownBy(() -> new OrderNumberGenerator(-1, true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.order-number.node-id");
+        assertThat(new OrderNumberGenerator(7, true).next()).startsWith("ORD");
+        assertThat(new OrderNumberGenerator(-1, false).next()).startsWith("ORD");
+    }
+
+    @Test
+    void nodeIdMustFitItsBits() {
+        assertThatThrownBy(() -> new OrderNumberGenerator(1024, true)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OrderNumberGenerator(-2, false)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.e_commerce.e_commerce.service;
+
+import com.e_commerce.e_commerce.dto.response.ProductResponse;
+import com.e_commerce.e_commerce.event.StockChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductDetailCacheTests {
+
+    private static final LocalDateTime LOADED = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    private final ProductDetailCache cache = new ProductDetailCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void newerStockChangePatchesTheCachedQuantity() {
+        get();
+        cache.onStockChanged(new StockChangedEvent(1L, 10, 8, LOADED.plusSeconds(1)));
+
+        ProductResponse patched = get();
+        assertThat(patched.getQuantity()).isEqualTo(8);
+        assertThat(patched.getUpdatedDate()).isEqualTo(LOADED.plusSeconds(1));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void lateStockChangeDropsTheEntryInsteadOfRollingItBack() {
+        get();
+        cache.onStockChanged(new StockChangedEvent(1L, 8, 5, LOADED.plusSeconds(2)));
+        cache.onStockChanged(new StockChangedEvent(1L, 10, 8, LOADED.plusSeconds(1)));
+
+        assertThat(get().getQuantity()).isEqualTo(10);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void unorderedStockChangeDropsTheEntry() {
+        get();
+        cache.onStockChanged(new StockChangedEvent(1L, 10, 8, LOADED));
+        get();
+        cache.onStockChanged(new StockChangedEvent(1L, 10, 8, null));
+        get();
+
+        assertThat(loads).hasValue(3);
+    }
+
+    private ProductResponse get() {
+        return cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new ProductResponse(id, "Phone", null, BigDecimal.TEN, "SKU-1", 10, "ACTIVE", null,
+                    null, List.of(), Set.of(), LOADED, LOADED);
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.e_commerce.e_commerce.service.cart;
+
+import com.e_commerce.e_commerce.dto.request.CartItemRequest;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.repository.CartSnapshotRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.service.pricing.PricingEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartServiceTests {
+
+    private static final String CART = CartService.userCart(1L);
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.existsByProductIdAndStatus(anyLong(), eq("ACTIVE"))).thenReturn(true);
+        CartStore cartStore = new CartStore(mock(CartSnapshotRepository.class), 100, Duration.ofHours(1), false);
+        cartService = new CartService(cartStore, productRepository, mock(PricingEngine.class), 3, 999);
+    }
+
+    @Test
+    void addingAccumulatesUpToTheLimit() {
+        cartService.addItem(CART, item(10L, 500));
+
+        assertThat(cartService.addItem(CART, item(10L, 499)).getTotalQuantity()).isEqualTo(999);
+        assertThatThrownBy(() -> cartService.addItem(CART, item(10L, 1)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void hugeQuantityCannotWrapAroundTheLimit() {
+        cartService.addItem(CART, item(10L, 1));
+
+        assertThatThrownBy(() -> cartService.addItem(CART, item(10L, Integer.MAX_VALUE)))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(cartService.getCart(CART).getTotalQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void settingZeroRemovesTheLine() {
+        cartService.addItem(CART, item(10L, 2));
+        cartService.setItem(CART, item(10L, 0));
+
+        assertThat(cartService.getCart(CART).getItems()).isEmpty();
+    }
+
+    @Test
+    void distinctProductsAreCapped() {
+        cartService.addItem(CART, item(1L, 1));
+        cartService.addItem(CART, item(2L, 1));
+        cartService.addItem(CART, item(3L, 1));
+
+        assertThatThrownBy(() -> cartService.addItem(CART, item(4L, 1)))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(cartService.addItem(CART, item(3L, 1)).getTotalQuantity()).isEqualTo(4);
+    }
+
+    private static CartItemRequest item(Long productId, int quantity) {
+        CartItemRequest request = new CartItemRequest();
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        return request;
+    }
+}
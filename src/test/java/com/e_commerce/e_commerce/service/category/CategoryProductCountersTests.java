@@ -0,0 +1,191 @@
+package com.e_commerce.e_commerce.service.category;
+
+import com.e_commerce.e_commerce.event.CategoryChangedEvent;
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import com.e_commerce.e_commerce.event.StockChangedEvent;
+import com.e_commerce.e_commerce.model.Category;
+import com.e_commerce.e_commerce.repository.CategoryRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CategoryProductCountersTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final CategoryTreeIndex categoryTreeIndex = new CategoryTreeIndex(categoryRepository);
+    private final CategoryProductCounters counters = new CategoryProductCounters(productRepository, categoryTreeIndex);
+
+    private final List<Category> categories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 1 > 2 > 3, and 4 on its own
+        categories.add(category(1L, null));
+        categories.add(category(2L, 1L));
+        categories.add(category(3L, 2L));
+        categories.add(category(4L, null));
+        when(categoryRepository.findAll()).thenAnswer(invocation -> List.copyOf(categories));
+
+        when(productRepository.findAllCategoryLinks()).thenReturn(List.of(
+                new Object[]{100L, 3L},
+                new Object[]{101L, 2L},
+                new Object[]{101L, 3L},
+                new Object[]{102L, 4L}));
+        when(productRepository.findAllListingStates()).thenReturn(List.of(
+                new Object[]{100L, "ACTIVE", 5, null},
+                new Object[]{101L, "ACTIVE", 0, null},
+                new Object[]{102L, "INACTIVE", 3, null},
+                new Object[]{103L, "ACTIVE", 9, null}));
+    }
+
+    @Test
+    void countsOwnAndSubtreeProductsOncePerCategory() {
+        counters.load();
+
+        assertCounts(3L, 2, 2, 1, 2, 2, 1);
+        assertCounts(2L, 1, 1, 0, 2, 2, 1);
+        assertCounts(1L, 0, 0, 0, 2, 2, 1);
+        assertCounts(4L, 1, 0, 0, 1, 0, 0);
+    }
+
+    @Test
+    void stockCrossingZeroMovesInStockCounts() {
+        counters.load();
+
+        counters.onStockChanged(new StockChangedEvent(101L, 0, 4, null));
+        assertCounts(2L, 1, 1, 1, 2, 2, 2);
+
+        counters.onStockChanged(new StockChangedEvent(100L, 5, 3, null));
+        assertCounts(3L, 2, 2, 2, 2, 2, 2);
+
+        counters.onStockChanged(new StockChangedEvent(100L, 3, 0, null));
+        assertCounts(3L, 2, 2, 1, 2, 2, 1);
+        assertCounts(1L, 0, 0, 0, 2, 2, 1);
+    }
+
+    @Test
+    void productMovedToAnotherCategory() {
+        counters.load();
+
+        counters.onProductChanged(product(100L, "ACTIVE", 5, Set.of(4L)));
+
+        assertCounts(3L, 1, 1, 0, 1, 1, 0);
+        assertCounts(1L, 0, 0, 0, 1, 1, 0);
+        assertCounts(4L, 2, 1, 1, 2, 1, 1);
+    }
+
+    @Test
+    void productLeavingEveryCategoryIsNoLongerCounted() {
+        counters.load();
+
+        counters.onProductChanged(product(101L, "ACTIVE", 0, Set.of()));
+
+        assertCounts(2L, 0, 0, 0, 1, 1, 1);
+        assertCounts(1L, 0, 0, 0, 1, 1, 1);
+    }
+
+    @Test
+    void categoryMoveCarriesItsProductsToTheNewAncestors() {
+        counters.load();
+        assertCounts(4L, 1, 0, 0, 1, 0, 0);
+
+        categories.set(2, category(3L, 4L));
+        categoryTreeIndex.onCategoryChanged(new CategoryChangedEvent(3L, "Category 3", 4L, false));
+
+        assertCounts(4L, 1, 0, 0, 3, 2, 1);
+        assertCounts(1L, 0, 0, 0, 1, 1, 0);
+        assertCounts(2L, 1, 1, 0, 1, 1, 0);
+    }
+
+    @Test
+    void changeCommittedDuringAReloadWinsOverWhatTheReloadRead() {
+        counters.load();
+        // The reload reads 102 as before, but it is activated and moved while the reload runs
+        when(productRepository.findAllListingStates()).thenAnswer(invocation -> {
+            counters.onProductChanged(product(102L, "ACTIVE", 3, Set.of(1L)));
+            counters.onStockChanged(new StockChangedEvent(100L, 5, 0, null));
+            return List.of(
+                    new Object[]{100L, "ACTIVE", 5, null},
+                    new Object[]{101L, "ACTIVE", 0, null},
+                    new Object[]{102L, "INACTIVE", 3, null});
+        });
+
+        counters.load();
+
+        assertCounts(4L, 0, 0, 0, 0, 0, 0);
+        assertCounts(1L, 1, 1, 1, 3, 3, 1);
+        assertCounts(3L, 2, 2, 0, 2, 2, 0);
+    }
+
+    @Test
+    void lateStockChangeDoesNotFlipInStockBack() {
+        LocalDateTime written = LocalDateTime.of(2026, 6, 1, 12, 0);
+        counters.load();
+        counters.onProductChanged(product(100L, "ACTIVE", 5, Set.of(3L), written));
+
+        counters.onStockChanged(new StockChangedEvent(100L, 1, 0, written.plusSeconds(2)));
+        counters.onStockChanged(new StockChangedEvent(100L, 5, 1, written.plusSeconds(1)));
+        assertCounts(3L, 2, 2, 0, 2, 2, 0);
+
+        counters.onStockChanged(new StockChangedEvent(100L, 0, 2, written.plusSeconds(3)));
+        assertCounts(3L, 2, 2, 1, 2, 2, 1);
+    }
+
+    @Test
+    void versionMovesOnlyWhenACountChanges() {
+        counters.load();
+        long loaded = counters.getVersion();
+
+        counters.onStockChanged(new StockChangedEvent(100L, 5, 3, null));
+        counters.onStockChanged(new StockChangedEvent(102L, 3, 0, null));
+        counters.onProductChanged(product(100L, "ACTIVE", 3, Set.of(3L)));
+        counters.onProductChanged(product(103L, "ACTIVE", 9, Set.of()));
+        counters.load();
+        assertThat(counters.getVersion()).isEqualTo(loaded);
+
+        counters.onStockChanged(new StockChangedEvent(101L, 0, 4, null));
+        assertThat(counters.getVersion()).isGreaterThan(loaded);
+
+        long moved = counters.getVersion();
+        counters.load();
+        assertThat(counters.getVersion()).isGreaterThan(moved);
+    }
+
+    private void assertCounts(Long categoryId, long products, long active, long inStock,
+                              long subtreeProducts, long subtreeActive, long subtreeInStock) {
+        CategoryProductCounters.Counts counts = counters.get(categoryId);
+        assertThat(new long[]{counts.getProducts(), counts.getActiveProducts(), counts.getInStockProducts(),
+                counts.getSubtreeProducts(), counts.getSubtreeActiveProducts(), counts.getSubtreeInStockProducts()})
+                .as("counts of category %d", categoryId)
+                .containsExactly(products, active, inStock, subtreeProducts, subtreeActive, subtreeInStock);
+    }
+
+    private static Category category(Long id, Long parentId) {
+        Category category = new Category();
+        category.setCategoryId(id);
+        category.setName("Category " + id);
+        category.setParentId(parentId);
+        return category;
+    }
+
+    private static ProductChangedEvent product(Long id, String status, int quantity, Set<Long> categoryIds) {
+        return product(id, status, quantity, categoryIds, null);
+    }
+
+    private static ProductChangedEvent product(Long id, String status, int quantity, Set<Long> categoryIds,
+                                               LocalDateTime updatedDate) {
+        return new ProductChangedEvent(id, "Product " + id, null, null, "SKU-" + id, BigDecimal.TEN, quantity,
+                status, categoryIds, null, updatedDate);
+    }
+}
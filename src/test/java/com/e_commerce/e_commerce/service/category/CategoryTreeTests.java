@@ -0,0 +1,103 @@
+package com.e_commerce.e_commerce.service.category;
+
+import com.e_commerce.e_commerce.model.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CategoryTreeTests {
+
+    // 1 > (2 > (4, 6), 3), 5 on its own, 7 under a parent that no longer exists
+    private final CategoryTree tree = CategoryTree.of(List.of(
+            category(6L, 2L), category(4L, 2L), category(5L, null), category(3L, 1L), category(1L, null),
+            category(2L, 1L), category(7L, 99L)));
+
+    @Test
+    void subtreeIsOneContiguousSliceInPreOrder() {
+        assertThat(tree.subtreeIds(1L)).containsExactly(1L, 2L, 4L, 6L, 3L);
+        assertThat(tree.subtreeIds(2L)).containsExactly(2L, 4L, 6L);
+        assertThat(tree.subtreeIds(4L)).containsExactly(4L);
+        assertThat(tree.subtreeIds(42L)).isEmpty();
+    }
+
+    @Test
+    void subtreeCannotBeModified() {
+        List<CategoryTree.Node> subtree = tree.subtree(2L);
+
+        assertThatThrownBy(() -> subtree.set(0, subtree.get(1))).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> subtree.clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(tree.subtreeIds(1L)).containsExactly(1L, 2L, 4L, 6L, 3L);
+    }
+
+    @Test
+    void subtreeMembershipIsARangeCheck() {
+        assertThat(tree.isInSubtree(1L, 1L)).isTrue();
+        assertThat(tree.isInSubtree(1L, 6L)).isTrue();
+        assertThat(tree.isInSubtree(2L, 3L)).isFalse();
+        assertThat(tree.isInSubtree(6L, 2L)).isFalse();
+        assertThat(tree.isInSubtree(1L, 5L)).isFalse();
+        assertThat(tree.isInSubtree(1L, 42L)).isFalse();
+    }
+
+    @Test
+    void pathRunsFromTheRootDown() {
+        assertThat(tree.path(6L)).extracting(CategoryTree.Node::getCategoryId).containsExactly(1L, 2L, 6L);
+        assertThat(tree.path(5L)).extracting(CategoryTree.Node::getCategoryId).containsExactly(5L);
+        assertThat(tree.path(42L)).isEmpty();
+    }
+
+    @Test
+    void childrenAndRootsAreOrderedById() {
+        assertThat(tree.children(1L)).extracting(CategoryTree.Node::getCategoryId).containsExactly(2L, 3L);
+        assertThat(tree.children(2L)).extracting(CategoryTree.Node::getCategoryId).containsExactly(4L, 6L);
+        assertThat(tree.children(4L)).isEmpty();
+        assertThat(tree.hasChildren(2L)).isTrue();
+        assertThat(tree.hasChildren(3L)).isFalse();
+        assertThat(tree.roots()).extracting(CategoryTree.Node::getCategoryId).containsExactly(1L, 5L, 7L);
+    }
+
+    @Test
+    void parentCycleStillPlacesEveryCategoryOnce() {
+        CategoryTree cyclic = CategoryTree.of(List.of(category(1L, 2L), category(2L, 1L), category(3L, 2L)));
+
+        assertThat(cyclic.size()).isEqualTo(3);
+        assertThat(cyclic.roots()).extracting(CategoryTree.Node::getCategoryId).containsExactly(1L);
+        assertThat(cyclic.subtreeIds(1L)).containsExactly(1L, 2L, 3L);
+        assertThat(cyclic.path(3L)).extracting(CategoryTree.Node::getCategoryId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void mapsChildrenBeforeTheirParentsInOrder() {
+        List<String> rendered = tree.mapFromLeaves((node, children) -> children.isEmpty()
+                ? node.getCategoryId().toString()
+                : node.getCategoryId() + children.stream().collect(Collectors.joining(",", "(", ")")));
+
+        assertThat(rendered).containsExactly("1(2(4,6),3)", "5", "7");
+    }
+
+    @Test
+    void mapsADeepChainWithoutRecursion() {
+        List<Category> chain = new ArrayList<>();
+        for (long id = 1; id <= 100_000; id++) {
+            chain.add(category(id, id > 1 ? id - 1 : null));
+        }
+        CategoryTree deep = CategoryTree.of(chain);
+
+        List<Integer> depths = deep.mapFromLeaves((node, children) -> children.isEmpty() ? 1 : children.get(0) + 1);
+
+        assertThat(depths).containsExactly(100_000);
+    }
+
+    private static Category category(Long id, Long parentId) {
+        Category category = new Category();
+        category.setCategoryId(id);
+        category.setName("Category " + id);
+        category.setParentId(parentId);
+        return category;
+    }
+}
@@ -0,0 +1,197 @@
+package com.e_commerce.e_commerce.service.idempotency;
+
+import com.e_commerce.e_commerce.exception.ConflictException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTests {
+
+    private final RecordingTransactionManager transactions = new RecordingTransactionManager();
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(1000, Duration.ofHours(1));
+    private final IdempotencyService service = service(store);
+
+    @Test
+    void repeatReplaysTheFirstResponse() {
+        AtomicInteger runs = new AtomicInteger();
+
+        String first = service.execute("orders:user:1", "key", Map.of("item", 1), String.class,
+                () -> "order-" + runs.incrementAndGet());
+        String again = service.execute("orders:user:1", "key", Map.of("item", 1), String.class,
+                () -> "order-" + runs.incrementAndGet());
+
+        assertThat(first).isEqualTo("order-1");
+        assertThat(again).isEqualTo("order-1");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsAConflict() {
+        service.execute("orders:user:1", "key", Map.of("item", 1), String.class, () -> "order");
+
+        assertThatThrownBy(() -> service.execute("orders:user:1", "key", Map.of("item", 2), String.class,
+                () -> "other"))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void guestsDoNotShareKeys() {
+        AtomicInteger runs = new AtomicInteger();
+        Map<String, Object> request = Map.of("item", 1);
+
+        String alice = service.execute("orders:guest:" + IdempotencyService.guestId("alice@example.com"), "key",
+                request, String.class, () -> "order-" + runs.incrementAndGet());
+        String bob = service.execute("orders:guest:" + IdempotencyService.guestId("bob@example.com"), "key",
+                request, String.class, () -> "order-" + runs.incrementAndGet());
+
+        assertThat(alice).isEqualTo("order-1");
+        assertThat(bob).isEqualTo("order-2");
+        assertThat(IdempotencyService.guestId(" Alice@Example.com"))
+                .isEqualTo(IdempotencyService.guestId("alice@example.com"));
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheActionOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.execute("orders:user:1", "key", Map.of("item", 1), String.class, () -> {
+                    sleep(50);
+                    return "order-" + runs.incrementAndGet();
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("order-1");
+        }
+        executor.shutdown();
+
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedActionCanBeRetried() {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThatThrownBy(() -> service.execute("orders:user:1", "key", Map.of("item", 1), String.class, () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("out of stock");
+        })).isInstanceOf(IllegalStateException.class);
+        String retried = service.execute("orders:user:1", "key", Map.of("item", 1), String.class,
+                () -> "order-" + runs.incrementAndGet());
+
+        assertThat(retried).isEqualTo("order-2");
+        assertThat(transactions.rolledBack).hasValue(1);
+        assertThat(transactions.committed).hasValue(1);
+    }
+
+    @Test
+    void responseIsStoredInTheActionsTransaction() {
+        // A store that cannot write the response must take the action's writes down with it
+        IdempotencyService failingOnce = service(new InMemoryIdempotencyStore(1000, Duration.ofHours(1)) {
+            private boolean failed;
+
+            @Override
+            public void complete(String key, String requestHash, String responseBody) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("store unavailable");
+                }
+                super.complete(key, requestHash, responseBody);
+            }
+        });
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThatThrownBy(() -> failingOnce.execute("orders:user:1", "key", Map.of("item", 1), String.class,
+                () -> "order-" + runs.incrementAndGet()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(transactions.rolledBack).hasValue(1);
+        assertThat(transactions.committed).hasValue(0);
+
+        String retried = failingOnce.execute("orders:user:1", "key", Map.of("item", 1), String.class,
+                () -> "order-" + runs.incrementAndGet());
+        String replayed = failingOnce.execute("orders:user:1", "key", Map.of("item", 1), String.class,
+                () -> "order-" + runs.incrementAndGet());
+        assertThat(retried).isEqualTo("order-2");
+        assertThat(replayed).isEqualTo("order-2");
+    }
+
+    @Test
+    void claimIsHeldFromTheActionsTransaction() {
+        List<String> steps = new ArrayList<>();
+        IdempotencyService holding = service(new InMemoryIdempotencyStore(1000, Duration.ofHours(1)) {
+            @Override
+            public void hold(String key) {
+                steps.add(TransactionSynchronizationManager.isActualTransactionActive() ? "hold in transaction" : "hold");
+            }
+        });
+
+        holding.execute("orders:user:1", "key", Map.of("item", 1), String.class, () -> {
+            steps.add("action");
+            return "order";
+        });
+
+        assertThat(steps).containsExactly("hold in transaction", "action");
+    }
+
+    private IdempotencyService service(IdempotencyStore store) {
+        return new IdempotencyService(store, new ObjectMapper(), new TransactionTemplate(transactions),
+                Duration.ofSeconds(5));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Runs transaction synchronizations like a real one; counts how transactions ended
+    private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        private final AtomicInteger committed = new AtomicInteger();
+        private final AtomicInteger rolledBack = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rolledBack.incrementAndGet();
+        }
+    }
+}
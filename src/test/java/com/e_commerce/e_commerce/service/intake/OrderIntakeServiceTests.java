@@ -0,0 +1,271 @@
+package com.e_commerce.e_commerce.service.intake;
+
+import com.e_commerce.e_commerce.dto.request.GuestOrderRequest;
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.dto.request.UserOrderRequest;
+import com.e_commerce.e_commerce.dto.response.OrderIntakeResponse;
+import com.e_commerce.e_commerce.enums.IntakeStatus;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
+import com.e_commerce.e_commerce.exception.TooManyRequestsException;
+import com.e_commerce.e_commerce.model.OrderIntakeRecord;
+import com.e_commerce.e_commerce.repository.OrderIntakeRecordRepository;
+import com.e_commerce.e_commerce.repository.OrderRepository;
+import com.e_commerce.e_commerce.service.OrderNumberGenerator;
+import com.e_commerce.e_commerce.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeServiceTests {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderIntakeRecordRepository intakeRepository = mock(OrderIntakeRecordRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RecordingTransactionManager transactions = new RecordingTransactionManager();
+
+    @Test
+    void acceptedOrderIsWrittenDownAndItsRowLeavesWithThePlacedOrder() throws Exception {
+        OrderIntakeService intake = intake(10, 4);
+        List<String> placedInTransaction = Collections.synchronizedList(new ArrayList<>());
+        when(orderService.placeQueuedOrders(anyList())).thenAnswer(invocation -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+            List<QueuedOrder> batch = invocation.getArgument(0);
+            batch.forEach(order -> placedInTransaction.add(order.getOrderNumber()));
+            return Map.of();
+        });
+        when(intakeRepository.deleteByOrderNumbers(anyList())).thenAnswer(invocation -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+            assertThat(placedInTransaction).containsAll(invocation.getArgument(0));
+            return 1;
+        });
+
+        OrderIntakeResponse accepted = intake.submitGuestOrder(guestOrder(7L));
+
+        assertThat(accepted.getStatus()).isEqualTo(IntakeStatus.QUEUED);
+        verify(intakeRepository).insertQueued(eq(accepted.getOrderNumber()), isNull(),
+                contains("guest@example.com"), eq(IntakeStatus.QUEUED), any());
+
+        intake.drainOnShutdown();
+
+        verify(intakeRepository).deleteByOrderNumbers(List.of(accepted.getOrderNumber()));
+        assertThat(intake.getStatus(accepted.getOrderNumber(), null).getStatus()).isEqualTo(IntakeStatus.COMPLETED);
+        assertThat(transactions.committed).hasValue(2);
+    }
+
+    @Test
+    void fullQueueIsAnsweredWith429WithoutWritingARow() {
+        OrderIntakeService intake = intake(1, 4);
+
+        intake.submitGuestOrder(guestOrder(7L));
+
+        assertThatThrownBy(() -> intake.submitGuestOrder(guestOrder(7L)))
+                .isInstanceOf(TooManyRequestsException.class);
+        verify(intakeRepository).insertQueued(anyString(), isNull(), anyString(), eq(IntakeStatus.QUEUED), any());
+        assertThat(intake.queuedOrders()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedOrderIsKeptAsFailed() throws Exception {
+        OrderIntakeService intake = intake(10, 4);
+        OrderIntakeResponse accepted = intake.submitUserOrder(3L, userOrder(7L));
+        when(orderService.placeQueuedOrders(anyList())).thenReturn(
+                Map.of(accepted.getOrderNumber(), new BadRequestException("Insufficient stock")));
+
+        intake.drainOnShutdown();
+
+        verify(intakeRepository).markFailed(eq(accepted.getOrderNumber()), eq("Insufficient stock"), any());
+        verify(intakeRepository, never()).deleteByOrderNumbers(anyList());
+        OrderIntakeResponse status = intake.getStatus(accepted.getOrderNumber(), 3L);
+        assertThat(status.getStatus()).isEqualTo(IntakeStatus.FAILED);
+        assertThat(status.getMessage()).isEqualTo("Insufficient stock");
+    }
+
+    @Test
+    void orderThatCouldNotBePlacedStaysQueuedForRecovery() throws Exception {
+        OrderIntakeService intake = intake(10, 4);
+        OrderIntakeResponse accepted = intake.submitGuestOrder(guestOrder(7L));
+        when(orderService.placeQueuedOrders(anyList())).thenThrow(new IllegalStateException("connection reset"));
+        when(orderRepository.findByOrderNumber(accepted.getOrderNumber())).thenReturn(Optional.empty());
+        when(intakeRepository.findById(accepted.getOrderNumber())).thenReturn(Optional.of(
+                record(accepted.getOrderNumber(), null, "{}", 0)));
+
+        intake.drainOnShutdown();
+
+        assertThat(transactions.rolledBack).hasValue(1);
+        verify(intakeRepository, never()).deleteByOrderNumbers(anyList());
+        verify(intakeRepository, never()).markFailed(anyString(), any(), any());
+        assertThat(intake.getStatus(accepted.getOrderNumber(), null).getStatus()).isEqualTo(IntakeStatus.QUEUED);
+    }
+
+    @Test
+    void statusOfAnOrderQueuedElsewhereComesFromTheIntakeTable() {
+        OrderIntakeService intake = intake(10, 4);
+        when(orderRepository.findByOrderNumber("ORD1")).thenReturn(Optional.empty());
+        when(intakeRepository.findById("ORD1")).thenReturn(Optional.of(record("ORD1", 3L, "{}", 0)));
+
+        assertThat(intake.getStatus("ORD1", 3L).getStatus()).isEqualTo(IntakeStatus.QUEUED);
+        assertThatThrownBy(() -> intake.getStatus("ORD1", 4L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> intake.getStatus("ORD1", null)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void staleRowsAreTakenOverOnlyWhenTheClaimIsWon() throws Exception {
+        OrderIntakeService intake = intake(10, 4);
+        String guestBody = objectMapper.writeValueAsString(guestOrder(7L));
+        String userBody = objectMapper.writeValueAsString(userOrder(8L));
+        when(intakeRepository.findClaimedBefore(eq(IntakeStatus.QUEUED), any(), any())).thenReturn(List.of(
+                record("ORD1", null, guestBody, 0),
+                record("ORD2", 3L, userBody, 1),
+                record("ORD3", 3L, userBody, 0)));
+        when(intakeRepository.claim(eq("ORD1"), eq(0), any())).thenReturn(1);
+        when(intakeRepository.claim(eq("ORD2"), eq(1), any())).thenReturn(1);
+        when(intakeRepository.claim(eq("ORD3"), eq(0), any())).thenReturn(0);
+        List<QueuedOrder> placed = new ArrayList<>();
+        when(orderService.placeQueuedOrders(anyList())).thenAnswer(invocation -> {
+            placed.addAll(invocation.getArgument(0));
+            return Map.of();
+        });
+
+        intake.recoverStaleOrders();
+
+        assertThat(intake.queuedOrders()).isEqualTo(2);
+        intake.drainOnShutdown();
+        assertThat(placed).extracting(QueuedOrder::getOrderNumber).containsExactly("ORD1", "ORD2");
+        assertThat(placed.get(0).getGuestRequest().getEmail()).isEqualTo("guest@example.com");
+        assertThat(placed.get(1).getUserId()).isEqualTo(3L);
+        assertThat(placed.get(1).getProductIds()).containsExactly(8L);
+        verify(intakeRepository).deleteClaimedBefore(eq(IntakeStatus.FAILED), any());
+    }
+
+    @Test
+    void recoveryGivesUpAfterTheLastAttemptAndDropsRowsOfPlacedOrders() {
+        OrderIntakeService intake = intake(10, 4);
+        when(intakeRepository.findClaimedBefore(eq(IntakeStatus.QUEUED), any(), any())).thenReturn(List.of(
+                record("ORD1", null, "{}", 3),
+                record("ORD2", null, "{}", 0)));
+        when(intakeRepository.claim(anyString(), anyInt(), any())).thenReturn(1);
+        when(orderRepository.existsByOrderNumber("ORD2")).thenReturn(true);
+
+        intake.recoverStaleOrders();
+
+        assertThat(intake.queuedOrders()).isZero();
+        verify(intakeRepository).markFailed(eq("ORD1"), anyString(), any());
+        verify(intakeRepository).deleteByOrderNumbers(List.of("ORD2"));
+    }
+
+    @Test
+    void ordersForOneProductArePlacedInArrivalOrder() throws Exception {
+        OrderIntakeService intake = intake(1000, 4);
+        List<String> placed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger batches = new AtomicInteger();
+        when(orderService.placeQueuedOrders(anyList())).thenAnswer(invocation -> {
+            List<QueuedOrder> batch = invocation.getArgument(0);
+            // Later batches finishing first would show up as out-of-order numbers
+            Thread.sleep(batches.incrementAndGet() % 3 == 0 ? 20 : 1);
+            batch.forEach(order -> placed.add(order.getOrderNumber()));
+            return Map.of();
+        });
+        intake.start();
+
+        List<String> accepted = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            accepted.add(intake.submitGuestOrder(guestOrder(7L)).getOrderNumber());
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (placed.size() < accepted.size() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        intake.drainOnShutdown();
+
+        assertThat(placed).containsExactlyElementsOf(accepted);
+    }
+
+    private OrderIntakeService intake(int queueCapacity, int batchSize) {
+        return new OrderIntakeService(orderService, orderRepository, new OrderNumberGenerator(1, true), intakeRepository,
+                objectMapper, new TransactionTemplate(transactions), queueCapacity, batchSize, 4,
+                Duration.ofHours(1), Duration.ofMinutes(5));
+    }
+
+    private static OrderIntakeRecord record(String orderNumber, Long userId, String body, int attempts) {
+        return new OrderIntakeRecord(orderNumber, userId, body, IntakeStatus.QUEUED, null, attempts,
+                LocalDateTime.now().minusMinutes(10));
+    }
+
+    private static GuestOrderRequest guestOrder(Long productId) {
+        GuestOrderRequest request = new GuestOrderRequest();
+        request.setFirstName("Guest");
+        request.setLastName("Buyer");
+        request.setEmail("guest@example.com");
+        request.setItems(List.of(item(productId)));
+        request.setPaymentMethod("CASH_ON_DELIVERY");
+        return request;
+    }
+
+    private static UserOrderRequest userOrder(Long productId) {
+        UserOrderRequest request = new UserOrderRequest();
+        request.setItems(List.of(item(productId)));
+        request.setPaymentMethod("CREDIT_CARD");
+        return request;
+    }
+
+    private static OrderItemRequest item(Long productId) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        return item;
+    }
+
+    // Runs transaction synchronizations like a real one; counts how transactions ended
+    private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        private final AtomicInteger committed = new AtomicInteger();
+        private final AtomicInteger rolledBack = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rolledBack.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.e_commerce.e_commerce.service.inventory;
+
+import com.e_commerce.e_commerce.dto.request.OrderItemRequest;
+import com.e_commerce.e_commerce.dto.request.ReservationRequest;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import com.e_commerce.e_commerce.exception.ResourceNotFoundException;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import com.e_commerce.e_commerce.service.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockReservationServiceTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final StockReservationService service = new StockReservationService(productRepository,
+            mock(InventoryService.class), Duration.ofMinutes(10), Duration.ofMinutes(30), 2, 5, 100);
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findStockLevels(any())).thenAnswer(invocation -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long productId : invocation.<Collection<Long>>getArgument(0)) {
+                rows.add(new Object[]{productId, 100, null});
+            }
+            return rows;
+        });
+        when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void userCanOnlyKeepSoManyHoldsLive() {
+        service.reserve(1L, request(1L, 1));
+        String second = service.reserve(1L, request(2L, 1)).getReservationId();
+
+        assertThatThrownBy(() -> service.reserve(1L, request(3L, 1)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("2 stock holds");
+        // Someone else's limits are their own
+        service.reserve(2L, request(3L, 1));
+
+        service.release(1L, second);
+        service.reserve(1L, request(3L, 1));
+    }
+
+    @Test
+    void unitsOfOneProductAreCappedAcrossAUsersHolds() {
+        service.reserve(1L, request(1L, 3));
+
+        assertThatThrownBy(() -> service.reserve(1L, request(1L, 3)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("5 units of product ID 1");
+        // The refused hold took no units and used up no slot
+        service.reserve(1L, request(1L, 2));
+    }
+
+    @Test
+    void onlyTheOwnerCanReleaseAHold() {
+        String hold = service.reserve(1L, request(1L, 1)).getReservationId();
+
+        assertThatThrownBy(() -> service.release(2L, hold)).isInstanceOf(ResourceNotFoundException.class);
+        service.release(1L, hold);
+        assertThatThrownBy(() -> service.release(1L, hold)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static ReservationRequest request(Long productId, int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        ReservationRequest request = new ReservationRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+}
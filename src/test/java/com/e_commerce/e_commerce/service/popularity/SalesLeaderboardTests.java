@@ -0,0 +1,197 @@
+package com.e_commerce.e_commerce.service.popularity;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.event.OrderStatusChangedEvent;
+import com.e_commerce.e_commerce.repository.OrderItemRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SalesLeaderboardTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 6, 1, 12, 30);
+
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+    private final AtomicReference<LocalDateTime> clock = new AtomicReference<>(START);
+    private final SalesLeaderboard leaderboard = new SalesLeaderboard(orderItemRepository, clock::get);
+
+    @Test
+    void saleLeavesEachWindowAsItsHourPassesOut() {
+        leaderboard.load();
+        leaderboard.onOrderStatusChanged(order(1L, null, OrderStatus.PENDING, START, 3));
+
+        assertThat(units(1L)).containsExactly(3L, 3L, 3L);
+
+        // Still the 24th hour of the day-long window
+        clock.set(START.plusHours(23).withMinute(59));
+        leaderboard.tick();
+        assertThat(units(1L)).containsExactly(3L, 3L, 3L);
+
+        clock.set(START.plusHours(24).withMinute(0));
+        leaderboard.tick();
+        assertThat(units(1L)).containsExactly(3L, 3L, 0L);
+
+        clock.set(START.plusHours(167).withMinute(59));
+        leaderboard.tick();
+        assertThat(units(1L)).containsExactly(3L, 3L, 0L);
+
+        clock.set(START.plusHours(168).withMinute(0));
+        leaderboard.tick();
+        assertThat(units(1L)).containsExactly(3L, 0L, 0L);
+        assertThat(leaderboard.top(PopularityWindow.LAST_7_DAYS, 10, id -> true)).isEmpty();
+        assertThat(leaderboard.top(PopularityWindow.ALL_TIME, 10, id -> true)).containsExactly(1L);
+    }
+
+    @Test
+    void cancellationTakesUnitsBackFromTheHourTheOrderWasPlaced() {
+        leaderboard.load();
+        leaderboard.onOrderStatusChanged(order(1L, null, OrderStatus.PENDING, START, 4));
+        clock.set(START.plusHours(2));
+        leaderboard.onOrderStatusChanged(order(1L, null, OrderStatus.PENDING, START.plusHours(2), 1));
+
+        clock.set(START.plusHours(10));
+        leaderboard.onOrderStatusChanged(order(1L, OrderStatus.PENDING, OrderStatus.CANCELLED, START, 4));
+        assertThat(units(1L)).containsExactly(1L, 1L, 1L);
+
+        // Had the cancellation landed in the current hour, the window would go negative here
+        clock.set(START.plusHours(24));
+        leaderboard.tick();
+        assertThat(units(1L)).containsExactly(1L, 1L, 1L);
+        clock.set(START.plusHours(26));
+        leaderboard.tick();
+        assertThat(units(1L)).containsExactly(1L, 1L, 0L);
+    }
+
+    @Test
+    void gapLongerThanTheWidestWindowClearsEverySlidingWindow() {
+        leaderboard.load();
+        leaderboard.onOrderStatusChanged(order(1L, null, OrderStatus.PENDING, START, 2));
+        leaderboard.onOrderStatusChanged(order(2L, null, OrderStatus.PENDING, START, 5));
+
+        clock.set(START.plusDays(30));
+        assertThat(leaderboard.top(PopularityWindow.LAST_24_HOURS, 10, id -> true)).isEmpty();
+        assertThat(leaderboard.top(PopularityWindow.ALL_TIME, 10, id -> true)).containsExactly(2L, 1L);
+
+        leaderboard.onOrderStatusChanged(order(1L, null, OrderStatus.PENDING, START.plusDays(30), 1));
+        assertThat(units(1L)).containsExactly(3L, 1L, 1L);
+    }
+
+    @Test
+    void loadBucketsRecentSalesByHour() {
+        when(orderItemRepository.getQuantitySoldPerProduct()).thenReturn(List.of(
+                new Object[]{1L, 10L},
+                new Object[]{2L, 6L}));
+        when(orderItemRepository.getHourlyQuantitySold(any())).thenReturn(List.of(
+                hourly(1L, START.minusHours(23), 2L),
+                hourly(1L, START.minusHours(24), 3L),
+                hourly(2L, START.minusHours(167), 4L)));
+        leaderboard.load();
+
+        assertThat(units(1L)).containsExactly(10L, 5L, 2L);
+        assertThat(units(2L)).containsExactly(6L, 4L, 0L);
+
+        clock.set(START.plusHours(1));
+        assertThat(leaderboard.top(PopularityWindow.LAST_7_DAYS, 10, id -> true)).containsExactly(1L);
+        assertThat(units(1L)).containsExactly(10L, 5L, 0L);
+    }
+
+    @Test
+    void windowsMatchARecountAsTheClockMoves() {
+        leaderboard.load();
+        Random random = new Random(11);
+        List<Sale> sales = new ArrayList<>();
+
+        for (int step = 0; step < 3_000; step++) {
+            clock.set(clock.get().plus(Duration.ofMinutes(random.nextInt(step % 500 == 499 ? 20_000 : 240))));
+            if (!sales.isEmpty() && random.nextInt(5) == 0) {
+                Sale sale = sales.get(random.nextInt(sales.size()));
+                if (!sale.cancelled) {
+                    sale.cancelled = true;
+                    leaderboard.onOrderStatusChanged(
+                            order(sale.productId, OrderStatus.PENDING, OrderStatus.CANCELLED, sale.placed, sale.units));
+                }
+            } else {
+                Sale sale = new Sale(1 + random.nextInt(30), clock.get(), 1 + random.nextInt(5));
+                sales.add(sale);
+                leaderboard.onOrderStatusChanged(order(sale.productId, null, OrderStatus.PENDING, sale.placed, sale.units));
+            }
+
+            if (step % 50 == 0) {
+                leaderboard.tick();
+                for (PopularityWindow window : PopularityWindow.values()) {
+                    Map<Long, Long> expected = recount(sales, window);
+                    for (long productId = 1; productId <= 30; productId++) {
+                        assertThat(leaderboard.unitsSold(window, productId))
+                                .as("step %d, %s, product %d", step, window, productId)
+                                .isEqualTo(expected.getOrDefault(productId, 0L));
+                    }
+                    assertThat(leaderboard.top(window, 5, id -> true)).isEqualTo(expected.entrySet().stream()
+                            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                            .limit(5)
+                            .map(Map.Entry::getKey)
+                            .toList());
+                }
+            }
+        }
+    }
+
+    private Map<Long, Long> recount(List<Sale> sales, PopularityWindow window) {
+        long now = hours(clock.get());
+        Map<Long, Long> units = new HashMap<>();
+        for (Sale sale : sales) {
+            if (!sale.cancelled && (!window.isSliding() || now - hours(sale.placed) < window.getHours())) {
+                units.merge(sale.productId, (long) sale.units, Long::sum);
+            }
+        }
+        return units;
+    }
+
+    private List<Long> units(Long productId) {
+        return List.of(
+                leaderboard.unitsSold(PopularityWindow.ALL_TIME, productId),
+                leaderboard.unitsSold(PopularityWindow.LAST_7_DAYS, productId),
+                leaderboard.unitsSold(PopularityWindow.LAST_24_HOURS, productId));
+    }
+
+    private static long hours(LocalDateTime time) {
+        return Duration.between(START.withMinute(0), time).toHours();
+    }
+
+    private static Object[] hourly(Long productId, LocalDateTime hour, Long units) {
+        return new Object[]{productId, hour.getYear(), hour.getMonthValue(), hour.getDayOfMonth(), hour.getHour(), units};
+    }
+
+    private static OrderStatusChangedEvent order(Long productId, OrderStatus previous, OrderStatus status,
+                                                 LocalDateTime createdDate, int quantity) {
+        return new OrderStatusChangedEvent(1L, previous, status, BigDecimal.TEN, createdDate,
+                List.of(new OrderStatusChangedEvent.Line(productId, "Product " + productId, quantity, BigDecimal.TEN)));
+    }
+
+    private static class Sale {
+        private final long productId;
+        private final LocalDateTime placed;
+        private final int units;
+        private boolean cancelled;
+
+        private Sale(long productId, LocalDateTime placed, int units) {
+            this.productId = productId;
+            this.placed = placed;
+            this.units = units;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.e_commerce.e_commerce.service.recommendation;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.event.OrderStatusChangedEvent;
+import com.e_commerce.e_commerce.repository.OrderItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoughtTogetherIndexTests {
+
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+    private final TreeMap<Long, long[]> history = new TreeMap<>();
+    private long lastOrderId;
+
+    @Test
+    void placedOrderMovesItsPartnersUpInPlace() {
+        BoughtTogetherIndex index = build(3);
+        place(index, 1, 2);
+        place(index, 1, 3);
+        place(index, 1, 4);
+        // All tied at one order: newest product first
+        assertThat(index.related(1L)).containsExactly(4L, 3L, 2L);
+
+        place(index, 1, 2);
+        assertThat(index.related(1L)).containsExactly(2L, 4L, 3L);
+
+        place(index, 1, 3);
+        place(index, 1, 3);
+        assertThat(index.related(1L)).containsExactly(3L, 2L, 4L);
+        assertThat(index.related(3L)).containsExactly(1L);
+    }
+
+    @Test
+    void newPartnerEntersAFullListOnlyByOutrankingItsLast() {
+        BoughtTogetherIndex index = build(2);
+        place(index, 1, 5);
+        place(index, 1, 5);
+        place(index, 1, 4);
+        place(index, 1, 4);
+        assertThat(index.related(1L)).containsExactly(5L, 4L);
+
+        place(index, 1, 6);
+        assertThat(index.related(1L)).containsExactly(5L, 4L);
+
+        place(index, 1, 6);
+        assertThat(index.related(1L)).containsExactly(6L, 5L);
+    }
+
+    @Test
+    void cancellingATopPartnerLetsTheNextOneIn() {
+        BoughtTogetherIndex index = build(2);
+        long firstWithFive = place(index, 1, 5);
+        long secondWithFive = place(index, 1, 5);
+        long firstWithFour = place(index, 1, 4);
+        place(index, 1, 4);
+        place(index, 1, 3);
+        assertThat(index.related(1L)).containsExactly(5L, 4L);
+
+        cancel(index, firstWithFive);
+        assertThat(index.related(1L)).containsExactly(4L, 5L);
+
+        cancel(index, firstWithFour);
+        assertThat(index.related(1L)).containsExactly(5L, 4L);
+
+        cancel(index, secondWithFive);
+        assertThat(index.related(1L)).containsExactly(4L, 3L);
+    }
+
+    @Test
+    void onlyOrdersOfTwoToMaxProductsCount() {
+        BoughtTogetherIndex index = build(10);
+        place(index, 1);
+        place(index, 1, 1);
+        place(index, 1, 2, 3, 4, 5, 6);
+        assertThat(index.related(1L)).isEmpty();
+
+        place(index, 1, 2, 3, 4, 5);
+        assertThat(index.related(1L)).containsExactly(5L, 4L, 3L, 2L);
+    }
+
+    @Test
+    void ordersPlacedDuringTheBuildAreAppliedAfterIt() {
+        history.put(1L, new long[]{1, 2});
+        BoughtTogetherIndex index = index(10);
+
+        // Committed after the build read the history
+        index.onOrderStatusChanged(event(2L, null, OrderStatus.PENDING, new long[]{1, 3}));
+        assertThat(index.related(1L)).isEmpty();
+
+        index.rebuild();
+        assertThat(index.related(1L)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void patchedListsMatchARecountAcrossHistoryBatches() {
+        Random random = new Random(3);
+        // Enough lines that the history is read in several batches, some cutting an order in two
+        for (long orderId = 1; orderId <= 6_000; orderId++) {
+            history.put(orderId, randomOrder(random));
+        }
+        lastOrderId = 6_000;
+        BoughtTogetherIndex index = build(5);
+
+        Map<Long, long[]> live = new HashMap<>(history);
+        Set<Long> cancelled = new HashSet<>();
+        assertMatchesRecount(index, live, cancelled);
+
+        List<Long> orderIds = new ArrayList<>(live.keySet());
+        for (int step = 0; step < 5_000; step++) {
+            if (random.nextInt(3) == 0) {
+                long orderId = orderIds.get(random.nextInt(orderIds.size()));
+                boolean wasCancelled = !cancelled.add(orderId);
+                if (wasCancelled) {
+                    cancelled.remove(orderId);
+                }
+                index.onOrderStatusChanged(event(orderId,
+                        wasCancelled ? OrderStatus.CANCELLED : OrderStatus.PENDING,
+                        wasCancelled ? OrderStatus.PENDING : OrderStatus.CANCELLED,
+                        live.get(orderId)));
+            } else {
+                long[] products = randomOrder(random);
+                long orderId = place(index, products);
+                live.put(orderId, products);
+                orderIds.add(orderId);
+            }
+            if (step % 500 == 0) {
+                assertMatchesRecount(index, live, cancelled);
+            }
+        }
+        assertMatchesRecount(index, live, cancelled);
+    }
+
+    private void assertMatchesRecount(BoughtTogetherIndex index, Map<Long, long[]> orders, Set<Long> cancelled) {
+        for (long id = 0; id < 40; id++) {
+            long product = id;
+            Map<Long, Integer> counts = new HashMap<>();
+            for (Map.Entry<Long, long[]> order : orders.entrySet()) {
+                long[] products = Arrays.stream(order.getValue()).distinct().toArray();
+                if (cancelled.contains(order.getKey()) || products.length < 2 || products.length > 5
+                        || Arrays.stream(products).noneMatch(other -> other == product)) {
+                    continue;
+                }
+                for (long partner : products) {
+                    if (partner != product) {
+                        counts.merge(partner, 1, Integer::sum);
+                    }
+                }
+            }
+            List<Long> expected = counts.entrySet().stream()
+                    .sorted((a, b) -> !a.getValue().equals(b.getValue())
+                            ? b.getValue() - a.getValue()
+                            : Long.compare(b.getKey(), a.getKey()))
+                    .limit(5)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertThat(index.related(product)).as("product %d", product).isEqualTo(expected);
+        }
+    }
+
+    private static long[] randomOrder(Random random) {
+        long[] products = new long[1 + random.nextInt(6)];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = random.nextInt(40);
+        }
+        return products;
+    }
+
+    private BoughtTogetherIndex build(int topN) {
+        BoughtTogetherIndex index = index(topN);
+        index.rebuild();
+        return index;
+    }
+
+    private BoughtTogetherIndex index(int topN) {
+        when(orderItemRepository.findSaleLinesAfter(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            int limit = invocation.<Limit>getArgument(1).max();
+            List<Object[]> rows = new ArrayList<>();
+            history.tailMap(after, false).forEach((orderId, products) -> {
+                for (long product : products) {
+                    rows.add(new Object[]{orderId, product});
+                }
+            });
+            return rows.subList(0, Math.min(limit, rows.size()));
+        });
+        return new BoughtTogetherIndex(orderItemRepository, topN, 5);
+    }
+
+    private long place(BoughtTogetherIndex index, long... products) {
+        long orderId = ++lastOrderId;
+        history.put(orderId, products);
+        index.onOrderStatusChanged(event(orderId, null, OrderStatus.PENDING, products));
+        return orderId;
+    }
+
+    private void cancel(BoughtTogetherIndex index, long orderId) {
+        index.onOrderStatusChanged(event(orderId, OrderStatus.PENDING, OrderStatus.CANCELLED, history.get(orderId)));
+    }
+
+    private static OrderStatusChangedEvent event(long orderId, OrderStatus previous, OrderStatus status,
+                                                 long[] products) {
+        List<OrderStatusChangedEvent.Line> lines = Arrays.stream(products)
+                .mapToObj(product -> new OrderStatusChangedEvent.Line(product, "Product " + product, 1, BigDecimal.ONE))
+                .toList();
+        return new OrderStatusChangedEvent(orderId, previous, status, BigDecimal.ONE, null, lines);
+    }
+}
@@ -0,0 +1,86 @@
+package com.e_commerce.e_commerce.service.search;
+
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTests {
+
+    private static final Predicate<IndexedProduct> ANY = product -> true;
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @BeforeEach
+    void setUp() {
+        // Every product has a model term of its own, all of them starting with "x"
+        for (long id = 0; id < 200; id++) {
+            index.put(product(id, "Widget x" + id + (id == 7 ? " special" : "")));
+        }
+    }
+
+    @Test
+    void shortPrefixMatchesEveryTermUnderIt() {
+        assertThat(ids(index.search("x", ANY))).hasSize(200);
+        assertThat(ids(index.search("x1", ANY))).containsExactlyInAnyOrderElementsOf(
+                LongStream.range(0, 200).filter(id -> String.valueOf(id).startsWith("1")).boxed().toList());
+    }
+
+    @Test
+    void prefixAfterACommonTermMatchesEveryTermUnderIt() {
+        assertThat(ids(index.search("widget x", ANY))).hasSize(200);
+        assertThat(ids(index.search("widget x19", ANY))).containsExactlyInAnyOrder(19L, 190L, 191L, 192L, 193L,
+                194L, 195L, 196L, 197L, 198L, 199L);
+    }
+
+    @Test
+    void prefixAfterARareTermIsProbedPerCandidate() {
+        assertThat(ids(index.search("special x", ANY))).containsExactly(7L);
+        assertThat(ids(index.search("special x8", ANY))).isEmpty();
+    }
+
+    @Test
+    void exactTermOutscoresALongerOneUnderTheSamePrefix() {
+        List<InvertedIndex.Hit> hits = index.search("widget x1", ANY);
+
+        InvertedIndex.Hit best = hits.stream()
+                .max((a, b) -> Double.compare(a.getScore(), b.getScore()))
+                .orElseThrow();
+        assertThat(best.getProduct().getProductId()).isEqualTo(1L);
+    }
+
+    @Test
+    void lateStockChangeDoesNotRollTheQuantityBack() {
+        LocalDateTime written = LocalDateTime.of(2026, 6, 1, 12, 0);
+        index.put(product(500L, "Gadget", written));
+
+        index.updateQuantity(500L, 0, written.plusSeconds(2));
+        index.updateQuantity(500L, 1, written.plusSeconds(1));
+        assertThat(index.get(500L).getQuantity()).isZero();
+
+        index.updateQuantity(500L, 3, written.plusSeconds(3));
+        assertThat(index.get(500L).getQuantity()).isEqualTo(3);
+        assertThat(ids(index.search("gadget", IndexedProduct::isInStock))).containsExactly(500L);
+    }
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.getProduct().getProductId()).toList();
+    }
+
+    private static IndexedProduct product(Long id, String name) {
+        return product(id, name, null);
+    }
+
+    private static IndexedProduct product(Long id, String name, LocalDateTime updatedDate) {
+        return IndexedProduct.of(new ProductChangedEvent(id, name, null, null, null, BigDecimal.TEN, 5, "ACTIVE",
+                Set.of(), null, updatedDate));
+    }
+}
@@ -0,0 +1,99 @@
+package com.e_commerce.e_commerce.service.search;
+
+import com.e_commerce.e_commerce.dto.response.SuggestionResponse;
+import com.e_commerce.e_commerce.event.CategoryChangedEvent;
+import com.e_commerce.e_commerce.event.ProductChangedEvent;
+import com.e_commerce.e_commerce.event.StockChangedEvent;
+import com.e_commerce.e_commerce.model.Category;
+import com.e_commerce.e_commerce.repository.CategoryRepository;
+import com.e_commerce.e_commerce.repository.OrderItemRepository;
+import com.e_commerce.e_commerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestServiceTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+    private final SuggestService suggestService =
+            new SuggestService(productRepository, categoryRepository, orderItemRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findAllCategoryLinks()).thenReturn(List.of(
+                new Object[]{1L, 10L},
+                new Object[]{2L, 10L}));
+        when(productRepository.findActiveProductNames()).thenReturn(List.of(
+                new Object[]{1L, "Galaxy Phone", "Samsung"},
+                new Object[]{2L, "Galaxy Tab", "Samsung"},
+                new Object[]{3L, "Gala Dress", null}));
+        Category phones = new Category();
+        phones.setCategoryId(10L);
+        phones.setName("Galaxy Accessories");
+        when(categoryRepository.findAll()).thenReturn(List.of(phones));
+        when(orderItemRepository.getQuantitySoldPerProduct()).thenReturn(List.of(
+                new Object[]{1L, 5L},
+                new Object[]{2L, 2L}));
+        suggestService.load();
+    }
+
+    @Test
+    void brandsAndCategoriesWeighTheirProducts() {
+        // Phone 6, Tab 3, Dress 1; Samsung and the category 9, plus one for the category
+        assertThat(texts("sam")).containsExactly("Samsung");
+        assertThat(texts("gala")).containsExactly("Galaxy Accessories", "Galaxy Phone", "Galaxy Tab", "Gala Dress");
+    }
+
+    @Test
+    void salesWaitForThePopularityPassUnlessStockCrossesZero() {
+        suggestService.onStockChanged(new StockChangedEvent(3L, 20, 10, null));
+        suggestService.refresh();
+        assertThat(texts("gala")).last().isEqualTo("Gala Dress");
+
+        suggestService.weighSales();
+        suggestService.refresh();
+        assertThat(texts("gala")).containsExactly("Gala Dress", "Galaxy Accessories", "Galaxy Phone", "Galaxy Tab");
+
+        suggestService.onStockChanged(new StockChangedEvent(2L, 10, 0, null));
+        suggestService.refresh();
+        assertThat(texts("galaxy")).containsExactly("Galaxy Accessories", "Galaxy Tab", "Galaxy Phone");
+    }
+
+    @Test
+    void renamedProductIsPatchedAndEmptiedBrandGoes() {
+        suggestService.onProductChanged(product(1L, "Pixel 9", "Google", "ACTIVE", Set.of(10L)));
+        suggestService.onProductChanged(product(2L, "Galaxy Tab", "Samsung", "INACTIVE", Set.of(10L)));
+        suggestService.refresh();
+
+        assertThat(texts("pix")).containsExactly("Pixel 9");
+        assertThat(texts("goo")).containsExactly("Google");
+        assertThat(texts("sam")).isEmpty();
+        assertThat(texts("galaxy")).containsExactly("Galaxy Accessories");
+    }
+
+    @Test
+    void deletedCategoryIsNoLongerSuggested() {
+        suggestService.onCategoryChanged(new CategoryChangedEvent(10L, "Galaxy Accessories", null, true));
+        suggestService.refresh();
+
+        assertThat(texts("acc")).isEmpty();
+        assertThat(texts("galaxy")).containsExactly("Galaxy Phone", "Galaxy Tab");
+    }
+
+    private List<String> texts(String query) {
+        return suggestService.suggest(query, 10).stream().map(SuggestionResponse::getText).toList();
+    }
+
+    private static ProductChangedEvent product(Long id, String name, String brand, String status, Set<Long> categoryIds) {
+        return new ProductChangedEvent(id, name, null, brand, "SKU-" + id, BigDecimal.TEN, 5, status, categoryIds, null, null);
+    }
+}
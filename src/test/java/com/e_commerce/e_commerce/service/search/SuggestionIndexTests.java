@@ -0,0 +1,119 @@
+package com.e_commerce.e_commerce.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionIndexTests {
+
+    private static final String[] WORDS = {"apple", "apricot", "app", "banana", "band", "cable", "case", "camera",
+            "phone", "pro", "max", "mini", "charger", "usb", "c"};
+
+    @Test
+    void prefixMatchesAnyWordStartHeaviestFirst() {
+        SuggestionIndex index = SuggestionIndex.build(List.of(
+                product(1L, "Apple iPhone 15", 10),
+                product(2L, "iPhone Case", 30),
+                product(3L, "Phone Charger", 20),
+                new SuggestionIndex.Entry(SuggestionIndex.Type.BRAND, null, "Apple", 40)));
+
+        assertThat(index.suggest("iph", 10)).extracting(SuggestionIndex.Entry::getText)
+                .containsExactly("iPhone Case", "Apple iPhone 15");
+        assertThat(index.suggest("app", 1)).extracting(SuggestionIndex.Entry::getText).containsExactly("Apple");
+        assertThat(index.suggest("phone c", 10)).extracting(SuggestionIndex.Entry::getText)
+                .containsExactly("Phone Charger");
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void patchReplacesRenamesAndRemovesByKey() {
+        SuggestionIndex index = SuggestionIndex.build(List.of(
+                product(1L, "Apple iPhone 15", 10),
+                product(2L, "iPhone Case", 30)));
+
+        Map<String, SuggestionIndex.Entry> changes = new HashMap<>();
+        changes.put(SuggestionIndex.key(SuggestionIndex.Type.PRODUCT, 1L), product(1L, "Apple iPhone 15", 50));
+        changes.put(SuggestionIndex.key(SuggestionIndex.Type.PRODUCT, 2L), null);
+        changes.put(SuggestionIndex.key(SuggestionIndex.Type.PRODUCT, 3L), product(3L, "Galaxy Case", 5));
+        SuggestionIndex patched = index.patch(changes);
+
+        assertThat(patched.size()).isEqualTo(2);
+        assertThat(patched.suggest("case", 10)).extracting(SuggestionIndex.Entry::getText)
+                .containsExactly("Galaxy Case");
+        assertThat(patched.suggest("iphone", 10)).extracting(SuggestionIndex.Entry::getWeight).containsExactly(50L);
+        // The old snapshot is untouched
+        assertThat(index.suggest("case", 10)).extracting(SuggestionIndex.Entry::getText)
+                .containsExactly("iPhone Case");
+
+        SuggestionIndex renamed = patched.patch(Map.of(
+                SuggestionIndex.key(SuggestionIndex.Type.PRODUCT, 1L), product(1L, "Pixel 9", 50)));
+        assertThat(renamed.suggest("iphone", 10)).isEmpty();
+        assertThat(renamed.suggest("pix", 10)).extracting(SuggestionIndex.Entry::getId).containsExactly(1L);
+    }
+
+    @Test
+    void patchedIndexAnswersLikeAFreshBuild() {
+        Random random = new Random(7);
+        Map<String, SuggestionIndex.Entry> current = new HashMap<>();
+        SuggestionIndex index = SuggestionIndex.EMPTY;
+        // Distinct weights, so the order of equally heavy entries never comes into it
+        long weights = 0;
+
+        for (int round = 0; round < 300; round++) {
+            Map<String, SuggestionIndex.Entry> changes = new HashMap<>();
+            int size = 1 + random.nextInt(round % 50 < 40 ? 8 : 30);
+            for (int i = 0; i < size; i++) {
+                long id = random.nextInt(200);
+                String key = SuggestionIndex.key(SuggestionIndex.Type.PRODUCT, id);
+                SuggestionIndex.Entry existing = current.get(key);
+                SuggestionIndex.Entry entry;
+                if (round % 50 >= 40 || (existing != null && random.nextInt(4) == 0)) {
+                    entry = null;
+                } else if (existing != null && random.nextBoolean()) {
+                    entry = product(id, existing.getText(), ++weights);
+                } else {
+                    entry = product(id, randomName(random), ++weights);
+                }
+                changes.put(key, entry);
+            }
+            changes.forEach((key, entry) -> {
+                if (entry == null) {
+                    current.remove(key);
+                } else {
+                    current.put(key, entry);
+                }
+            });
+            index = index.patch(changes);
+
+            SuggestionIndex rebuilt = SuggestionIndex.build(new ArrayList<>(current.values()));
+            assertThat(index.size()).isEqualTo(current.size());
+            for (String word : WORDS) {
+                for (String query : List.of(word, word.substring(0, 1), word + " ", "pro " + word)) {
+                    assertThat(index.suggest(query, 5)).extracting(SuggestionIndex.Entry::getKey)
+                            .as("round %d, query '%s'", round, query)
+                            .containsExactlyElementsOf(rebuilt.suggest(query, 5).stream()
+                                    .map(SuggestionIndex.Entry::getKey).toList());
+                }
+            }
+        }
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int words = 1 + random.nextInt(3);
+        for (int i = 0; i < words; i++) {
+            name.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return name.toString();
+    }
+
+    private static SuggestionIndex.Entry product(Long id, String name, long weight) {
+        return new SuggestionIndex.Entry(SuggestionIndex.Type.PRODUCT, id, name, weight);
+    }
+}
@@ -0,0 +1,99 @@
+package com.e_commerce.e_commerce.util;
+
+import com.e_commerce.e_commerce.enums.OrderStatus;
+import com.e_commerce.e_commerce.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTests {
+
+    @Test
+    void everySupportedKeyTypeRoundTrips() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("status", OrderStatus.SHIPPED);
+        keys.put("createdDate", LocalDateTime.of(2026, 6, 1, 12, 30, 5));
+        keys.put("price", new BigDecimal("19.90"));
+        keys.put("name", "Tea & Coffee = 100%");
+        keys.put("stockQuantity", 3);
+        keys.put("orderId", 42L);
+
+        String cursor = CursorCodec.encode(ScrollPosition.forward(keys));
+        KeysetScrollPosition position = CursorCodec.decode(cursor, Sort.by("status", "createdDate", "orderId"));
+
+        assertThat(position.getKeys()).containsExactlyEntriesOf(keys);
+    }
+
+    @Test
+    void nullOrUnsupportedKeysAreBadRequests() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("brand", null);
+        keys.put("productId", 1L);
+        assertThatThrownBy(() -> CursorCodec.encode(ScrollPosition.forward(keys)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("brand");
+
+        assertThatThrownBy(() -> CursorCodec.encode(ScrollPosition.forward(Map.of("token", UUID.randomUUID()))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("token");
+    }
+
+    @Test
+    void sortOutsideTheAllowedKeysIsABadRequest() {
+        Set<String> keys = Set.of("createdDate", "productId");
+        CursorCodec.checkSort(Sort.by("createdDate").descending(), keys);
+
+        assertThatThrownBy(() -> CursorCodec.checkSort(Sort.by("brand"), keys))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("brand")
+                .hasMessageContaining("createdDate, productId");
+    }
+
+    @Test
+    void tamperedCursorsAreBadRequests() {
+        Sort sort = Sort.by("status");
+
+        assertThatThrownBy(() -> CursorCodec.decode("not base64!", sort)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorCodec.decode(token("status=E:OrderStatus.LOST"), sort))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorCodec.decode(token("status=E:Missing.PENDING"), sort))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorCodec.decode(token("status=E:..CursorCodec.X"), sort))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorCodec.decode(token("orderId=L:1"), sort))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("status");
+    }
+
+    @Test
+    void blankCursorStartsFromTheBeginning() {
+        assertThat(CursorCodec.decode(null, Sort.by("orderId")).isInitial()).isTrue();
+        assertThat(CursorCodec.decode(" ", Sort.by("orderId")).isInitial()).isTrue();
+    }
+
+    @Test
+    void sizeIsCapped() {
+        CursorCodec.checkSize(1);
+        CursorCodec.checkSize(CursorCodec.MAX_SIZE);
+        assertThatThrownBy(() -> CursorCodec.checkSize(0)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorCodec.checkSize(CursorCodec.MAX_SIZE + 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static String token(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,123 @@
+package com.e_commerce.e_commerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntMapTests {
+
+    @Test
+    void absentKeysReadAsZero() {
+        LongIntMap map = new LongIntMap();
+
+        assertThat(map.get(42)).isZero();
+        assertThat(map.remove(42)).isZero();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    void putReturnsThePreviousValueAndZeroRemoves() {
+        LongIntMap map = new LongIntMap();
+
+        assertThat(map.put(7, 3)).isZero();
+        assertThat(map.put(7, 5)).isEqualTo(3);
+        assertThat(map.get(7)).isEqualTo(5);
+        assertThat(map.put(7, 0)).isEqualTo(5);
+        assertThat(map.get(7)).isZero();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void addRemovesTheKeyWhenItReachesZero() {
+        LongIntMap map = new LongIntMap();
+
+        assertThat(map.add(1, 2)).isEqualTo(2);
+        assertThat(map.add(1, -1)).isEqualTo(1);
+        assertThat(map.add(1, -1)).isZero();
+        assertThat(map.size()).isZero();
+        assertThat(map.add(1, -1)).isEqualTo(-1);
+        assertThat(map.get(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        LongIntMap map = new LongIntMap();
+        for (long key = 0; key < 10_000; key++) {
+            map.put(key * 31, (int) key + 1);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 0; key < 10_000; key++) {
+            assertThat(map.get(key * 31)).isEqualTo((int) key + 1);
+        }
+    }
+
+    @Test
+    void removalKeepsTheRestOfACollisionRunReachable() {
+        // Multiples of a power of two crowd into few home slots, so removals land mid-run
+        LongIntMap map = new LongIntMap();
+        for (long key = 1; key <= 200; key++) {
+            map.put(key << 20, (int) key);
+        }
+        for (long key = 1; key <= 200; key += 2) {
+            map.remove(key << 20);
+        }
+
+        assertThat(map.size()).isEqualTo(100);
+        for (long key = 1; key <= 200; key++) {
+            assertThat(map.get(key << 20)).isEqualTo(key % 2 == 0 ? (int) key : 0);
+        }
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongIntMap map = new LongIntMap();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, 1);
+        }
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.get(5)).isZero();
+        map.put(5, 2);
+        assertThat(map.get(5)).isEqualTo(2);
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomOperations() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            LongIntMap map = new LongIntMap();
+            Map<Long, Integer> expected = new HashMap<>();
+            int range = 1 + random.nextInt(300);
+            for (int i = 0; i < 20_000; i++) {
+                long key = random.nextInt(range) * (random.nextBoolean() ? 1L : 64L);
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        int value = random.nextInt(5);
+                        assertThat(map.put(key, value)).isEqualTo(expected.getOrDefault(key, 0));
+                        if (value == 0) {
+                            expected.remove(key);
+                        } else {
+                            expected.put(key, value);
+                        }
+                    }
+                    case 1 -> {
+                        assertThat(map.remove(key)).isEqualTo(expected.getOrDefault(key, 0));
+                        expected.remove(key);
+                    }
+                    default -> assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+                }
+                assertThat(map.size()).isEqualTo(expected.size());
+            }
+
+            Map<Long, Integer> visited = new HashMap<>();
+            map.forEach(visited::put);
+            assertThat(visited).isEqualTo(expected);
+        }
+    }
+}